@@ -0,0 +1,481 @@
+package binio;
+
+import enginedriver.Direction;
+import enginedriver.Fixture;
+import enginedriver.GameWorld;
+import enginedriver.IdentifiableEntity;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.problems.IProblem;
+import enginedriver.problems.Monster;
+import enginedriver.problems.Problem;
+import enginedriver.problems.Puzzle;
+import enginedriver.problems.validator.ItemSolutionValidator;
+import enginedriver.problems.validator.StringSolutionValidator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshots of game worlds and players, a compact alternative to the JSON files.
+ * A snapshot starts with a magic number and the version of the format, then the length
+ * of the body and a table of every distinct string, each stored once. In the body numbers
+ * are varints and strings are indexes in the table. A world lists its items, problems,
+ * fixtures and rooms in that order, and every entity refers to the ones before it by
+ * index, so an entity shared by several rooms, or a problem solved by an item, stays one
+ * object when it is read back. A player snapshot holds its inventory items in full.
+ */
+public class BinaryCodec {
+  /** The version of the format written, and the latest one that can be read. */
+  public static final int VERSION = 1;
+  static final int WORLD_MAGIC = 0x41515744; // "AQWD"
+  static final int PLAYER_MAGIC = 0x4151504c; // "AQPL"
+
+  private static final int MONSTER = 0;
+  private static final int PUZZLE = 1;
+  private static final int NO_SOLUTION = 0;
+  private static final int TEXT_SOLUTION = 1;
+  private static final int ITEM_SOLUTION = 2;
+  private static final int NO_ENTITY = 0;
+  private static final int ITEM_ENTITY = 1;
+  private static final int FIXTURE_ENTITY = 2;
+
+  /**
+   * Encode a game world.
+
+   * @param gameWorld the game world
+   * @return the snapshot, from position 0 to its limit
+   * @throws IOException if the world holds a problem of an unknown kind
+   */
+  public static ByteBuffer encodeWorld(GameWorld gameWorld) throws IOException {
+    BinaryEncoder out = new BinaryEncoder(WORLD_MAGIC, VERSION);
+    writeWorld(out, gameWorld);
+    return out.finishToBuffer();
+  }
+
+  /**
+   * Write a game world to a channel.
+
+   * @param gameWorld the game world
+   * @param channel the channel
+   * @throws IOException if the channel cannot be written
+   */
+  public static void writeWorld(GameWorld gameWorld, WritableByteChannel channel)
+          throws IOException {
+    BinaryEncoder out = new BinaryEncoder(WORLD_MAGIC, VERSION);
+    writeWorld(out, gameWorld);
+    out.finishTo(channel);
+  }
+
+  /**
+   * Decode a game world.
+
+   * @param buffer the snapshot, from its position on
+   * @return the game world
+   * @throws IOException if the snapshot is not a valid world
+   */
+  public static GameWorld decodeWorld(ByteBuffer buffer) throws IOException {
+    return readWorld(new BinaryDecoder(buffer, WORLD_MAGIC, VERSION));
+  }
+
+  /**
+   * Read a game world from a channel, up to its end.
+
+   * @param channel the channel
+   * @return the game world
+   * @throws IOException if the channel cannot be read or holds no valid world
+   */
+  public static GameWorld readWorld(ReadableByteChannel channel) throws IOException {
+    return decodeWorld(BinaryDecoder.readAll(channel));
+  }
+
+  /**
+   * Encode a player.
+
+   * @param player the player
+   * @return the snapshot, from position 0 to its limit
+   */
+  public static ByteBuffer encodePlayer(Player player) {
+    BinaryEncoder out = new BinaryEncoder(PLAYER_MAGIC, VERSION);
+    writePlayer(out, player);
+    return out.finishToBuffer();
+  }
+
+  /**
+   * Write a player to a channel.
+
+   * @param player the player
+   * @param channel the channel
+   * @throws IOException if the channel cannot be written
+   */
+  public static void writePlayer(Player player, WritableByteChannel channel)
+          throws IOException {
+    BinaryEncoder out = new BinaryEncoder(PLAYER_MAGIC, VERSION);
+    writePlayer(out, player);
+    out.finishTo(channel);
+  }
+
+  /**
+   * Decode a player.
+
+   * @param buffer the snapshot, from its position on
+   * @return the player
+   * @throws IOException if the snapshot is not a valid player
+   */
+  public static Player decodePlayer(ByteBuffer buffer) throws IOException {
+    return readPlayer(new BinaryDecoder(buffer, PLAYER_MAGIC, VERSION));
+  }
+
+  /**
+   * Read a player from a channel, up to its end.
+
+   * @param channel the channel
+   * @return the player
+   * @throws IOException if the channel cannot be read or holds no valid player
+   */
+  public static Player readPlayer(ReadableByteChannel channel) throws IOException {
+    return decodePlayer(BinaryDecoder.readAll(channel));
+  }
+
+  private static void writeWorld(BinaryEncoder out, GameWorld gameWorld) throws IOException {
+    Map<Integer, Room> rooms = gameWorld.getRooms();
+
+    // number every entity reachable from the rooms, each shared one once
+    Map<Item, Integer> items = new IdentityHashMap<>();
+    Map<IProblem<?>, Integer> problems = new IdentityHashMap<>();
+    Map<Fixture, Integer> fixtures = new IdentityHashMap<>();
+    for (Room<?> room : rooms.values()) {
+      for (IdentifiableEntity entity : room.getEntities().values()) {
+        if (entity instanceof Item item) {
+          items.putIfAbsent(item, items.size());
+        } else if (entity instanceof Fixture fixture) {
+          fixtures.putIfAbsent(fixture, fixtures.size());
+        }
+      }
+      if (room.getProblem() != null) {
+        problems.putIfAbsent(room.getProblem(), problems.size());
+      }
+    }
+    for (Fixture fixture : fixtures.keySet()) {
+      if (fixture.getPuzzle() != null) {
+        problems.putIfAbsent(fixture.getPuzzle(), problems.size());
+      }
+    }
+    for (IProblem<?> problem : problems.keySet()) {
+      // a solution item the player carries is in no room, but is kept all the same
+      if (problem.getSolution() instanceof Item item) {
+        items.putIfAbsent(item, items.size());
+      }
+    }
+
+    out.writeString(gameWorld.getName());
+    out.writeString(gameWorld.getVersion());
+
+    out.writeVarint(items.size());
+    for (Item item : inOrder(items)) {
+      writeItem(out, item);
+    }
+    out.writeVarint(problems.size());
+    for (IProblem<?> problem : inOrder(problems)) {
+      writeProblem(out, problem, items);
+    }
+    out.writeVarint(fixtures.size());
+    for (Fixture fixture : inOrder(fixtures)) {
+      out.writeString(fixture.getName());
+      out.writeString(fixture.getDescription());
+      out.writeString(fixture.getPictureName());
+      out.writeSignedVarint(fixture.getWeight());
+      out.writeSignedVarint(fixture.getStates());
+      writeReference(out, problems, fixture.getPuzzle());
+    }
+
+    out.writeVarint(rooms.size());
+    for (Room<?> room : rooms.values()) {
+      out.writeSignedVarint(room.getId());
+      out.writeString(room.getName());
+      out.writeString(room.getDescription());
+      out.writeString(room.getPictureName());
+      int exitCount = 0;
+      for (Direction direction : Direction.values()) {
+        if (room.hasExit(direction)) {
+          exitCount++;
+        }
+      }
+      out.writeVarint(exitCount);
+      for (Direction direction : Direction.values()) {
+        if (room.hasExit(direction)) {
+          out.writeString(direction.getKey());
+          out.writeSignedVarint(room.getExit(direction));
+        }
+      }
+      out.writeVarint(room.getEntities().size());
+      for (Map.Entry<String, IdentifiableEntity> entry : room.getEntities().entrySet()) {
+        out.writeString(entry.getKey());
+        IdentifiableEntity entity = entry.getValue();
+        if (entity instanceof Item item) {
+          out.writeByte(ITEM_ENTITY);
+          out.writeVarint(items.get(item));
+        } else if (entity instanceof Fixture fixture) {
+          out.writeByte(FIXTURE_ENTITY);
+          out.writeVarint(fixtures.get(fixture));
+        } else {
+          // a name the world file did not define
+          out.writeByte(NO_ENTITY);
+        }
+      }
+      writeReference(out, problems, room.getProblem());
+    }
+  }
+
+  private static GameWorld readWorld(BinaryDecoder in) throws IOException {
+    String name = in.readString();
+    String version = in.readString();
+
+    Item[] items = new Item[in.readCount()];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = readItem(in);
+    }
+    IProblem<?>[] problems = new IProblem<?>[in.readCount()];
+    for (int i = 0; i < problems.length; i++) {
+      problems[i] = readProblem(in, items);
+    }
+    Fixture[] fixtures = new Fixture[in.readCount()];
+    for (int i = 0; i < fixtures.length; i++) {
+      String fixtureName = in.readString();
+      String description = in.readString();
+      String pictureName = in.readString();
+      int weight = in.readSignedVarint();
+      int states = in.readSignedVarint();
+      IProblem<?> puzzle = readReference(in, problems);
+      if (puzzle != null && !(puzzle instanceof Puzzle)) {
+        throw new IOException("Fixture " + fixtureName + " refers to a monster");
+      }
+      fixtures[i] = new Fixture(fixtureName, description, weight, (Puzzle<?>) puzzle, states,
+              pictureName);
+    }
+
+    int roomCount = in.readCount();
+    Map<Integer, Room> rooms = new HashMap<>(roomCount * 4 / 3 + 1);
+    for (int i = 0; i < roomCount; i++) {
+      int id = in.readSignedVarint();
+      String roomName = in.readString();
+      String description = in.readString();
+      String pictureName = in.readString();
+      int exitCount = in.readCount();
+      Direction[] exitDirections = new Direction[exitCount];
+      int[] exitRooms = new int[exitCount];
+      for (int e = 0; e < exitCount; e++) {
+        String key = in.readString();
+        exitDirections[e] = Direction.forKey(key);
+        if (exitDirections[e] == null) {
+          throw new IOException("Unknown direction " + key);
+        }
+        exitRooms[e] = in.readSignedVarint();
+      }
+      int entityCount = in.readCount();
+      Map<String, IdentifiableEntity> entities = new HashMap<>();
+      for (int e = 0; e < entityCount; e++) {
+        String key = in.readString();
+        int kind = in.readByte();
+        switch (kind) {
+          case ITEM_ENTITY:
+            entities.put(key, element(items, in.readVarint()));
+            break;
+          case FIXTURE_ENTITY:
+            entities.put(key, element(fixtures, in.readVarint()));
+            break;
+          case NO_ENTITY:
+            entities.put(key, null);
+            break;
+          default:
+            throw new IOException("Unknown entity kind " + kind);
+        }
+      }
+      IProblem<?> problem = readReference(in, problems);
+      Room<?> room = new Room<>(id, roomName, description, null, entities, problem,
+              pictureName);
+      for (int e = 0; e < exitCount; e++) {
+        room.setExit(exitDirections[e], exitRooms[e]);
+      }
+      rooms.put(id, room);
+    }
+    return new GameWorld(name, version, rooms);
+  }
+
+  private static void writePlayer(BinaryEncoder out, Player player) {
+    out.writeString(player.getName());
+    out.writeSignedVarint(player.getHealth());
+    out.writeSignedVarint(player.getMaxWeight());
+    out.writeSignedVarint(player.getRoomNumber());
+    out.writeSignedVarint(player.getScore());
+    out.writeVarint(player.getEntities().size());
+    for (Map.Entry<String, Item> entry : player.getEntities().entrySet()) {
+      out.writeString(entry.getKey());
+      writeItem(out, entry.getValue());
+    }
+  }
+
+  private static Player readPlayer(BinaryDecoder in) throws IOException {
+    String name = in.readString();
+    int health = in.readSignedVarint();
+    int maxWeight = in.readSignedVarint();
+    int roomNumber = in.readSignedVarint();
+    int score = in.readSignedVarint();
+    int itemCount = in.readCount();
+    Map<String, Item> items = new HashMap<>();
+    for (int i = 0; i < itemCount; i++) {
+      String key = in.readString();
+      items.put(key, readItem(in));
+    }
+    return new Player(name, health, maxWeight, 0, roomNumber, items, score);
+  }
+
+  private static void writeItem(BinaryEncoder out, Item item) {
+    out.writeString(item.getName());
+    out.writeString(item.getDescription());
+    out.writeString(item.getWhenUsed());
+    out.writeString(item.getPictureName());
+    out.writeSignedVarint(item.getUseMax());
+    out.writeSignedVarint(item.getRemainingUses());
+    out.writeSignedVarint(item.getValue());
+    out.writeSignedVarint(item.getWeight());
+  }
+
+  private static Item readItem(BinaryDecoder in) throws IOException {
+    String name = in.readString();
+    String description = in.readString();
+    String whenUsed = in.readString();
+    String pictureName = in.readString();
+    int maxUses = in.readSignedVarint();
+    int remainingUses = in.readSignedVarint();
+    int value = in.readSignedVarint();
+    int weight = in.readSignedVarint();
+    return new Item(name, description, maxUses, remainingUses, value, weight, whenUsed,
+            pictureName);
+  }
+
+  private static void writeProblem(BinaryEncoder out, IProblem<?> problem,
+                                   Map<Item, Integer> items) throws IOException {
+    if (!(problem instanceof Problem<?> base)) {
+      throw new IOException("Cannot save a problem of type " + problem.getClass().getName());
+    }
+    out.writeByte(problem instanceof Monster ? MONSTER : PUZZLE);
+    out.writeString(base.getName());
+    out.writeString(base.getDescription());
+    out.writeString(base.getPictureName());
+    out.writeString(base.getEffects());
+    out.writeString(base.getTarget());
+    int flags = (base.getActive() ? 1 : 0) | (base.getAffectsTarget() ? 2 : 0)
+            | (base.getAffectsPlayer() ? 4 : 0);
+    if (problem instanceof Monster<?> monster && monster.getCanAttack()) {
+      flags |= 8;
+    }
+    out.writeByte(flags);
+    out.writeSignedVarint(base.getValue());
+    if (problem instanceof Monster<?> monster) {
+      out.writeString(monster.getAttack());
+      out.writeSignedVarint(monster.getDamage());
+    }
+    Object solution = base.getSolution();
+    if (solution instanceof String text) {
+      out.writeByte(TEXT_SOLUTION);
+      out.writeString(text);
+    } else if (solution instanceof Item item) {
+      out.writeByte(ITEM_SOLUTION);
+      out.writeVarint(items.get(item));
+    } else if (solution == null) {
+      out.writeByte(NO_SOLUTION);
+    } else {
+      throw new IOException("Cannot save a solution of type " + solution.getClass().getName());
+    }
+  }
+
+  private static IProblem<?> readProblem(BinaryDecoder in, Item[] items) throws IOException {
+    int kind = in.readByte();
+    if (kind != MONSTER && kind != PUZZLE) {
+      throw new IOException("Unknown problem kind " + kind);
+    }
+    String name = in.readString();
+    String description = in.readString();
+    String pictureName = in.readString();
+    String effects = in.readString();
+    String target = in.readString();
+    int flags = in.readByte();
+    boolean active = (flags & 1) != 0;
+    boolean affectsTarget = (flags & 2) != 0;
+    boolean affectsPlayer = (flags & 4) != 0;
+    boolean canAttack = (flags & 8) != 0;
+    int value = in.readSignedVarint();
+    String attack = null;
+    int damage = 0;
+    if (kind == MONSTER) {
+      attack = in.readString();
+      damage = in.readSignedVarint();
+    }
+
+    int solutionKind = in.readByte();
+    if (solutionKind == TEXT_SOLUTION) {
+      String solution = in.readString();
+      StringSolutionValidator validator = new StringSolutionValidator();
+      if (kind == MONSTER) {
+        return new Monster<>(name, description, active, affectsTarget, canAttack,
+                affectsPlayer, solution, value, damage, effects, target, pictureName, attack,
+                validator);
+      }
+      return new Puzzle<>(name, description, active, affectsTarget, affectsPlayer, solution,
+              value, effects, target, pictureName, validator);
+    }
+    Item solution;
+    if (solutionKind == ITEM_SOLUTION) {
+      solution = element(items, in.readVarint());
+    } else if (solutionKind == NO_SOLUTION) {
+      solution = null;
+    } else {
+      throw new IOException("Unknown solution kind " + solutionKind);
+    }
+    ItemSolutionValidator validator = new ItemSolutionValidator();
+    if (kind == MONSTER) {
+      return new Monster<>(name, description, active, affectsTarget, canAttack,
+              affectsPlayer, solution, value, damage, effects, target, pictureName, attack,
+              validator);
+    }
+    return new Puzzle<>(name, description, active, affectsTarget, affectsPlayer, solution,
+            value, effects, target, pictureName, validator);
+  }
+
+  private static void writeReference(BinaryEncoder out, Map<IProblem<?>, Integer> problems,
+                                     IProblem<?> problem) {
+    out.writeVarint(problem == null ? 0 : problems.get(problem) + 1);
+  }
+
+  private static IProblem<?> readReference(BinaryDecoder in, IProblem<?>[] problems)
+          throws IOException {
+    int reference = in.readVarint();
+    return reference == 0 ? null : element(problems, reference - 1);
+  }
+
+  private static <T> T element(T[] table, int index) throws IOException {
+    if (index < 0 || index >= table.length) {
+      throw new IOException("Entity reference out of range: " + index);
+    }
+    return table[index];
+  }
+
+  private static <T> List<T> inOrder(Map<T, Integer> numbered) {
+    List<T> ordered = new ArrayList<>(numbered.size());
+    for (int i = 0; i < numbered.size(); i++) {
+      ordered.add(null);
+    }
+    for (Map.Entry<T, Integer> entry : numbered.entrySet()) {
+      ordered.set(entry.getValue(), entry.getKey());
+    }
+    return ordered;
+  }
+}
@@ -0,0 +1,48 @@
+package binio;
+
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The BinaryDataLoader class loads game data from the binary snapshot files written by
+ * BinaryDataSaver.
+ */
+public class BinaryDataLoader {
+  private static final String WORLD_SAVE_BASE_PATH = "resources/worlds/";
+  private static final String PLAYER_SAVE_BASE_PATH = "resources/players/";
+
+  /**
+   * Load the game world from a binary file.
+
+   * @param fileName the name of the file to load, in the worlds folder or a path
+   * @return the GameWorld object
+   * @throws IOException if an error occurs during loading
+   */
+  public static GameWorld loadGameWorld(String fileName) throws IOException {
+    Path path = Path.of(WORLD_SAVE_BASE_PATH + fileName);
+    if (!Files.exists(path)) {
+      path = Path.of(fileName);
+    }
+    try (FileChannel channel = FileChannel.open(path)) {
+      return BinaryCodec.readWorld(channel);
+    }
+  }
+
+  /**
+   * Load the player from a binary file.
+   * The player's items are stored with the player, so no game world is needed.
+
+   * @param fileName the name of the file to load
+   * @return the Player object
+   * @throws IOException if an error occurs during loading
+   */
+  public static Player loadPlayer(String fileName) throws IOException {
+    try (FileChannel channel = FileChannel.open(Path.of(PLAYER_SAVE_BASE_PATH + fileName))) {
+      return BinaryCodec.readPlayer(channel);
+    }
+  }
+}
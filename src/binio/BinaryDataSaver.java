@@ -0,0 +1,40 @@
+package binio;
+
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import java.io.IOException;
+import java.nio.file.Path;
+import saveio.AtomicFiles;
+
+/**
+ * The BinaryDataSaver class saves game data to two binary snapshot files, next to the
+ * JSON files GameDataSaver writes. The files are replaced atomically.
+ */
+public class BinaryDataSaver {
+  private static final String WORLD_SAVE_BASE_PATH = "resources/worlds/";
+  private static final String PLAYER_SAVE_BASE_PATH = "resources/players/";
+
+  /**
+   * Save the game world to a binary file.
+
+   * @param fileName  the name of the file to save to
+   * @param gameWorld the GameWorld object to save
+   * @throws IOException if an error occurs during saving
+   */
+  public static void saveGame(String fileName, GameWorld gameWorld) throws IOException {
+    AtomicFiles.write(Path.of(WORLD_SAVE_BASE_PATH + fileName),
+            BinaryCodec.encodeWorld(gameWorld));
+  }
+
+  /**
+   * Save the player to a binary file.
+
+   * @param fileName the name of the file to save to
+   * @param player   the Player object to save
+   * @throws IOException if an error occurs during saving
+   */
+  public static void savePlayer(String fileName, Player player) throws IOException {
+    AtomicFiles.write(Path.of(PLAYER_SAVE_BASE_PATH + fileName),
+            BinaryCodec.encodePlayer(player));
+  }
+}
@@ -0,0 +1,206 @@
+package binio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads one binary snapshot written by BinaryEncoder, checking its magic number and
+ * version and decoding its string table before the body is read, or plain records.
+ * It's package private and not intended for public use.
+ */
+class BinaryDecoder {
+  private final ByteBuffer buffer;
+  private final String[] strings;
+  private final int version;
+
+  /**
+   * Constructor for a decoder over a whole snapshot.
+
+   * @param buffer the snapshot, from its position on
+   * @param magic the magic number expected
+   * @param maxVersion the latest version of the format that can be read
+   * @throws IOException if the snapshot is not of the expected kind or version
+   */
+  BinaryDecoder(ByteBuffer buffer, int magic, int maxVersion) throws IOException {
+    this.buffer = buffer;
+    if (buffer.remaining() < 4 || buffer.getInt() != magic) {
+      throw new IOException("Not a snapshot of the expected kind");
+    }
+    version = readVarint();
+    if (version < 1 || version > maxVersion) {
+      throw new IOException("Unsupported snapshot version " + version);
+    }
+    readVarint(); // length of the body, for readers that skip it
+    strings = new String[readVarint()];
+    for (int i = 0; i < strings.length; i++) {
+      int length = readVarint();
+      checkRemaining(length);
+      strings[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+              length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    }
+  }
+
+  /**
+   * Constructor for a decoder of plain records, with no header or string table.
+
+   * @param buffer the records, from its position on
+   */
+  BinaryDecoder(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.strings = new String[0];
+    this.version = 0;
+  }
+
+  /**
+   * Read a whole snapshot from a channel, up to its end.
+
+   * @param channel the channel
+   * @return a buffer holding the snapshot
+   * @throws IOException if the channel cannot be read
+   */
+  static ByteBuffer readAll(ReadableByteChannel channel) throws IOException {
+    int size = 4096;
+    if (channel instanceof FileChannel file) {
+      size = (int) Math.min(Integer.MAX_VALUE - 8, file.size() - file.position()) + 1;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    while (channel.read(buffer) >= 0) {
+      if (!buffer.hasRemaining()) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+      }
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Get the version of the snapshot.
+
+   * @return the version
+   */
+  int getVersion() {
+    return version;
+  }
+
+  /**
+   * Read a byte.
+
+   * @return the byte, from 0 to 255
+   * @throws IOException if the snapshot ends
+   */
+  int readByte() throws IOException {
+    checkRemaining(1);
+    return buffer.get() & 0xff;
+  }
+
+  /**
+   * Read a varint.
+
+   * @return the value
+   * @throws IOException if the snapshot ends or the varint is too long
+   */
+  int readVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      checkRemaining(1);
+      byte b = buffer.get();
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Read a zigzag encoded varint.
+
+   * @return the value
+   * @throws IOException if the snapshot ends
+   */
+  int readSignedVarint() throws IOException {
+    int value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Read a reference to the string table.
+
+   * @return the string, may be null
+   * @throws IOException if the reference is not in the table
+   */
+  String readString() throws IOException {
+    int index = readVarint();
+    if (index == 0) {
+      return null;
+    }
+    if (index > strings.length) {
+      throw new IOException("String reference out of range: " + index);
+    }
+    return strings[index - 1];
+  }
+
+  /**
+   * Read a string written inline.
+
+   * @return the string
+   * @throws IOException if the records end
+   */
+  String readText() throws IOException {
+    int length = readCount();
+    String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+            StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return text;
+  }
+
+  /**
+   * Read bytes as they are.
+
+   * @param length the number of bytes
+   * @return a view of the bytes, from position 0 to its limit
+   * @throws IOException if the records end
+   */
+  ByteBuffer readBytes(int length) throws IOException {
+    checkRemaining(length);
+    ByteBuffer bytes = buffer.slice(buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    return bytes;
+  }
+
+  /**
+   * Check if anything is left to read.
+
+   * @return true if the records are not all read
+   */
+  boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * Read a count of elements, checked against the bytes left so that a corrupt count
+   * cannot make the reader allocate huge arrays.
+
+   * @return the count
+   * @throws IOException if the count cannot be right
+   */
+  int readCount() throws IOException {
+    int count = readVarint();
+    if (count < 0 || count > buffer.remaining()) {
+      throw new IOException("Malformed count: " + count);
+    }
+    return count;
+  }
+
+  private void checkRemaining(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      throw new IOException("Snapshot is truncated");
+    }
+  }
+}
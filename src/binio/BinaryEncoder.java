@@ -0,0 +1,221 @@
+package binio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes one binary snapshot: a header, a table of the distinct strings and a body.
+ * Numbers are written as varints, signed ones zigzag encoded, and strings as their index
+ * in the table, so each distinct string is stored once however often it is used.
+ * Without a header, it writes plain records whose strings are written inline.
+ * It's package private and not intended for public use.
+ */
+class BinaryEncoder {
+  private final int magic;
+  private final int version;
+  private final Map<String, Integer> stringIndex = new HashMap<>(1024);
+  // the strings are encoded as soon as they are first seen
+  private ByteBuffer table = ByteBuffer.allocate(4096);
+  private ByteBuffer body = ByteBuffer.allocate(4096);
+
+  /**
+   * Constructor for an encoder.
+
+   * @param magic the magic number identifying the kind of snapshot
+   * @param version the version of the format
+   */
+  BinaryEncoder(int magic, int version) {
+    this.magic = magic;
+    this.version = version;
+  }
+
+  /**
+   * Constructor for an encoder of plain records, with no header or string table.
+   */
+  BinaryEncoder() {
+    this(0, 0);
+  }
+
+  /**
+   * Write a byte.
+
+   * @param value the byte
+   */
+  void writeByte(int value) {
+    ensure(1);
+    body.put((byte) value);
+  }
+
+  /**
+   * Write a non-negative int as a varint, seven bits per byte.
+
+   * @param value the value
+   */
+  void writeVarint(int value) {
+    ensure(5);
+    while ((value & ~0x7f) != 0) {
+      body.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    body.put((byte) value);
+  }
+
+  /**
+   * Write an int that may be negative, zigzag encoded so small magnitudes stay short.
+
+   * @param value the value
+   */
+  void writeSignedVarint(int value) {
+    writeVarint((value << 1) ^ (value >> 31));
+  }
+
+  /**
+   * Write a string as a reference to the string table. Null is allowed.
+
+   * @param value the string
+   */
+  void writeString(String value) {
+    if (value == null) {
+      writeVarint(0);
+      return;
+    }
+    Integer index = stringIndex.putIfAbsent(value, stringIndex.size());
+    if (index == null) {
+      index = stringIndex.size() - 1;
+      addToTable(value);
+    }
+    writeVarint(index + 1);
+  }
+
+  /**
+   * Write a string inline, as its length and its UTF-8 bytes.
+
+   * @param value the string, not null
+   */
+  void writeText(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(bytes.length);
+    ensure(bytes.length);
+    body.put(bytes);
+  }
+
+  /**
+   * Write bytes as they are.
+
+   * @param bytes the bytes, from their position to their limit
+   */
+  void writeBytes(ByteBuffer bytes) {
+    ensure(bytes.remaining());
+    body.put(bytes);
+  }
+
+  /**
+   * Get the number of bytes written so far, not counting the header.
+
+   * @return the size of the body
+   */
+  int size() {
+    return body.position();
+  }
+
+  /**
+   * Take the records written so far, leaving the encoder empty.
+
+   * @return a copy of the body, from position 0 to its limit
+   */
+  ByteBuffer takeBody() {
+    ByteBuffer taken = ByteBuffer.allocate(body.position());
+    taken.put(body.flip()).flip();
+    body.clear();
+    return taken;
+  }
+
+  /**
+   * Finish the snapshot.
+
+   * @return the header with the string table, then the body, ready to be written
+   */
+  ByteBuffer[] finish() {
+    ByteBuffer head = ByteBuffer.allocate(4 + 5 + 5 + 5 + table.position());
+    head.putInt(magic);
+    putVarint(head, version);
+    putVarint(head, body.position());
+    putVarint(head, stringIndex.size());
+    head.put(table.duplicate().flip());
+    head.flip();
+    ByteBuffer content = body.duplicate().flip();
+    return new ByteBuffer[] {head, content};
+  }
+
+  /**
+   * Finish the snapshot into one buffer.
+
+   * @return the whole snapshot
+   */
+  ByteBuffer finishToBuffer() {
+    ByteBuffer[] parts = finish();
+    ByteBuffer all = ByteBuffer.allocate(parts[0].remaining() + parts[1].remaining());
+    all.put(parts[0]).put(parts[1]).flip();
+    return all;
+  }
+
+  /**
+   * Finish the snapshot and write it to a channel.
+
+   * @param channel the channel
+   * @throws IOException if the channel cannot be written
+   */
+  void finishTo(WritableByteChannel channel) throws IOException {
+    for (ByteBuffer part : finish()) {
+      while (part.hasRemaining()) {
+        channel.write(part);
+      }
+    }
+  }
+
+  private void addToTable(String value) {
+    int length = value.length();
+    boolean ascii = true;
+    for (int i = 0; i < length && ascii; i++) {
+      ascii = value.charAt(i) < 0x80;
+    }
+    if (ascii) {
+      table = ensure(table, 5 + length);
+      putVarint(table, length);
+      for (int i = 0; i < length; i++) {
+        table.put((byte) value.charAt(i));
+      }
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      table = ensure(table, 5 + bytes.length);
+      putVarint(table, bytes.length);
+      table.put(bytes);
+    }
+  }
+
+  private void ensure(int bytes) {
+    body = ensure(body, bytes);
+  }
+
+  private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+    if (buffer.remaining() >= bytes) {
+      return buffer;
+    }
+    ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+            buffer.position() + bytes));
+    buffer.flip();
+    return bigger.put(buffer);
+  }
+
+  private static void putVarint(ByteBuffer buffer, int value) {
+    while ((value & ~0x7f) != 0) {
+      buffer.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+}
@@ -0,0 +1,451 @@
+package binio;
+
+import enginedriver.ChangeListener;
+import enginedriver.Direction;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.problems.IProblem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import saveio.AtomicFiles;
+import saveio.SaveWriter;
+
+/**
+ * An append-only journal of one game, for saves that cost as much as the changes made
+ * since the last save instead of the whole world.
+ * The journal listens to the changes the commands make and keeps them in memory until
+ * the game is saved; a save appends them to the file as one entry. The first save, and
+ * any save once the changes in the file outweigh its snapshot, compacts the journal
+ * instead: the file is atomically replaced by one entry holding a binary snapshot of the world and
+ * the player. Every entry is framed with its length and a checksum, so an entry cut
+ * short by a crash is found and dropped when the journal is read back.
+ */
+public class GameJournal implements ChangeListener {
+  /** The version of the journal format. */
+  public static final int VERSION = 1;
+  static final int MAGIC = 0x41514a4c; // "AQJL"
+  private static final String PLAYER_SAVE_BASE_PATH = "resources/players/";
+  private static final int MIN_COMPACTION_BYTES = 4096;
+
+  private static final int SNAPSHOT = 1;
+  private static final int CHANGES = 2;
+
+  private static final int TAKE = 1;
+  private static final int DROP = 2;
+  private static final int USE = 3;
+  private static final int SOLVE = 4;
+  private static final int EXIT = 5;
+  private static final int PLAYER = 6;
+
+  private final Path file;
+  private final BinaryEncoder pending = new BinaryEncoder();
+  private int pendingCount;
+  // set once the file holds the state the pending changes start from
+  private boolean started;
+  // set when a write failed, so that the file may miss changes the next entries build on
+  private volatile boolean failed;
+  private long snapshotBytes;
+  private long changeBytes;
+  private int compactions;
+  private int health;
+  private int score;
+  private int roomNumber;
+
+  /**
+   * Constructor for the journal kept in a file.
+
+   * @param file the file of the journal
+   */
+  public GameJournal(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Get the journal of a player, kept with the saved players.
+
+   * @param fileName the name of the file, in the players folder
+   * @return the journal
+   */
+  public static GameJournal forPlayer(String fileName) {
+    return new GameJournal(Path.of(PLAYER_SAVE_BASE_PATH + fileName));
+  }
+
+  @Override
+  public void itemTaken(Room<?> room, Item item) {
+    record(TAKE);
+    pending.writeSignedVarint(room.getId());
+    pending.writeText(item.getName());
+  }
+
+  @Override
+  public void itemDropped(Room<?> room, Item item) {
+    record(DROP);
+    pending.writeSignedVarint(room.getId());
+    pending.writeText(item.getName());
+  }
+
+  @Override
+  public void itemUsed(Item item) {
+    record(USE);
+    pending.writeText(item.getName());
+  }
+
+  @Override
+  public void problemSolved(Room<?> room) {
+    record(SOLVE);
+    pending.writeSignedVarint(room.getId());
+  }
+
+  @Override
+  public void exitChanged(Room<?> room, Direction direction, int roomNumber) {
+    record(EXIT);
+    pending.writeSignedVarint(room.getId());
+    pending.writeText(direction.getKey());
+    pending.writeSignedVarint(roomNumber);
+  }
+
+  @Override
+  public void commandDone(Player player) {
+    if (player.getHealth() != health || player.getScore() != score
+            || player.getRoomNumber() != roomNumber) {
+      health = player.getHealth();
+      score = player.getScore();
+      roomNumber = player.getRoomNumber();
+      record(PLAYER);
+      pending.writeSignedVarint(health);
+      pending.writeSignedVarint(score);
+      pending.writeSignedVarint(roomNumber);
+    }
+  }
+
+  /**
+   * Save the changes made since the last save, or compact the journal into a snapshot
+   * of the game if it is new or its changes have grown larger than its snapshot.
+
+   * @param gameWorld the game world, as changed
+   * @param player the player, as changed
+   * @throws IOException if the file cannot be written
+   */
+  public void commit(GameWorld gameWorld, Player player) throws IOException {
+    prepareCommit(gameWorld, player).write();
+  }
+
+  /**
+   * Encode the save {@link #commit} makes, leaving the file to be written by the job
+   * returned, on any thread. Jobs must be written in the order they are prepared; once one
+   * fails, the jobs appending after it fail too and the next save compacts the journal.
+
+   * @param gameWorld the game world, as changed
+   * @param player the player, as changed
+   * @return the job writing the file
+   * @throws IOException if the game cannot be encoded
+   */
+  public SaveWriter.Job prepareCommit(GameWorld gameWorld, Player player) throws IOException {
+    commandDone(player);
+    if (!started || failed || changeBytes + pending.size()
+            > Math.max(snapshotBytes, MIN_COMPACTION_BYTES)) {
+      return prepareCompact(gameWorld, player);
+    }
+    if (pendingCount == 0) {
+      return () -> { };
+    }
+    ByteBuffer entry = frame(CHANGES, pending.takeBody());
+    pendingCount = 0;
+    changeBytes += entry.remaining();
+    return () -> {
+      if (failed) {
+        throw new IOException("An earlier save to the journal failed: " + file);
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+              StandardOpenOption.APPEND)) {
+        while (entry.hasRemaining()) {
+          channel.write(entry);
+        }
+        channel.force(false);
+      } catch (IOException | RuntimeException e) {
+        failed = true;
+        throw e;
+      }
+    };
+  }
+
+  /**
+   * Replace the journal by a snapshot of the game.
+
+   * @param gameWorld the game world
+   * @param player the player
+   * @throws IOException if the file cannot be written
+   */
+  public void compact(GameWorld gameWorld, Player player) throws IOException {
+    prepareCompact(gameWorld, player).write();
+  }
+
+  private SaveWriter.Job prepareCompact(GameWorld gameWorld, Player player)
+          throws IOException {
+    ByteBuffer world = BinaryCodec.encodeWorld(gameWorld);
+    ByteBuffer savedPlayer = BinaryCodec.encodePlayer(player);
+    BinaryEncoder snapshot = new BinaryEncoder();
+    snapshot.writeVarint(world.remaining());
+    snapshot.writeBytes(world);
+    snapshot.writeVarint(savedPlayer.remaining());
+    snapshot.writeBytes(savedPlayer);
+    ByteBuffer entry = frame(SNAPSHOT, snapshot.takeBody());
+
+    ByteBuffer header = ByteBuffer.allocate(5).putInt(MAGIC);
+    header.put((byte) VERSION).flip();
+
+    snapshotBytes = header.limit() + entry.limit();
+    changeBytes = 0;
+    compactions++;
+    startFrom(player);
+    return () -> {
+      try {
+        AtomicFiles.write(file, header, entry);
+        failed = false;
+      } catch (IOException | RuntimeException e) {
+        failed = true;
+        throw e;
+      }
+    };
+  }
+
+  /**
+   * Read the game back from the journal: its snapshot, with every complete entry of
+   * changes made to it. An entry cut short at the end of the file is dropped, and the
+   * changes not saved yet are forgotten. Later saves go on from the state read.
+
+   * @return the game world and the player
+   * @throws IOException if the file cannot be read or does not hold a journal
+   */
+  public State restore() throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file)) {
+      buffer = BinaryDecoder.readAll(channel);
+    }
+    if (buffer.remaining() < 5 || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a journal: " + file);
+    }
+    int version = buffer.get();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported journal version " + version);
+    }
+
+    State state = null;
+    long changes = 0;
+    ByteBuffer payload;
+    while ((payload = nextEntry(buffer)) != null) {
+      BinaryDecoder in = new BinaryDecoder(payload);
+      int kind = in.readByte();
+      if (kind == SNAPSHOT) {
+        GameWorld gameWorld = BinaryCodec.decodeWorld(in.readBytes(in.readCount()));
+        Player player = BinaryCodec.decodePlayer(in.readBytes(in.readCount()));
+        state = new State(gameWorld, player);
+        snapshotBytes = buffer.position();
+        changes = 0;
+      } else if (kind == CHANGES && state != null) {
+        while (in.hasRemaining()) {
+          apply(in, state.gameWorld, state.player);
+        }
+        changes += 8 + payload.limit();
+      } else {
+        throw new IOException("Malformed journal entry " + kind);
+      }
+    }
+    if (state == null) {
+      throw new IOException("The journal holds no snapshot: " + file);
+    }
+    if (buffer.hasRemaining()) {
+      // cut the broken entry off, so that the next entries are appended after the last good one
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(buffer.position());
+      }
+    }
+    changeBytes = changes;
+    failed = false;
+    startFrom(state.player);
+    return state;
+  }
+
+  /**
+   * Forget the changes not saved yet, because the game was replaced by another state.
+   * The next save compacts the journal.
+   */
+  public void restart() {
+    started = false;
+    pending.takeBody();
+    pendingCount = 0;
+  }
+
+  /**
+   * Get the number of changes made since the last save.
+
+   * @return the number of changes
+   */
+  public int getPendingCount() {
+    return pendingCount;
+  }
+
+  /**
+   * Get the number of times the journal was compacted.
+
+   * @return the number of compactions
+   */
+  public int getCompactionCount() {
+    return compactions;
+  }
+
+  private void record(int kind) {
+    pending.writeByte(kind);
+    pendingCount++;
+  }
+
+  private void startFrom(Player player) {
+    started = true;
+    pending.takeBody();
+    pendingCount = 0;
+    health = player.getHealth();
+    score = player.getScore();
+    roomNumber = player.getRoomNumber();
+  }
+
+  private static void apply(BinaryDecoder in, GameWorld gameWorld, Player player)
+          throws IOException {
+    int kind = in.readByte();
+    switch (kind) {
+      case TAKE: {
+        Room<?> room = room(gameWorld, in.readSignedVarint());
+        Item item = room.getItem(in.readText());
+        if (item == null) {
+          throw new IOException("The journal takes an item that is not in room "
+                  + room.getId());
+        }
+        room.removeEntity(item);
+        player.addItem(item);
+        break;
+      }
+      case DROP: {
+        Room<?> room = room(gameWorld, in.readSignedVarint());
+        Item item = inventoryItem(player, in.readText());
+        player.removeItem(item);
+        room.addEntity(item);
+        break;
+      }
+      case USE:
+        inventoryItem(player, in.readText()).use();
+        break;
+      case SOLVE: {
+        IProblem<?> problem = room(gameWorld, in.readSignedVarint()).getProblem();
+        if (problem != null) {
+          problem.setActive(false);
+        }
+        break;
+      }
+      case EXIT: {
+        Room<?> room = room(gameWorld, in.readSignedVarint());
+        String key = in.readText();
+        Direction direction = Direction.forKey(key);
+        if (direction == null) {
+          throw new IOException("Unknown direction " + key);
+        }
+        room.setExit(direction, in.readSignedVarint());
+        break;
+      }
+      case PLAYER:
+        player.gainOrLoseHealth(in.readSignedVarint() - player.getHealth());
+        player.setScore(in.readSignedVarint());
+        player.setRoomNumber(in.readSignedVarint());
+        break;
+      default:
+        throw new IOException("Unknown journal record " + kind);
+    }
+  }
+
+  private static Room<?> room(GameWorld gameWorld, int id) throws IOException {
+    Room<?> room = gameWorld.getRoom(id);
+    if (room == null) {
+      throw new IOException("The journal refers to a missing room " + id);
+    }
+    return room;
+  }
+
+  private static Item inventoryItem(Player player, String name) throws IOException {
+    Item item = player.getEntity(name, Item.class);
+    if (item == null) {
+      throw new IOException("The journal uses an item the player does not have: " + name);
+    }
+    return item;
+  }
+
+  /**
+   * Frame an entry: the length of its payload, a checksum of it, then the payload.
+   */
+  private static ByteBuffer frame(int kind, ByteBuffer body) {
+    ByteBuffer payload = ByteBuffer.allocate(1 + body.remaining());
+    payload.put((byte) kind).put(body).flip();
+    CRC32C checksum = new CRC32C();
+    checksum.update(payload.duplicate());
+    ByteBuffer entry = ByteBuffer.allocate(4 + 4 + payload.remaining());
+    entry.putInt(payload.remaining()).putInt((int) checksum.getValue()).put(payload).flip();
+    return entry;
+  }
+
+  /**
+   * Get the payload of the next entry, or null at the end of the journal or at an entry
+   * that was not written completely.
+   */
+  private static ByteBuffer nextEntry(ByteBuffer buffer) {
+    if (buffer.remaining() < 8) {
+      return null;
+    }
+    int length = buffer.getInt(buffer.position());
+    int expected = buffer.getInt(buffer.position() + 4);
+    if (length <= 0 || length > buffer.remaining() - 8) {
+      return null;
+    }
+    ByteBuffer payload = buffer.slice(buffer.position() + 8, length);
+    CRC32C checksum = new CRC32C();
+    checksum.update(payload.duplicate());
+    if ((int) checksum.getValue() != expected) {
+      return null;
+    }
+    buffer.position(buffer.position() + 8 + length);
+    return payload;
+  }
+
+  /**
+   * A game read back from a journal.
+   */
+  public static class State {
+    private final GameWorld gameWorld;
+    private final Player player;
+
+    State(GameWorld gameWorld, Player player) {
+      this.gameWorld = gameWorld;
+      this.player = player;
+    }
+
+    /**
+     * Get the game world.
+
+     * @return the game world
+     */
+    public GameWorld getGameWorld() {
+      return gameWorld;
+    }
+
+    /**
+     * Get the player.
+
+     * @return the player
+     */
+    public Player getPlayer() {
+      return player;
+    }
+  }
+}
@@ -0,0 +1,492 @@
+package binio;
+
+import enginedriver.Player;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Players kept in one memory-mapped file instead of one file each.
+ * The file is a header followed by slots. A slot holds one record, the player's name and
+ * a binary snapshot of the player, and has room to spare so that freed slots fit records
+ * that have grown a little. A record is never overwritten: saving a player writes the
+ * new record to a free slot of the right size, or to the end of the file, forces it to
+ * the disk, and only then frees the slot of the old record. A crash therefore leaves at
+ * least one complete record of every player. Compaction rewrites the live records one
+ * after the other into a new file, which then replaces the old one.
+ * The index from names to slots is a hash table of name hashes and offsets; the names
+ * themselves stay in the file. It is rebuilt when the file is opened, dropping any record
+ * whose checksum shows it was not written completely.
+ * Freed slots and removed players reach the disk when the store is flushed or closed.
+ * The methods are synchronized, so one store can serve every session.
+ */
+public class PlayerStore implements AutoCloseable {
+  static final int MAGIC = 0x41515053; // "AQPS"
+  /** The version of the file format. */
+  public static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int SLOT_HEADER_SIZE = 12;
+  private static final int MIN_CAPACITY = 32;
+  private static final long MAX_FILE_SIZE = Integer.MAX_VALUE - 8;
+  private static final String PLAYER_SAVE_BASE_PATH = "resources/players/";
+
+  private final Path file;
+  private FileChannel channel;
+  private MappedByteBuffer data;
+  private int end;
+  // free slots by capacity, for best-fit reuse
+  private final TreeMap<Integer, ArrayDeque<Integer>> freeSlots = new TreeMap<>();
+  private long freeBytes;
+  private int[] hashes;
+  private int[] offsets;
+  private int count;
+
+  /**
+   * Open the store kept in a file, creating the file if needed.
+
+   * @param file the file of the store
+   * @throws IOException if the file cannot be opened or is not a player store
+   */
+  public PlayerStore(Path file) throws IOException {
+    this.file = file;
+    open();
+  }
+
+  /**
+   * Open a store kept with the saved players.
+
+   * @param fileName the name of the file of the store
+   * @return the store
+   * @throws IOException if the file cannot be opened or is not a player store
+   */
+  public static PlayerStore open(String fileName) throws IOException {
+    return new PlayerStore(Path.of(PLAYER_SAVE_BASE_PATH + fileName));
+  }
+
+  /**
+   * Get the name of the file of the store.
+
+   * @return the file name
+   */
+  public String getFileName() {
+    return file.getFileName().toString();
+  }
+
+  /**
+   * Save a player, replacing the player saved with the same name.
+   * The new record is on the disk when this returns.
+
+   * @param player the player
+   * @throws IOException if the store is full
+   */
+  public synchronized void put(Player player) throws IOException {
+    byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer snapshot = BinaryCodec.encodePlayer(player);
+    int length = varintSize(name.length) + name.length + snapshot.remaining();
+    int hash = hash(name);
+    int index = find(name, hash);
+
+    int slot = allocate(length);
+    writeRecord(slot, name, snapshot, length);
+    // the old record stays until the new one is on the disk
+    data.force(slot, SLOT_HEADER_SIZE + length);
+    data.force(0, HEADER_SIZE);
+    if (index >= 0) {
+      int old = offsets[index];
+      free(old);
+      data.force(old, SLOT_HEADER_SIZE);
+      offsets[index] = slot;
+    } else {
+      insert(-index - 1, hash, slot);
+    }
+  }
+
+  /**
+   * Get a saved player.
+
+   * @param name the name of the player
+   * @return the player, or null if no player is saved with that name
+   * @throws IOException if the record of the player cannot be read
+   */
+  public synchronized Player get(String name) throws IOException {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int index = find(bytes, hash(bytes));
+    if (index < 0) {
+      return null;
+    }
+    int slot = offsets[index];
+    int length = data.getInt(slot + 4);
+    int nameLength = readVarint(slot + SLOT_HEADER_SIZE);
+    int skip = varintSize(nameLength) + nameLength;
+    return BinaryCodec.decodePlayer(ByteBuffer.wrap(copy(slot + SLOT_HEADER_SIZE + skip,
+            length - skip)));
+  }
+
+  /**
+   * Check if a player is saved.
+
+   * @param name the name of the player
+   * @return true if a player is saved with that name
+   */
+  public synchronized boolean contains(String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    return find(bytes, hash(bytes)) >= 0;
+  }
+
+  /**
+   * Remove a saved player, freeing its slot.
+
+   * @param name the name of the player
+   * @return true if a player was saved with that name
+   */
+  public synchronized boolean remove(String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int index = find(bytes, hash(bytes));
+    if (index < 0) {
+      return false;
+    }
+    free(offsets[index]);
+    delete(index);
+    return true;
+  }
+
+  /**
+   * Get the number of saved players.
+
+   * @return the number of players
+   */
+  public synchronized int size() {
+    return count;
+  }
+
+  /**
+   * Get the number of bytes of the file in use, free slots included.
+
+   * @return the size of the data
+   */
+  public synchronized long getDataSize() {
+    return end;
+  }
+
+  /**
+   * Get the number of bytes in free slots, which compaction gives back.
+
+   * @return the size of the free slots
+   */
+  public synchronized long getFreeBytes() {
+    return freeBytes;
+  }
+
+  /**
+   * Rewrite the live records one after the other into a new file, which replaces the
+   * file of the store once it is on the disk.
+
+   * @throws IOException if the new file cannot be written
+   */
+  public synchronized void compact() throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+    int[] live = Arrays.copyOf(offsets, offsets.length);
+    Arrays.sort(live);
+    try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      target.write(header, 0);
+      long position = HEADER_SIZE;
+      for (int slot : live) {
+        if (slot == 0) {
+          continue;
+        }
+        int length = data.getInt(slot + 4);
+        int capacity = capacityFor(length);
+        ByteBuffer record = ByteBuffer.allocate(SLOT_HEADER_SIZE + capacity);
+        record.putInt(capacity).putInt(length).putInt(data.getInt(slot + 8));
+        record.put(data.slice(slot + SLOT_HEADER_SIZE, length)).clear();
+        while (record.hasRemaining()) {
+          target.write(record, position + record.position());
+        }
+        position += record.limit();
+      }
+      header.clear();
+      header.putInt(MAGIC).putInt(VERSION).putLong(position).flip();
+      target.write(header, 0);
+      target.force(true);
+    }
+    channel.close();
+    data = null;
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    open();
+  }
+
+  /**
+   * Write the changes to the disk.
+   */
+  public synchronized void flush() {
+    data.force();
+  }
+
+  /**
+   * Write the changes to the disk and close the file.
+
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel.isOpen()) {
+      data.force();
+      channel.close();
+    }
+  }
+
+  private void open() throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    long size = channel.size();
+    if (size == 0) {
+      map(1 << 20);
+      data.putInt(0, MAGIC).putInt(4, VERSION);
+      end = HEADER_SIZE;
+      data.putLong(8, end);
+    } else {
+      if (size > MAX_FILE_SIZE) {
+        throw new IOException("Player store too large: " + file);
+      }
+      map((int) size);
+      if (data.getInt(0) != MAGIC) {
+        throw new IOException("Not a player store: " + file);
+      }
+      if (data.getInt(4) < 1 || data.getInt(4) > VERSION) {
+        throw new IOException("Unsupported player store version " + data.getInt(4));
+      }
+      end = (int) Math.min(data.getLong(8), size);
+    }
+    freeSlots.clear();
+    freeBytes = 0;
+    count = 0;
+    hashes = new int[1024];
+    offsets = new int[1024];
+    scan();
+  }
+
+  /**
+   * Rebuild the index and the free slots from the records of the file.
+   */
+  private void scan() {
+    int slot = HEADER_SIZE;
+    while (slot + SLOT_HEADER_SIZE <= end) {
+      int capacity = data.getInt(slot);
+      if (capacity < MIN_CAPACITY || slot + SLOT_HEADER_SIZE + (long) capacity > end) {
+        // a slot cut short while appending: the file ends before it
+        break;
+      }
+      int length = data.getInt(slot + 4);
+      if (length > 0 && length <= capacity && checksum(slot + SLOT_HEADER_SIZE, length)
+              == data.getInt(slot + 8)) {
+        int nameLength = readVarint(slot + SLOT_HEADER_SIZE);
+        byte[] name = copy(slot + SLOT_HEADER_SIZE + varintSize(nameLength), nameLength);
+        int hash = hash(name);
+        int index = find(name, hash);
+        if (index >= 0) {
+          // only a crash while put freed the old record leaves two records of a player,
+          // before the save was reported; either is complete, keep the later one
+          free(offsets[index]);
+          offsets[index] = slot;
+        } else {
+          insert(-index - 1, hash, slot);
+        }
+      } else {
+        data.putInt(slot + 4, 0);
+        addFree(slot, capacity);
+      }
+      slot += SLOT_HEADER_SIZE + capacity;
+    }
+    end = slot;
+    data.putLong(8, end);
+  }
+
+  private void writeRecord(int slot, byte[] name, ByteBuffer snapshot, int length) {
+    int position = slot + SLOT_HEADER_SIZE;
+    position = writeVarint(position, name.length);
+    data.put(position, name);
+    data.put(position + name.length, snapshot, 0, snapshot.remaining());
+    data.putInt(slot + 4, length);
+    data.putInt(slot + 8, checksum(slot + SLOT_HEADER_SIZE, length));
+  }
+
+  private int allocate(int length) throws IOException {
+    Map.Entry<Integer, ArrayDeque<Integer>> fit = freeSlots.ceilingEntry(length);
+    if (fit != null && fit.getKey() <= 2 * capacityFor(length)) {
+      int slot = fit.getValue().poll();
+      if (fit.getValue().isEmpty()) {
+        freeSlots.remove(fit.getKey());
+      }
+      freeBytes -= SLOT_HEADER_SIZE + fit.getKey();
+      return slot;
+    }
+    int capacity = capacityFor(length);
+    long newEnd = (long) end + SLOT_HEADER_SIZE + capacity;
+    if (newEnd > MAX_FILE_SIZE) {
+      throw new IOException("Player store is full: " + file);
+    }
+    if (newEnd > data.capacity()) {
+      map((int) Math.min(MAX_FILE_SIZE, Math.max(newEnd, 2L * data.capacity())));
+    }
+    int slot = end;
+    data.putInt(slot, capacity).putInt(slot + 4, 0);
+    end = (int) newEnd;
+    data.putLong(8, end);
+    return slot;
+  }
+
+  private void free(int slot) {
+    data.putInt(slot + 4, 0);
+    addFree(slot, data.getInt(slot));
+  }
+
+  private void addFree(int slot, int capacity) {
+    freeSlots.computeIfAbsent(capacity, key -> new ArrayDeque<>()).add(slot);
+    freeBytes += SLOT_HEADER_SIZE + capacity;
+  }
+
+  private void map(int size) throws IOException {
+    data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+  }
+
+  /**
+   * Find a name in the index, probing linearly from its hash.
+
+   * @return the index of the name, or minus one minus the empty index it would go in
+   */
+  private int find(byte[] name, int hash) {
+    int mask = offsets.length - 1;
+    for (int i = hash & mask; ; i = (i + 1) & mask) {
+      if (offsets[i] == 0) {
+        return -i - 1;
+      }
+      if (hashes[i] == hash && nameEquals(offsets[i], name)) {
+        return i;
+      }
+    }
+  }
+
+  private void insert(int index, int hash, int slot) {
+    hashes[index] = hash;
+    offsets[index] = slot;
+    if (++count * 2 > offsets.length) {
+      int[] oldHashes = hashes;
+      int[] oldOffsets = offsets;
+      hashes = new int[oldOffsets.length * 2];
+      offsets = new int[oldOffsets.length * 2];
+      int mask = offsets.length - 1;
+      for (int i = 0; i < oldOffsets.length; i++) {
+        if (oldOffsets[i] != 0) {
+          int j = oldHashes[i] & mask;
+          while (offsets[j] != 0) {
+            j = (j + 1) & mask;
+          }
+          hashes[j] = oldHashes[i];
+          offsets[j] = oldOffsets[i];
+        }
+      }
+    }
+  }
+
+  /**
+   * Delete an entry of the index, shifting back the entries probed past it.
+   */
+  private void delete(int index) {
+    int mask = offsets.length - 1;
+    int hole = index;
+    for (int i = (index + 1) & mask; offsets[i] != 0; i = (i + 1) & mask) {
+      int home = hashes[i] & mask;
+      // move the entry into the hole unless its home lies after the hole
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        hashes[hole] = hashes[i];
+        offsets[hole] = offsets[i];
+        hole = i;
+      }
+    }
+    offsets[hole] = 0;
+    count--;
+  }
+
+  private boolean nameEquals(int slot, byte[] name) {
+    int position = slot + SLOT_HEADER_SIZE;
+    if (readVarint(position) != name.length) {
+      return false;
+    }
+    position += varintSize(name.length);
+    for (int i = 0; i < name.length; i++) {
+      if (data.get(position + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int checksum(int position, int length) {
+    CRC32C checksum = new CRC32C();
+    checksum.update(data.slice(position, length));
+    return (int) checksum.getValue();
+  }
+
+  private byte[] copy(int position, int length) {
+    byte[] bytes = new byte[length];
+    data.get(position, bytes);
+    return bytes;
+  }
+
+  private int readVarint(int position) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = data.get(position++);
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        break;
+      }
+    }
+    return value;
+  }
+
+  private int writeVarint(int position, int value) {
+    while ((value & ~0x7f) != 0) {
+      data.put(position++, (byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    data.put(position++, (byte) value);
+    return position;
+  }
+
+  private static int varintSize(int value) {
+    int size = 1;
+    while ((value & ~0x7f) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Room for a record and for it to grow a quarter, in multiples of 8 bytes.
+   */
+  private static int capacityFor(int length) {
+    return Math.max(MIN_CAPACITY, (length + length / 4 + 7) & ~7);
+  }
+
+  private static int hash(byte[] name) {
+    int hash = Arrays.hashCode(name);
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,63 @@
+package enginedriver;
+
+/**
+ * Listener for the changes the built-in commands make to the state of a game, told as
+ * they happen so that they can be recorded without saving the whole game.
+ * Every method does nothing unless overridden.
+ */
+public interface ChangeListener {
+  /** A listener that ignores every change. */
+  ChangeListener NONE = new ChangeListener() { };
+
+  /**
+   * The player took an item from a room.
+
+   * @param room the room
+   * @param item the item, now in the player's inventory
+   */
+  default void itemTaken(Room<?> room, Item item) {
+  }
+
+  /**
+   * The player dropped an item in a room.
+
+   * @param room the room
+   * @param item the item, now in the room
+   */
+  default void itemDropped(Room<?> room, Item item) {
+  }
+
+  /**
+   * The player used one use of an item of the inventory.
+
+   * @param item the item
+   */
+  default void itemUsed(Item item) {
+  }
+
+  /**
+   * The problem of a room was solved and is no longer active.
+
+   * @param room the room
+   */
+  default void problemSolved(Room<?> room) {
+  }
+
+  /**
+   * An exit of a room now leads somewhere else, or is no longer blocked.
+
+   * @param room the room
+   * @param direction the direction of the exit
+   * @param roomNumber the room the exit leads to, negative if it is blocked
+   */
+  default void exitChanged(Room<?> room, Direction direction, int roomNumber) {
+  }
+
+  /**
+   * A command is done. The health, score and room of the player may have changed.
+
+   * @param player the player
+   */
+  default void commandDone(Player player) {
+  }
+}
@@ -0,0 +1,59 @@
+package enginedriver;
+
+/**
+ * The directions a room can have an exit in, with the keys world files use for them.
+ */
+public enum Direction {
+  NORTH("N"),
+  SOUTH("S"),
+  EAST("E"),
+  WEST("W");
+
+  private final String key;
+
+  Direction(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Get the key of the direction in world and save files.
+
+   * @return the key, "N", "S", "E" or "W"
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Get the bit of the direction in a set of directions held as a bitmask.
+
+   * @return the bit
+   */
+  public int bit() {
+    return 1 << ordinal();
+  }
+
+  /**
+   * Find a direction by its key.
+
+   * @param key the key, "N", "S", "E" or "W"
+   * @return the direction, or null if there is none with that key
+   */
+  public static Direction forKey(String key) {
+    if (key == null || key.length() != 1) {
+      return null;
+    }
+    switch (key.charAt(0)) {
+      case 'N':
+        return NORTH;
+      case 'S':
+        return SOUTH;
+      case 'E':
+        return EAST;
+      case 'W':
+        return WEST;
+      default:
+        return null;
+    }
+  }
+}
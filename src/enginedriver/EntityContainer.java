@@ -1,16 +1,27 @@
 package enginedriver;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 /**
  *  Class for a container of entities.
  *  Entities are objects that can be used by the player.
+ *  The items and the fixtures are also kept in lists of their own, in the order they were
+ *  added, along with the listing of their names once it has been asked for.
  */
 abstract class EntityContainer<T extends IdentifiableEntity> extends IdentifiableEntity {
 
   private Map<String, T> stringEntityMap;
+  private final NameIndex<T> nameIndex = new NameIndex<>();
+  private final List<Item> items = new ArrayList<>();
+  private final List<Fixture> fixtures = new ArrayList<>();
+  private final List<Item> itemsView = Collections.unmodifiableList(items);
+  private final List<Fixture> fixturesView = Collections.unmodifiableList(fixtures);
+  // the listings of the names, null until asked for after a change
+  private String itemNames;
+  private String fixtureNames;
 
   /**
    * Constructor for an identifiable entity: empty container, picture name.
@@ -51,6 +62,7 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
           Map<String, T> entityNames, String pictureName) {
     super(id, name, description, pictureName);
     this.stringEntityMap = entityNames;
+    rebuildIndexes();
   }
 
   /**
@@ -64,6 +76,7 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
   protected EntityContainer(int id, String name, String description, Map<String, T> entityNames) {
     super(id, name, description);
     this.stringEntityMap = entityNames;
+    rebuildIndexes();
   }
 
 
@@ -74,10 +87,77 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
    */
   public void setEntities(Map<String, T> entityNames) {
     this.stringEntityMap = entityNames;
+    rebuildIndexes();
+  }
+
+  /**
+   * Rebuild the index of normalized names and the lists of items and fixtures from the
+   * map of entities.
+   */
+  private void rebuildIndexes() {
+    nameIndex.clear();
+    items.clear();
+    fixtures.clear();
+    contentsChanged();
+    if (stringEntityMap == null) {
+      return;
+    }
+    for (T entity : stringEntityMap.values()) {
+      if (entity != null) {
+        nameIndex.put(entity.getName(), entity);
+        addToList(entity);
+      }
+    }
+  }
+
+  /**
+   * Add an entity to the list of its type.
+
+   * @param entity the entity
+   */
+  private void addToList(T entity) {
+    if (entity instanceof Item item) {
+      items.add(item);
+    } else if (entity instanceof Fixture fixture) {
+      fixtures.add(fixture);
+    }
+  }
+
+  /**
+   * Remove an entity from the list of its type.
+
+   * @param entity the entity
+   */
+  private void removeFromList(T entity) {
+    List<? extends IdentifiableEntity> list;
+    if (entity instanceof Item) {
+      list = items;
+    } else if (entity instanceof Fixture) {
+      list = fixtures;
+    } else {
+      return;
+    }
+    // by identity, two entities may be equal
+    for (int i = 0; i < list.size(); i++) {
+      if (list.get(i) == entity) {
+        list.remove(i);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Forget the listings of names, the entities have changed.
+   */
+  private void contentsChanged() {
+    itemNames = null;
+    fixtureNames = null;
   }
 
   /**
    * Get all entities from the container.
+   * Add and remove entities with addEntity and removeEntity, so that the index of names
+   * stays up to date.
 
    * @return Map&ltString, T&gt the map of entities
    */
@@ -90,13 +170,15 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
 
   /**
    * Get one entity from the container.
+   * The name is matched ignoring case and extra white space, so the raw text typed by
+   * the player can be used.
 
    * @param entityName the name of the entity
    * @param clazz the class of the entity
    * @return U the entity
    */
-  public  <U extends IdentifiableEntity> U getEntity(String entityName, Class<U> clazz) {
-    Object entity = stringEntityMap.get(entityName);
+  public  <U extends IdentifiableEntity> U getEntity(CharSequence entityName, Class<U> clazz) {
+    Object entity = nameIndex.get(entityName);
     if (clazz.isInstance(entity)) {
       return clazz.cast(entity);  // 安全地进行类型转换
     }
@@ -105,11 +187,19 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
 
   /**
    * Get the list of entities from the container according to the type.
+   * The items and the fixtures are returned as read only views of their lists.
 
    * @param clazz the class of the entity
    * @return the list of entities
    */
+  @SuppressWarnings("unchecked")
   public  <U> List<U> getEntitiesByType(Class<U> clazz) {
+    if (clazz == Item.class) {
+      return (List<U>) itemsView;
+    }
+    if (clazz == Fixture.class) {
+      return (List<U>) fixturesView;
+    }
     List<U> result = new ArrayList<>();
     for (T entity : stringEntityMap.values()) {
       if (clazz.isInstance(entity)) {
@@ -126,9 +216,36 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
    *  @return the string list of items
    */
   public <U extends IdentifiableEntity> String getElementNames(Class<U> clazz) {
-    return String.join(", ", getEntitiesByType(clazz).stream()
-            .map(U::getName)
-            .toList());
+    if (clazz == Item.class) {
+      if (itemNames == null) {
+        itemNames = joinNames(items);
+      }
+      return itemNames;
+    }
+    if (clazz == Fixture.class) {
+      if (fixtureNames == null) {
+        fixtureNames = joinNames(fixtures);
+      }
+      return fixtureNames;
+    }
+    return joinNames(getEntitiesByType(clazz));
+  }
+
+  /**
+   * Join the names of entities with commas.
+
+   * @param entities the entities
+   * @return the names, separated by ", "
+   */
+  private static String joinNames(List<? extends IdentifiableEntity> entities) {
+    StringBuilder names = new StringBuilder();
+    for (IdentifiableEntity entity : entities) {
+      if (!names.isEmpty()) {
+        names.append(", ");
+      }
+      names.append(entity.getName());
+    }
+    return names.toString();
   }
 
 
@@ -143,6 +260,9 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
       return false;
     }
     stringEntityMap.put(entity.getName(), entity);
+    nameIndex.put(entity.getName(), entity);
+    addToList(entity);
+    contentsChanged();
     return true;
   }
 
@@ -153,7 +273,24 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
    * @return true if the entity was removed, false if it did not exist
    */
   public boolean removeEntity(T entity) {  // 使用 T 类型代替 IdentifiableEntity
-    return stringEntityMap.remove(entity.getName()) != null;
+    T removed = stringEntityMap.remove(entity.getName());
+    if (removed == null) {
+      return false;
+    }
+    if (nameIndex.get(removed.getName()) == removed) {
+      nameIndex.remove(removed.getName());
+      // another entity may have a name differing only in case or spacing
+      for (T other : stringEntityMap.values()) {
+        if (other != null && NameIndex.normalize(other.getName())
+                .equals(NameIndex.normalize(removed.getName()))) {
+          nameIndex.put(other.getName(), other);
+          break;
+        }
+      }
+    }
+    removeFromList(removed);
+    contentsChanged();
+    return true;
   }
 
   /**
@@ -170,16 +307,17 @@ abstract class EntityContainer<T extends IdentifiableEntity> extends Identifiabl
   }
 
   /**
-   * Check if the container has an entity.
+   * Check if the container has an entity, matching the name ignoring case and
+   * extra white space.
 
    * @param entityName the name of the entity to check
    * @return true if the entity exists, false otherwise
    */
-  public Boolean hasEntity(String entityName) {
+  public Boolean hasEntity(CharSequence entityName) {
     if (stringEntityMap == null) {
       return false;
     }
-    return stringEntityMap.containsKey(entityName);
+    return nameIndex.get(entityName) != null;
   }
 
 
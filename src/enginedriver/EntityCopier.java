@@ -0,0 +1,92 @@
+package enginedriver;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import enginedriver.problems.IProblem;
+import enginedriver.problems.Monster;
+import enginedriver.problems.Puzzle;
+
+/**
+ * Copies the entities of a game world for another game, or for a snapshot of a game.
+ * Only the state a game can change is copied; names, descriptions, pictures and
+ * solutions are shared with the original.
+ */
+class EntityCopier {
+  // a problem may guard several rooms, so it is copied once per copier
+  private Map<IProblem<?>, IProblem<?>> problems;
+
+  /**
+   * Copy a room with its entities, exits and problem.
+
+   * @param room the room to copy
+   * @return the copy
+   */
+  Room<?> copyRoom(Room<?> room) {
+    Map<String, IdentifiableEntity> entities = new HashMap<>();
+    for (Map.Entry<String, IdentifiableEntity> entry : room.getEntities().entrySet()) {
+      entities.put(entry.getKey(), copyEntity(entry.getValue()));
+    }
+    Room<?> copy = new Room<>(room.getId(), room.getName(), room.getDescription(), null,
+            entities, copyProblem(room.getProblem()), room.getPictureName());
+    copy.copyExits(room);
+    return copy;
+  }
+
+  /**
+   * Copy an item or a fixture.
+
+   * @param entity the entity to copy
+   * @return the copy, or the entity itself if it has no state to copy
+   */
+  IdentifiableEntity copyEntity(IdentifiableEntity entity) {
+    if (entity instanceof Item item) {
+      return copyItem(item);
+    }
+    if (entity instanceof Fixture fixture) {
+      return new Fixture(fixture.getName(), fixture.getDescription(), fixture.getWeight(),
+              fixture.getPuzzle(), fixture.getStates(), fixture.getPictureName());
+    }
+    return entity;
+  }
+
+  /**
+   * Copy an item, with its remaining uses.
+
+   * @param item the item to copy
+   * @return the copy
+   */
+  Item copyItem(Item item) {
+    return new Item(item.getName(), item.getDescription(), item.getUseMax(),
+            item.getRemainingUses(), item.getValue(), item.getWeight(),
+            item.getWhenUsed(), item.getPictureName());
+  }
+
+  /**
+   * Copy a problem, with its status.
+
+   * @param problem the problem to copy, may be null
+   * @return the copy, the same copy every time for the same problem
+   */
+  IProblem<?> copyProblem(IProblem<?> problem) {
+    if (problem == null) {
+      return null;
+    }
+    if (problems == null) {
+      problems = new IdentityHashMap<>();
+    }
+    IProblem<?> copy = problems.get(problem);
+    if (copy == null) {
+      if (problem instanceof Monster<?> monster) {
+        copy = new Monster<>(monster);
+      } else if (problem instanceof Puzzle<?> puzzle) {
+        copy = new Puzzle<>(puzzle);
+      } else {
+        copy = problem;
+      }
+      problems.put(problem, copy);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,155 @@
+package enginedriver;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The rooms the entities of one kind are in, for the indices of a game world.
+ * Entities are told apart by identity, since worlds list the same instance in several
+ * rooms and entities of different rooms may be equal. Every listing of an entity in a
+ * room counts, and the entity stays in the index until it has left every room it was
+ * listed in. Iterating the index lists each entity once, in the order it was first
+ * indexed since it was last in no room.
+ * It's package private and not intended for public use.
+
+ * @param <T> the type of the entities
+ */
+class EntityIndex<T> extends AbstractCollection<T> {
+  private final Map<T, Locations<T>> locations = new IdentityHashMap<>();
+  // the entities in index order, linked through their locations
+  private Locations<T> first;
+  private Locations<T> last;
+
+  /**
+   * Record that an entity is listed in a room once more.
+
+   * @param entity the entity
+   * @param room the room
+   */
+  void put(T entity, Room<?> room) {
+    Locations<T> entry = locations.get(entity);
+    if (entry == null) {
+      entry = new Locations<>(entity);
+      locations.put(entity, entry);
+      entry.previous = last;
+      if (last == null) {
+        first = entry;
+      } else {
+        last.next = entry;
+      }
+      last = entry;
+    }
+    entry.add(room);
+  }
+
+  /**
+   * Record that an entity is listed in a room once less.
+
+   * @param entity the entity
+   * @param room the room
+   */
+  void remove(T entity, Room<?> room) {
+    Locations<T> entry = locations.get(entity);
+    if (entry == null || !entry.remove(room) || entry.count > 0) {
+      return;
+    }
+    locations.remove(entity);
+    if (entry.previous == null) {
+      first = entry.next;
+    } else {
+      entry.previous.next = entry.next;
+    }
+    if (entry.next == null) {
+      last = entry.previous;
+    } else {
+      entry.next.previous = entry.previous;
+    }
+  }
+
+  /**
+   * Get the room an entity was first listed in of those it is still in.
+
+   * @param entity the entity
+   * @return the room, or null if the entity is in no room
+   */
+  Room<?> getRoom(Object entity) {
+    Locations<T> entry = locations.get(entity);
+    return entry == null ? null : entry.rooms[0];
+  }
+
+  @Override
+  public boolean contains(Object entity) {
+    return locations.containsKey(entity);
+  }
+
+  @Override
+  public int size() {
+    return locations.size();
+  }
+
+  @Override
+  public void clear() {
+    locations.clear();
+    first = null;
+    last = null;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<>() {
+      private Locations<T> next = first;
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public T next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        T entity = next.entity;
+        next = next.next;
+        return entity;
+      }
+    };
+  }
+
+  /**
+   * The rooms an entity is listed in, once per listing, in the order they were indexed.
+   */
+  private static class Locations<T> {
+    final T entity;
+    Room<?>[] rooms = new Room<?>[1];
+    int count;
+    Locations<T> previous;
+    Locations<T> next;
+
+    Locations(T entity) {
+      this.entity = entity;
+    }
+
+    void add(Room<?> room) {
+      if (count == rooms.length) {
+        rooms = Arrays.copyOf(rooms, count * 2);
+      }
+      rooms[count++] = room;
+    }
+
+    boolean remove(Room<?> room) {
+      for (int i = 0; i < count; i++) {
+        if (rooms[i] == room) {
+          System.arraycopy(rooms, i + 1, rooms, i, count - i - 1);
+          rooms[--count] = null;
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
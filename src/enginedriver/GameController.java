@@ -1,15 +1,30 @@
 package enginedriver;
 
-import java.util.Arrays;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import enginedriver.command.BatchResult;
+import enginedriver.command.CommandHandler;
+import enginedriver.command.CommandParser;
+import enginedriver.command.ParsedCommand;
+import enginedriver.command.Verb;
+import enginedriver.command.VerbTable;
 import enginedriver.problems.Monster;
 import enginedriver.problems.Problem;
 import enginedriver.problems.Puzzle;
 import enginedriver.problems.IProblem;
+import binio.BinaryDataLoader;
+import binio.BinaryDataSaver;
+import binio.GameJournal;
+import binio.PlayerStore;
 import jsonio.GameDataLoader;
 import jsonio.GameDataSaver;
+import saveio.SaveWriter;
 
 /**
  * GameEngine class to handle game logic and player commands.
@@ -18,164 +33,302 @@ public class GameController {
   private Player player;
   private GameWorld gameWorld;
   private Viewer viewer;
-  private Map<String, String> actionMap = new HashMap<>();
+  private final ParsedCommand parsedCommand = new ParsedCommand();
+  private final VerbTable<CommandHandler> commands = new VerbTable<>();
+  private boolean gameOver;
+  // set by a command that could not do what it asked
+  private boolean rejected;
+  private GameSnapshot initialState;
+  private GameSnapshot savedState;
+  private SaveFormat saveFormat = SaveFormat.JSON;
+  private SaveFormat lastSaveFormat;
+  private GameJournal journal;
+  private ChangeListener changes = ChangeListener.NONE;
+  private SaveWriter saveWriter;
+  private PlayerStore playerStore;
+  private CompletableFuture<Void> lastSubmitted;
+  private CompletableFuture<Void> lastSave;
+  // a command waiting for the save writer to read its files, finished on this thread
+  private CompletableFuture<Runnable> pendingCommand;
+  // outcomes of background saves, shown before the next command
+  private final Queue<String> saveReports = new ConcurrentLinkedQueue<>();
 
   /**
    * Constructor for GameController.
    */
   public GameController(GameWorld gameWorld, Player player) {
+    this(gameWorld, player, new Viewer(System.out));
+  }
+
+  /**
+   * Constructor for GameController showing text on a given viewer.
+
+   * @param gameWorld the game world
+   * @param player the player
+   * @param viewer the viewer for the text of the commands
+   */
+  public GameController(GameWorld gameWorld, Player player, Viewer viewer) {
     this.gameWorld = gameWorld;
     this.player = player;
-    this.viewer = Viewer.getInstance();
-    // Action abbreviations map
-    actionMap.put("NORTH", "N");
-    actionMap.put("SOUTH", "S");
-    actionMap.put("EAST", "E");
-    actionMap.put("WEST", "W");
-    actionMap.put("TAKE", "T");
-    actionMap.put("DROP", "D");
-    actionMap.put("EXAMINE", "X");
-    actionMap.put("LOOK", "L");
-    actionMap.put("USE", "U");
-    actionMap.put("INVENTORY", "I");
-    actionMap.put("ANSWER", "A");
+    this.viewer = viewer;
+    registerBuiltInCommands();
+  }
+
+  /**
+   * Constructor for GameController starting a game from a snapshot.
+   * The game can be reset to the snapshot at any time.
+
+   * @param start the state the game starts in
+   * @param viewer the viewer for the text of the commands
+   */
+  public GameController(GameSnapshot start, Viewer viewer) {
+    this(start.newWorld(), start.newPlayer(), viewer);
+    this.initialState = start;
   }
 
   /**
    * Process the command entered by the player.
    */
-  public void processCommand(String command) {
-    // Standardize the command
-    String[] commandParts = standardizeCommand(command);
-
-    //take out action 和 objectName
-    command = commandParts[0];
-    String objectName = commandParts[1];
-
-    switch (command.toUpperCase()) {
-      case "N": move("N");
-        break;
-      case "S": move("S");
-        break;
-      case "E": move("E");
-        break;
-      case "W": move("W");
-        break;
-      case "T": takeItem(objectName);
-        break;
-      case "D": dropItem(objectName);
-        break;
-      case "L": lookAround();
-        break;
-      case "U": useItem(objectName);
-        break;
-      case "I": checkInventory();
-        break;
-      case "X": examine(objectName);
-        break;
-      case "A": answer(objectName);
-        break;
-      case "Q": quit();
-        break;
-      case "SAVE": save();
-        break;
-      case "RESTORE": restore();
-        break;
-      default:
+  public void processCommand(CharSequence command) {
+    execute(command);
+  }
+
+  /**
+   * Process a sequence of commands back to back.
+   * The text shown by the commands is collected in one buffer instead of going to the
+   * output of the viewer, and is returned with a result code per command. Once the game is over,
+   * the remaining commands are not run.
+
+   * @param commands the commands entered by the player, in order
+   * @return the result code and the text of every command
+   */
+  public BatchResult processBatch(List<? extends CharSequence> commands) {
+    int[] codes = new int[commands.size()];
+    int[] messageEnds = new int[commands.size()];
+    StringBuilder messages = new StringBuilder(commands.size() * 64);
+
+    Viewer sessionViewer = viewer;
+    viewer = new Viewer(messages);
+    try {
+      for (int i = 0; i < codes.length; i++) {
+        if (gameOver) {
+          codes[i] = BatchResult.GAME_OVER;
+        } else {
+          try {
+            codes[i] = execute(commands.get(i));
+            finishPendingCommand();
+            if (rejected) {
+              codes[i] = BatchResult.REJECTED;
+            }
+          } catch (RuntimeException e) {
+            viewer.showText("Command failed: " + e.getMessage());
+            viewer.flush();
+            codes[i] = BatchResult.FAILED;
+          }
+        }
+        messageEnds[i] = messages.length();
+      }
+    } finally {
+      viewer = sessionViewer;
+    }
+    return new BatchResult(codes, messageEnds, messages.toString());
+  }
+
+  /**
+   * Check if the game is over, because the player quit or fell asleep.
+
+   * @return true if the game is over, false otherwise
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Run one command, then write all its text to the output of the viewer at once.
+
+   * @param command the command entered by the player
+   * @return INVALID if the verb is not known, REJECTED if the command could not do what
+   *     it asked, OK otherwise
+   */
+  private int execute(CharSequence command) {
+    finishPendingCommand();
+    rejected = false;
+    try {
+      String report;
+      while ((report = saveReports.poll()) != null) {
+        viewer.showText(report);
+      }
+      // Split the command into verb and object name
+      CommandParser.parse(command, parsedCommand);
+
+      // one lookup from the verb, full name or abbreviation, to its handler
+      CommandHandler handler = parsedCommand.lookupVerb(commands);
+      if (handler == null) {
         viewer.showText("Invalid command.");
-        break;
+        return BatchResult.INVALID;
+      }
+      handler.handle(parsedCommand);
+      if (pendingCommand == null) {
+        changes.commandDone(player);
+      }
+      return rejected ? BatchResult.REJECTED : BatchResult.OK;
+    } finally {
+      viewer.flush();
     }
   }
 
   /**
-   * Get the game world.
+   * Get the command waiting for the save writer, such as a RESTORE reading its files.
+   * Once the future is done, {@link #finishPendingCommand} finishes the command; running
+   * the next command or getting the game finishes it too, waiting for the future.
+
+   * @return a future completed once the command can be finished, or null if no command
+   *     is waiting
+   */
+  public CompletableFuture<?> getPendingCommand() {
+    return pendingCommand;
+  }
+
+  /**
+   * Finish the command waiting for the save writer, if any, on the thread running the
+   * commands, waiting for its files to be read first, then write its text to the output
+   * of the viewer.
+   */
+  public void finishPendingCommand() {
+    CompletableFuture<Runnable> pending = pendingCommand;
+    if (pending == null) {
+      return;
+    }
+    pendingCommand = null;
+    try {
+      pending.join().run();
+      changes.commandDone(player);
+    } finally {
+      viewer.flush();
+    }
+  }
+
+  /**
+   * Register the handler run for every spelling of a built-in verb,
+   * replacing the handler registered before.
+
+   * @param verb the verb
+   * @param handler the handler to run
+   */
+  public final void registerCommand(Verb verb, CommandHandler handler) {
+    registerCommand(handler, verb.getNames());
+  }
+
+  /**
+   * Register a new verb, or replace the handler of an existing one.
+
+   * @param handler the handler to run
+   * @param names the spellings of the verb, e.g. "HELP" and "H"
+   */
+  public final void registerCommand(CommandHandler handler, String... names) {
+    for (String name : names) {
+      commands.put(name, handler);
+    }
+  }
+
+  /**
+   * Register the handlers of the verbs listed in the Verb enum.
+   */
+  private void registerBuiltInCommands() {
+    registerCommand(Verb.NORTH, command -> move(Direction.NORTH));
+    registerCommand(Verb.SOUTH, command -> move(Direction.SOUTH));
+    registerCommand(Verb.EAST, command -> move(Direction.EAST));
+    registerCommand(Verb.WEST, command -> move(Direction.WEST));
+    registerCommand(Verb.TAKE, command -> takeItem(command.getObject()));
+    registerCommand(Verb.DROP, command -> dropItem(command.getObject()));
+    registerCommand(Verb.LOOK, command -> lookAround());
+    registerCommand(Verb.USE, command -> useItem(command.getObject()));
+    registerCommand(Verb.INVENTORY, command -> checkInventory());
+    registerCommand(Verb.EXAMINE, command -> examine(command.getObject()));
+    registerCommand(Verb.ANSWER, command -> answer(command.getObjectName()));
+    registerCommand(Verb.QUIT, command -> quit());
+    registerCommand(Verb.SAVE, command -> save(command.getObjectName()));
+    registerCommand(Verb.RESTORE, command -> restore(command.getObjectName()));
+    registerCommand(Verb.RESET, command -> reset());
+  }
+
+  /**
+   * Get the game world, once the command waiting for the save writer, if any, is finished.
 
    * @return the game world
    */
   public GameWorld getGameWorld() {
+    finishPendingCommand();
     return gameWorld;
   }
 
   /**
-   * Get the player.
+   * Get the player, once the command waiting for the save writer, if any, is finished.
 
    * @return the player
    */
   public Player getPlayer() {
+    finishPendingCommand();
     return player;
   }
 
   /**
-   * Standardize the command entered by the player.
+   * Write the saves of this game in the background with a save writer, instead of on the
+   * thread running the commands. The outcome of a save is shown before the next command.
+   * Restores read their files on the save writer too, in order with the saves, and leave
+   * their command waiting until the files are read.
 
-   * @param command the command entered by the player
-   * @return the standardized command
+   * @param saveWriter the save writer, or null to save on the thread running the commands
    */
-  private String[] standardizeCommand(String command) {
-    // Remove leading and trailing white spaces
-    command = command.trim();
-
-    // Split by space
-    String[] commandParts = command.split("\\s+");
-
-    // Default action is the first part of the command (converted to uppercase)
-    String action = commandParts[0].toUpperCase();
-
-    // Prepare the object name by joining the rest of the command parts
-    String objectName = (commandParts.length > 1)
-            ? capitalizeWords(
-                    String.join(
-                            " ", Arrays.copyOfRange(commandParts, 1, commandParts.length)
-                    )
-    )
-            : "";
+  public void setSaveWriter(SaveWriter saveWriter) {
+    this.saveWriter = saveWriter;
+  }
 
-    // If the action exists in the map, use its abbreviation, otherwise leave as is
-    action = actionMap.getOrDefault(action, action);
+  /**
+   * Keep the players of binary saves in a player store, instead of in a file each.
 
-    return new String[]{action, objectName};
+   * @param playerStore the player store, or null to save each player in its own file
+   */
+  public void setPlayerStore(PlayerStore playerStore) {
+    this.playerStore = playerStore;
   }
 
   /**
-   * Capitalize the word to align with the JSON style.
+   * Get the last save handed to the save writer.
+
+   * @return a future completed once the save is written and its outcome is ready to be
+   *     shown, or null if there was none
    */
-  private static String capitalizeWords(String phrase) {
-    if (phrase == null || phrase.isEmpty()) {
-      return phrase;
-    }
+  public CompletableFuture<Void> getLastSave() {
+    return lastSave;
+  }
 
-    String[] words = phrase.split(" ");
-    StringBuilder capitalized = new StringBuilder();
+  /**
+   * Set the format SAVE and RESTORE use when no format is named.
 
-    for (String word : words) {
-      if (!word.isEmpty()) {
-        capitalized.append(Character.toUpperCase(word.charAt(0)));
-        capitalized.append(word.substring(1).toLowerCase());
-        capitalized.append(" ");
-      }
-    }
-    return capitalized.toString().trim();
+   * @param saveFormat the default format of the saves
+   */
+  public void setSaveFormat(SaveFormat saveFormat) {
+    this.saveFormat = saveFormat;
   }
 
   /**
    * Move the player north.
    */
-  private void move(String direction) {
+  private void move(Direction direction) {
     //check player's current room
     int currentRoom = player.getRoomNumber();
 
     Room<?> currentRoomObj = gameWorld.getRoom(currentRoom);
-    //get room's exists
-    Map<String, Integer> exits = currentRoomObj.getExits();
 
     //check if the direction is valid
-    if (exits.containsKey(direction)) {
-      int attemptRoomNum = exits.get(direction);
+    if (currentRoomObj.hasExit(direction)) {
+      int attemptRoomNum = currentRoomObj.getExit(direction);
       if (attemptRoomNum < 0) {
-        viewer.showText("The direction is blocked.");
+        refuse("The direction is blocked.");
         return;
       } else if (attemptRoomNum == 0) {
-        viewer.showText("Invalid direction, there is no more room in this direction.");
+        refuse("Invalid direction, there is no more room in this direction.");
       } else {
 
         //get the room that player is going to enter
@@ -184,7 +337,7 @@ public class GameController {
         player.setRoomNumber(attemptRoomNum);
         //show description when entering
         viewer.showText("You are moving to the derection "
-                + direction + ", entered " + enteredRoom.getName()
+                + direction.getKey() + ", entered " + enteredRoom.getName()
                 + ", room number " + attemptRoomNum);
 
         // room description
@@ -201,7 +354,7 @@ public class GameController {
         }
       }
     } else {
-      viewer.showText("Invalid direction.");
+      refuse("Invalid direction.");
     }
   }
 
@@ -211,7 +364,7 @@ public class GameController {
 
    * @param itemName the name of the item that needs to be taken.
    */
-  private void takeItem(String itemName) {
+  private void takeItem(CharSequence itemName) {
     //get room
     Room currentRoom = gameWorld.getRoom(player.getRoomNumber());
     //get item
@@ -220,14 +373,15 @@ public class GameController {
     if (itemAttempt != null) {
       if (player.addItem(itemAttempt)) {
         currentRoom.removeEntity(itemAttempt);
-        viewer.showText(itemName + "added to your inventory!");
-        player.setScore(player.getScore() + itemAttempt.getValue());
+        changes.itemTaken(currentRoom, itemAttempt);
+        viewer.showText(itemAttempt.getName() + "added to your inventory!");
+        player.addScore(itemAttempt.getValue());
       } else {
-        viewer.showText("Sorry, you can not add " + itemName + " to your bag. Because"
+        refuse("Sorry, you can not add " + itemName + " to your bag. Because"
                 + "  your bag is full.");
       }
     } else {
-      viewer.showText("Sorry, you can not add " + itemName + " to your bag. Because"
+      refuse("Sorry, you can not add " + itemName + " to your bag. Because"
               + " the item is not in the room .");
     }
   }
@@ -237,17 +391,18 @@ public class GameController {
 
    * @param itemName the name of the item that needs to be dropped.
    */
-  private void dropItem(String itemName) {
+  private void dropItem(CharSequence itemName) {
     Item item = player.getEntity(itemName, Item.class);
     Room currentRoom = gameWorld.getRoom(player.getRoomNumber());
     // Check if player has this item
     if (item != null) {
       player.removeItem(item);
       currentRoom.addEntity(item);
-      viewer.showText(itemName + " dropped here in " + currentRoom.getName());
-      player.setScore(player.getScore() - item.getValue());
+      changes.itemDropped(currentRoom, item);
+      viewer.showText(item.getName() + " dropped here in " + currentRoom.getName());
+      player.addScore(-item.getValue());
     } else {
-      viewer.showText("Sorry, you don't have " + itemName + " in your bag");
+      refuse("Sorry, you don't have " + itemName + " in your bag");
     }
 
   }
@@ -286,7 +441,7 @@ public class GameController {
    *
    * @param itemName the name of the item to use
    */
-  private void useItem(String itemName) {
+  private void useItem(CharSequence itemName) {
 
     // get room
     Room<?> currentRoom = gameWorld.getRoom(
@@ -314,7 +469,7 @@ public class GameController {
     // check if player has this item.
     boolean hasItem = player.hasEntity(itemName);
     if (!hasItem) {
-      viewer.showText("You don't have " + itemName
+      refuse("You don't have " + itemName
               + " in your bag.");
       // deal with monster attack
       handleMonsterAttack(currentRoom.getProblem());
@@ -335,11 +490,12 @@ public class GameController {
         return;
       case 1:
         if (!itemAttempt.use()) {
-          viewer.showText(itemName + "is empty "
+          refuse(itemName + "is empty "
                   + "or cannot be used again.");
           handleMonsterAttack(problem);
           return;
         }
+        changes.itemUsed(itemAttempt);
         viewer.showText(itemAttempt.getWhenUsed());
         handleProblemSolved(problem);
         return;
@@ -362,19 +518,19 @@ public class GameController {
     // get puzzle or moster in the room
     IProblem<?> problem = currentRoom.getProblem();
     if (problem == null) {
-      viewer.showText("There is no question to answer in this room.");
+      refuse("There is no question to answer in this room.");
       return;
     }
 
     if (objectName == null || objectName.isEmpty()) {
-      viewer.showText("Please provide an answer.");
+      refuse("Please provide an answer.");
       handleMonsterAttack(problem);
       return;
     }
 
     // check if the puzzle is solved
     if (!problem.getActive()) {
-      viewer.showText("The puzzle is already solved.");
+      refuse("The puzzle is already solved.");
       return;
     }
 
@@ -426,7 +582,7 @@ public class GameController {
   /**
    * Examine an item.
    */
-  private void examine(String entityName) {
+  private void examine(CharSequence entityName) {
     // Logic to examine item
     // get current room
     Room<?> currentRoom = gameWorld.getRoom(player.getRoomNumber());
@@ -435,22 +591,34 @@ public class GameController {
       entity = currentRoom.getEntity(entityName, Fixture.class);
     }
     if (entity == null) {
-      viewer.showText(entityName + " is not in the room.");
+      refuse(entityName + " is not in the room.");
     } else {
       viewer.showText(entity.getDescription());
     }
   }
 
+  /**
+   * Show why the command could not do what it asked, and mark it as rejected.
+
+   * @param reason the text to show
+   */
+  private void refuse(String reason) {
+    viewer.showText(reason);
+    rejected = true;
+  }
+
   /**
    * Unlocks room.
 
    * @param room the room to unlock exits
    */
   private void unlockExits(Room<?> room) {
-    for (String key : room.getExits().keySet()) {
-      int value = room.getExits().get(key);
-      if (value < 0) {
-        room.unlockExit(key);  // Unlock exit if value is negative
+    int unlocked = room.unlockExits();
+    if (unlocked != 0) {
+      for (Direction direction : Direction.values()) {
+        if ((unlocked & direction.bit()) != 0) {
+          changes.exitChanged(room, direction, room.getExit(direction));
+        }
       }
     }
   }
@@ -460,44 +628,256 @@ public class GameController {
    */
   private void quit() {
     viewer.showText("Quitting...");
-    System.exit(0);
+    gameOver = true;
   }
 
   /**
-   * Save the game state.
+   * Save the game state, in the format named after SAVE or in the default format.
+   * The state is also kept in memory, so that restoring it in this game needs no files,
+   * except for a journal, which only saves the changes since the last save.
+   * With a save writer the files are serialized and written in the background, from a
+   * snapshot taken now.
+
+   * @param formatName the name of the format, empty for the default format
    */
-  private void save() {
-    try {
-      String gameFileName = gameWorld.getName() + ".json";
-      String playerFileName = player.getName() + ".json";
+  private void save(String formatName) {
+    SaveFormat format = chooseFormat(formatName);
+    if (format == null) {
+      return;
+    }
+    lastSaveFormat = format;
+    if (format == SaveFormat.JOURNAL) {
+      saveJournal();
+      return;
+    }
+    GameSnapshot snapshot = GameSnapshot.capture(gameWorld, player);
+    savedState = snapshot;
+    String gameFileName = gameFileName(format);
+    String playerFileName = playerFileName(format);
+    String saved = "Game saved successfully as " + gameFileName + " and " + playerFileName;
+
+    if (saveWriter == null) {
+      try {
+        writeSave(format, gameFileName, playerFileName, playerStore, gameWorld, player);
+        viewer.showText(saved);
+      } catch (Exception e) {
+        refuse("Failed to save game: " + e.getMessage());
+      }
+      return;
+    }
+    viewer.showText("Saving game as " + gameFileName + " and " + playerFileName + "...");
+    CompletableFuture<Void> save = saveWriter.submit(gameFileName + "|" + playerFileName,
+            () -> writeSave(format, gameFileName, playerFileName, playerStore,
+                    snapshot.newWorld(), snapshot.newPlayer()));
+    if (save != lastSubmitted) {
+      // a save replacing one still waiting shares its future, reported once
+      lastSubmitted = save;
+      lastSave = save.whenComplete((done, failure) -> saveReports.add(failure == null ? saved
+              : "Failed to save game: " + unwrap(failure).getMessage()));
+    }
+  }
 
-      GameDataSaver.saveGameJson(gameFileName, gameWorld);
-      GameDataSaver.savePlayerJson(playerFileName, player);
+  /**
+   * Serialize the game and write its files, on whichever thread saves.
+   */
+  private static void writeSave(SaveFormat format, String gameFileName, String playerFileName,
+                                PlayerStore playerStore, GameWorld savedWorld,
+                                Player savedPlayer) throws IOException {
+    if (format == SaveFormat.BINARY) {
+      BinaryDataSaver.saveGame(gameFileName, savedWorld);
+      if (playerStore != null) {
+        playerStore.put(savedPlayer);
+        playerStore.flush();
+      } else {
+        BinaryDataSaver.savePlayer(playerFileName, savedPlayer);
+      }
+    } else {
+      GameDataSaver.saveGameJson(gameFileName, savedWorld);
+      GameDataSaver.savePlayerJson(playerFileName, savedPlayer);
+    }
+  }
 
-      viewer.showText("Game saved successfully as " + gameFileName + " and " + playerFileName);
-    } catch (Exception e) {
-      viewer.showText("Failed to save game: " + e.getMessage());
+  /**
+   * Get the name of the file the world of the player's game is saved in, in a format.
+   * Every player saves the world in a file of their own, so that games played on the
+   * same world at the same time do not overwrite each other's saves.
+   */
+  private String gameFileName(SaveFormat format) {
+    return gameWorld.getName() + "." + player.getName() + format.getExtension();
+  }
+
+  /**
+   * Get the name of the file the player is saved in, in a format.
+   */
+  private String playerFileName(SaveFormat format) {
+    if (format == SaveFormat.BINARY && playerStore != null) {
+      return playerStore.getFileName();
     }
+    return player.getName() + format.getExtension();
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause() : failure;
   }
 
   /**
-   * Restore the game state.
+   * Save the changes made since the last save to the journal of the player.
+   * With a save writer the changes are encoded now, and appended and forced to the disk
+   * in the background.
    */
-  private void restore() {
+  private void saveJournal() {
+    savedState = null;
+    String journalFileName = player.getName() + SaveFormat.JOURNAL.getExtension();
+    String saved = "Game saved successfully in " + journalFileName;
     try {
-      String gameFileName = gameWorld.getName() + ".json";
-      String playerFileName = player.getName() + ".json";
+      if (journal == null) {
+        journal = GameJournal.forPlayer(journalFileName);
+        changes = journal;
+      }
+      SaveWriter.Job commit = journal.prepareCommit(gameWorld, player);
+      if (saveWriter == null) {
+        commit.write();
+        viewer.showText(saved);
+        return;
+      }
+      viewer.showText("Saving game in " + journalFileName + "...");
+      CompletableFuture<Void> save = saveWriter.submitAppend(journalFileName, commit);
+      lastSave = save.whenComplete((done, failure) -> saveReports.add(failure == null ? saved
+              : "Failed to save game: " + unwrap(failure).getMessage()));
+    } catch (Exception e) {
+      refuse("Failed to save game: " + e.getMessage());
+    }
+  }
 
-      GameWorld newGameWorld = GameDataLoader.loadGameWorld(gameFileName);
-      Player newPlayer = GameDataLoader.loadPlayer(playerFileName, newGameWorld);
+  /**
+   * Restore the game state, from memory if it was saved in this game and no format is
+   * named, from the files of the named or default format otherwise. With a save writer
+   * the files are read in the background, after the saves written to them.
+
+   * @param formatName the name of the format, empty for the format of the last save
+   */
+  private void restore(String formatName) {
+    if (savedState != null && formatName.isEmpty()) {
+      this.gameWorld = savedState.newWorld();
+      this.player = savedState.newPlayer();
+      restartJournal();
+      viewer.showText("Game restored successfully.");
+      return;
+    }
+    SaveFormat format = formatName.isEmpty() && lastSaveFormat != null
+            ? lastSaveFormat : chooseFormat(formatName);
+    if (format == null) {
+      return;
+    }
+    if (format == SaveFormat.JOURNAL) {
+      restoreJournal();
+      return;
+    }
+    String gameFileName = gameFileName(format);
+    String playerFileName = playerFileName(format);
+    String playerName = player.getName();
+    PlayerStore store = playerStore;
+    read(gameFileName + "|" + playerFileName, () -> {
+      GameWorld newGameWorld;
+      Player newPlayer;
+      if (format == SaveFormat.BINARY) {
+        newGameWorld = BinaryDataLoader.loadGameWorld(gameFileName);
+        newPlayer = store != null ? store.get(playerName)
+                : BinaryDataLoader.loadPlayer(playerFileName);
+        if (newPlayer == null) {
+          throw new IOException("No player " + playerName + " in " + playerFileName);
+        }
+      } else {
+        newGameWorld = GameDataLoader.loadGameWorld(gameFileName);
+        newPlayer = GameDataLoader.loadPlayer(playerFileName, newGameWorld);
+      }
+      return () -> {
+        this.gameWorld = newGameWorld;
+        this.player = newPlayer;
+        restartJournal();
+        viewer.showText("Game restored successfully from " + gameFileName + " and "
+                + playerFileName);
+      };
+    });
+  }
+
+  /**
+   * Restore the game state from the journal of the player.
+   */
+  private void restoreJournal() {
+    String journalFileName = player.getName() + SaveFormat.JOURNAL.getExtension();
+    GameJournal restoring = journal != null ? journal : GameJournal.forPlayer(journalFileName);
+    read(journalFileName, () -> {
+      GameJournal.State state = restoring.restore();
+      return () -> {
+        this.gameWorld = state.getGameWorld();
+        this.player = state.getPlayer();
+        journal = restoring;
+        changes = journal;
+        viewer.showText("Game restored successfully from " + journalFileName);
+      };
+    });
+  }
 
-      this.gameWorld = newGameWorld;
-      this.player = newPlayer;
+  /**
+   * Read the files of a restore, then finish it with the step the read returns: at once
+   * without a save writer, on the save writer in order with the saves of the files
+   * otherwise, leaving the command waiting until they are read.
 
-      viewer.showText("Game restored successfully from " + gameFileName + " and " + playerFileName);
-    } catch (Exception e) {
-      viewer.showText("Failed to restore game: " + e.getMessage());
+   * @param key the key of the saves of the files
+   * @param read the task reading the files
+   */
+  private void read(String key, SaveWriter.Task<Runnable> read) {
+    if (saveWriter == null) {
+      try {
+        read.run().run();
+      } catch (Exception e) {
+        refuse("Failed to restore game: " + e.getMessage());
+      }
+      return;
+    }
+    pendingCommand = saveWriter.submitInOrder(key, read).handle((finish, failure) ->
+            failure == null ? finish
+                    : () -> refuse("Failed to restore game: "
+                            + unwrap(failure).getMessage()));
+  }
+
+  /**
+   * Tell the journal, if any, that the game was replaced by a state it did not record.
+   */
+  private void restartJournal() {
+    if (journal != null) {
+      journal.restart();
+    }
+  }
+
+  /**
+   * Choose the format of a save, telling the player if the name is not a format.
+   */
+  private SaveFormat chooseFormat(String formatName) {
+    if (formatName.isEmpty()) {
+      return saveFormat;
+    }
+    SaveFormat format = SaveFormat.forName(formatName);
+    if (format == null) {
+      refuse("Unknown save format: " + formatName);
+    }
+    return format;
+  }
+
+  /**
+   * Reset the game to the state it started in.
+   */
+  private void reset() {
+    if (initialState == null) {
+      refuse("This game cannot be reset.");
+      return;
     }
+    this.gameWorld = initialState.newWorld();
+    this.player = initialState.newPlayer();
+    restartJournal();
+    viewer.showText("The game starts again.");
   }
 
   /**
@@ -509,6 +889,7 @@ public class GameController {
             + (problem instanceof Puzzle<?> ? " solved " : " killed ")
             + problem.getName());
     problem.setActive(false); // set problem to inactive
+    changes.problemSolved(gameWorld.getRoom(player.getRoomNumber()));
 
     // deal with score
     int points = problem.getValue();
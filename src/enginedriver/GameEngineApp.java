@@ -16,6 +16,16 @@ import jsonio.GameDataLoader;
  * It initializes the game world and player, and starts the game loop.
  */
 public class GameEngineApp {
+  private static final String MENU = "===\n"
+          + "To move, enter: (N)orth, (S)outh, (E)ast or (W)est.\n"
+          + "Other actions: (I)nventory, (L)ook around the location, (U)se an item\n"
+          + "(T)ake an item, (D)rop an item, or e(X)amine something.\n"
+          + "(A)nswer a question or provide a text solution.\n"
+          + "To end the game, enter (Q)uit to quit and exit.\n"
+          + "Your choice: ";
+  // JSON worlds at least this large are read a room at a time, as the game visits them
+  private static final long LAZY_LOAD_BYTES = 4L << 20;
+
   private GameController gameController;
   private BufferedReader  source;
   private Appendable output;
@@ -32,7 +42,15 @@ public class GameEngineApp {
     this.source = Objects.requireNonNull(source);
     this.output = Objects.requireNonNull(output);
 
-    GameWorld gameWorld = GameDataLoader.loadGameWorld(gameFileName);
+    GameWorld gameWorld;
+    if (WorldCompiler.isPack(gameFileName)) {
+      gameWorld = WorldCompiler.loadPack(gameFileName);
+    } else if (new File(gameFileName).length() >= LAZY_LOAD_BYTES) {
+      // a game visits a few rooms of a large world, so only those are read
+      gameWorld = GameDataLoader.loadGameWorldLazily(gameFileName);
+    } else {
+      gameWorld = GameDataLoader.loadGameWorld(gameFileName);
+    }
 
     String playerName = getPlayerName(source);
     String playerFileName = playerName + ".json";
@@ -41,7 +59,7 @@ public class GameEngineApp {
             ? GameDataLoader.loadPlayer(playerFileName, gameWorld)
             : new Player(playerName, 100, 20, 0);
 
-    this.gameController = new GameController(gameWorld, player);
+    this.gameController = new GameController(gameWorld, player, new Viewer(output));
   }
 
   /**
@@ -54,13 +72,7 @@ public class GameEngineApp {
 
     String command;
     while (true) {
-      System.out.println("===");
-      System.out.println("To move, enter: (N)orth, (S)outh, (E)ast or (W)est.");
-      System.out.println("Other actions: (I)nventory, (L)ook around the location, (U)se an item");
-      System.out.println("(T)ake an item, (D)rop an item, or e(X)amine something.");
-      System.out.println("(A)nswer a question or provide a text solution.");
-      System.out.println("To end the game, enter (Q)uit to quit and exit.");
-      System.out.print("Your choice: ");
+      output.append(MENU);
 
       //command = this.source.read();
       // 从source中读取一行命令
@@ -70,11 +82,14 @@ public class GameEngineApp {
       }
 
       if (command.equalsIgnoreCase("Q")) {
-        System.out.println("Exiting game.");
+        output.append("Exiting game.\n");
         break;
       }
 
       gameController.processCommand(command);
+      if (gameController.isGameOver()) {
+        break;
+      }
     }
   }
 
@@ -119,11 +134,11 @@ public class GameEngineApp {
   private String getPlayerName(BufferedReader source) throws IOException {
   //    Scanner scanner = new Scanner(source);
 
-    System.out.print("Enter your name: ");
+    output.append("Enter your name: ");
 
     String playerName = source.readLine();
 
-    System.out.println("Your name is: " + playerName);
+    output.append("Your name is: ").append(playerName).append('\n');
 
     return playerName;
   }
@@ -0,0 +1,84 @@
+package enginedriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of a game: the state of the game world and of the player.
+ * The snapshot is never changed, so a game can be reset or restored from it any number
+ * of times. The world part is a WorldTemplate, so a restored world copies its rooms on
+ * demand and restoring takes microseconds instead of reloading JSON files.
+ */
+public class GameSnapshot {
+  private final WorldTemplate world;
+  private final String playerName;
+  private final int health;
+  private final int maxWeight;
+  private final int roomNumber;
+  private final int score;
+  private final Item[] inventory;
+
+  /**
+   * Constructor for the snapshot of a game starting on a world template.
+
+   * @param world the world template the game starts from
+   * @param player the player starting the game
+   */
+  public GameSnapshot(WorldTemplate world, Player player) {
+    this.world = world;
+    this.playerName = player.getName();
+    this.health = player.getHealth();
+    this.maxWeight = player.getMaxWeight();
+    this.roomNumber = player.getRoomNumber();
+    this.score = player.getScore();
+    EntityCopier copier = new EntityCopier();
+    this.inventory = new Item[player.getEntities().size()];
+    int i = 0;
+    for (Item item : player.getEntities().values()) {
+      inventory[i++] = copier.copyItem(item);
+    }
+  }
+
+  /**
+   * Capture the current state of a game, which can still be played afterward.
+
+   * @param gameWorld the game world
+   * @param player the player
+   * @return the snapshot
+   */
+  public static GameSnapshot capture(GameWorld gameWorld, Player player) {
+    return new GameSnapshot(WorldTemplate.copyOf(gameWorld), player);
+  }
+
+  /**
+   * Get the state of the game world in the snapshot.
+
+   * @return the world template
+   */
+  public WorldTemplate getWorld() {
+    return world;
+  }
+
+  /**
+   * Create a game world in the state of the snapshot.
+
+   * @return the game world
+   */
+  public GameWorld newWorld() {
+    return world.newWorld();
+  }
+
+  /**
+   * Create a player in the state of the snapshot.
+
+   * @return the player
+   */
+  public Player newPlayer() {
+    EntityCopier copier = new EntityCopier();
+    Map<String, Item> items = new HashMap<>();
+    for (Item item : inventory) {
+      items.put(item.getName(), copier.copyItem(item));
+    }
+    return new Player(playerName, health, maxWeight, 0, roomNumber, items, score);
+  }
+}
@@ -1,9 +1,12 @@
 package enginedriver;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import enginedriver.problems.IProblem;
 import enginedriver.problems.Monster;
 import enginedriver.problems.Puzzle;
 
@@ -11,11 +14,41 @@ import enginedriver.problems.Puzzle;
 /**
  * Class representing the game world, read from json file.
  * The game world contains rooms, items, fixtures, monsters, and puzzles.
+ * It keeps an index of its items by name, and the room each item, fixture, monster and
+ * puzzle is in, so that neither finding one nor listing them all goes through the rooms.
+ * The indices tell entities apart by identity and count every room an entity is listed
+ * in, so an item listed in several rooms stays indexed until it is taken from all of them.
+ * The world listens to the rooms it indexes, so the indices follow every entity added to
+ * or removed from them; items a player carries stay in the index by name only. A room
+ * belongs to the last world it was indexed by.
+ * A world held in memory numbers its rooms densely in the order of their room numbers
+ * and keeps them in an array, so that finding a room by number is an array read and no
+ * boxing. A world whose rooms come from a room source keeps the few rooms loaded so far
+ * in a map, until every room is loaded.
  */
 public class GameWorld {
   private String name;
   private String version;
   private Map<Integer, Room> rooms;
+  private RoomSource roomSource;
+  // the rooms by dense index and their numbers, in number order, when held in memory
+  private Room<?>[] roomTable;
+  private int[] roomNumbers;
+  // dense index + 1 by room number - firstRoomNumber, null if the numbers are too sparse
+  private int[] indexByNumber;
+  private int firstRoomNumber;
+  private final Map<String, Item> itemsByName = new HashMap<>();
+  // the rooms of each entity, in the order the rooms were indexed; carried items are not in
+  private final EntityIndex<Item> itemRooms = new EntityIndex<>();
+  private final EntityIndex<Fixture> fixtureRooms = new EntityIndex<>();
+  private final EntityIndex<Monster<?>> monsterRooms = new EntityIndex<>();
+  private final EntityIndex<Puzzle<?>> puzzleRooms = new EntityIndex<>();
+  private final Collection<Item> items = Collections.unmodifiableCollection(itemRooms);
+  private final Collection<Fixture> fixtures = Collections.unmodifiableCollection(fixtureRooms);
+  private final Collection<Monster<?>> monsters =
+          Collections.unmodifiableCollection(monsterRooms);
+  private final Collection<Puzzle<?>> puzzles = Collections.unmodifiableCollection(puzzleRooms);
+  private final RoomContents roomContents = new RoomContents();
 
   /**
    * Default constructor for deserialization.
@@ -34,7 +67,23 @@ public class GameWorld {
     this.name = name;
     this.version = version;
     this.rooms = rooms;
+    buildRoomTable();
+    indexRooms();
+  }
+
+  /**
+   * Constructor for a GameWorld whose rooms are provided by a room source.
+   * A room is asked from the source the first time it is needed, and kept from then on.
 
+   * @param roomSource the source of the rooms
+   * @param name       the name of the game world
+   * @param version    the version of the game world
+   */
+  public GameWorld(RoomSource roomSource, String name, String version) {
+    this.name = name;
+    this.version = version;
+    this.rooms = new HashMap<>();
+    this.roomSource = roomSource;
   }
 
   /**
@@ -56,10 +105,20 @@ public class GameWorld {
 
   /**
    * Get the rooms in the game world.
+   * Rooms the room source has not provided yet are loaded first. The map is not to be
+   * changed; rooms are replaced with setRooms.
 
    * @return the rooms in the game world
    */
   public Map<Integer, Room> getRooms() {
+    if (roomSource != null) {
+      for (int id : roomSource.getRoomIds()) {
+        getRoom(id);
+      }
+      // every room is in memory now
+      roomSource = null;
+      buildRoomTable();
+    }
     return rooms;
   }
 
@@ -70,8 +129,19 @@ public class GameWorld {
    * @return The room with the specified ID.
    */
   public Room<?> getRoom(int id) {
-    //id starts from 1 but index st
-    return rooms.get(id);
+    if (roomTable != null) {
+      int index = roomIndex(id);
+      return index < 0 ? null : roomTable[index];
+    }
+    Room<?> room = rooms.get(id);
+    if (room == null && roomSource != null) {
+      room = roomSource.loadRoom(id);
+      if (room != null) {
+        rooms.put(id, room);
+        indexRoom(room);
+      }
+    }
+    return room;
   }
 
   /**
@@ -98,52 +168,237 @@ public class GameWorld {
    * @param rooms the rooms in the game world
    */
   public void setRooms(Map<Integer, Room>  rooms) {
+    releaseRooms();
     this.rooms = rooms;
+    this.roomSource = null;
+    buildRoomTable();
+    indexRooms();
+  }
+
+  /**
+   * Find an item of the world by name, in a room or carried by a player.
+   * Only the rooms the world has loaded are indexed, so a name not found in them makes
+   * the world load the others.
+
+   * @param itemName the name of the item
+   * @return the item, or null if the world has no item by that name
+   */
+  public Item findItem(String itemName) {
+    Item item = itemsByName.get(itemName);
+    if (item == null && roomSource != null && rooms.size() < roomSource.getRoomIds().size()) {
+      getRooms();
+      item = itemsByName.get(itemName);
+    }
+    return item;
+  }
+
+  /**
+   * Get the room an item of the world lies in.
+
+   * @param item the item
+   * @return the room, the first one indexed if the item is in several, or null if a player
+   *     carries the item or it is not of this world
+   */
+  public Room<?> getItemRoom(Item item) {
+    return itemRooms.getRoom(item);
+  }
+
+  /**
+   * Get the room an item, fixture, monster or puzzle of the world is in.
+   * Only the rooms the world has loaded are indexed.
+
+   * @param entity the entity
+   * @return the room, the first one indexed if the entity is in several, or null if a
+   *     player carries the entity or it is not of this world
+   */
+  public Room<?> getEntityRoom(Object entity) {
+    if (entity instanceof Item item) {
+      return itemRooms.getRoom(item);
+    } else if (entity instanceof Fixture fixture) {
+      return fixtureRooms.getRoom(fixture);
+    } else if (entity instanceof Monster<?> monster) {
+      return monsterRooms.getRoom(monster);
+    } else if (entity instanceof Puzzle<?> puzzle) {
+      return puzzleRooms.getRoom(puzzle);
+    }
+    return null;
+  }
+
+  /**
+   * Get all items lying in the rooms of the game world, as a read only view.
+
+   * @return the items, each once
+   */
+  public Collection<Item> getItems() {
+    loadAllRooms();
+    return items;
+  }
+
+  /**
+   * Get all fixtures in the game world, as a read only view.
+
+   * @return the fixtures, each once
+   */
+  public Collection<Fixture> getFixtures() {
+    loadAllRooms();
+    return fixtures;
+  }
+
+  /**
+   * Get all monsters in the game world, as a read only view.
+
+   * @return the monsters, each once
+   */
+  public Collection<Monster<?>> getMonsters() {
+    loadAllRooms();
+    return monsters;
   }
 
   /**
-   * Get a list of all items in the game world.
+   * Get all puzzles in the game world, as a read only view.
+
+   * @return the puzzles, each once
+   */
+  public Collection<Puzzle<?>> getPuzzles() {
+    loadAllRooms();
+    return puzzles;
+  }
+
+  /**
+   * Load the rooms the room source has not provided yet, if any.
+   */
+  private void loadAllRooms() {
+    if (roomSource != null) {
+      getRooms();
+    }
+  }
 
-   * @return a list of all items
+  /**
+   * Number the rooms in memory densely, in the order of their room numbers.
    */
-  public List<Item> getItems() {
-    return rooms.values().stream()
-            .flatMap(room -> ((List<Item>) room.getEntitiesByType(Item.class)).stream())
-            .collect(Collectors.toList());
+  private void buildRoomTable() {
+    int count = rooms == null ? 0 : rooms.size();
+    roomNumbers = new int[count];
+    if (count > 0) {
+      int i = 0;
+      for (int number : rooms.keySet()) {
+        roomNumbers[i++] = number;
+      }
+      Arrays.sort(roomNumbers);
+    }
+    roomTable = new Room<?>[count];
+    for (int i = 0; i < count; i++) {
+      roomTable[i] = rooms.get(roomNumbers[i]);
+    }
+    indexByNumber = null;
+    if (count > 0) {
+      long span = (long) roomNumbers[count - 1] - roomNumbers[0] + 1;
+      if (span <= 2L * count + 64) {
+        firstRoomNumber = roomNumbers[0];
+        indexByNumber = new int[(int) span];
+        for (int i = 0; i < count; i++) {
+          indexByNumber[roomNumbers[i] - firstRoomNumber] = i + 1;
+        }
+      }
+    }
   }
 
   /**
-   * Get a list of all fixtures in the game world.
+   * Find the dense index of a room number.
 
-   * @return a list of all fixtures
+   * @return the index, or -1 if there is no room with that number
    */
-  public List<Fixture> getFixtures() {
-    return rooms.values().stream()
-            .flatMap(room -> ((List<Fixture>) room.getEntitiesByType(Fixture.class)).stream())
-            .collect(Collectors.toList());
+  private int roomIndex(int number) {
+    if (indexByNumber != null) {
+      long slot = (long) number - firstRoomNumber;
+      return slot >= 0 && slot < indexByNumber.length ? indexByNumber[(int) slot] - 1 : -1;
+    }
+    int index = Arrays.binarySearch(roomNumbers, number);
+    return index < 0 ? -1 : index;
   }
 
   /**
-   * Get a list of all monsters in the game world.
+   * Index the entities of every room in memory, in the order of the room numbers.
+   */
+  private void indexRooms() {
+    itemsByName.clear();
+    itemRooms.clear();
+    fixtureRooms.clear();
+    monsterRooms.clear();
+    puzzleRooms.clear();
+    for (Room<?> room : roomTable) {
+      if (room != null) {
+        indexRoom(room);
+      }
+    }
+  }
+
+  /**
+   * Stop listening to the rooms indexed so far, which are being replaced.
+   */
+  private void releaseRooms() {
+    if (rooms == null) {
+      return;
+    }
+    for (Room<?> room : rooms.values()) {
+      if (room != null && room.getContentsListener() == roomContents) {
+        room.setContentsListener(null);
+      }
+    }
+  }
 
-   * @return a list of all monsters
+  /**
+   * Index the entities and the problem of a room, and the item solving the problem, which
+   * may be carried, then listen to the entities added to and removed from the room.
    */
-  public List<Monster<?>> getMonsters() {
-    return rooms.values().stream()
-            .filter(room -> room.getProblem() instanceof Monster)
-            .map(room -> (Monster<?>) room.getProblem())
-            .collect(Collectors.toList());
+  private void indexRoom(Room<?> room) {
+    if (room.getEntities() != null) {
+      for (IdentifiableEntity entity : room.getEntities().values()) {
+        indexEntity(room, entity);
+      }
+    }
+    IProblem<?> problem = room.getProblem();
+    if (problem instanceof Monster<?> monster) {
+      monsterRooms.put(monster, room);
+    } else if (problem instanceof Puzzle<?> puzzle) {
+      puzzleRooms.put(puzzle, room);
+    }
+    if (problem != null && problem.getSolution() instanceof Item item) {
+      itemsByName.putIfAbsent(item.getName(), item);
+    }
+    room.setContentsListener(roomContents);
   }
 
   /**
-   * Get a list of all puzzles in the game world.
+   * Index an item or fixture listed in a room.
+   */
+  private void indexEntity(Room<?> room, IdentifiableEntity entity) {
+    if (entity instanceof Item item) {
+      itemsByName.put(item.getName(), item);
+      itemRooms.put(item, room);
+    } else if (entity instanceof Fixture fixture) {
+      fixtureRooms.put(fixture, room);
+    }
+  }
 
-   * @return a list of all puzzles
+  /**
+   * Keeps the indices up to date as entities are added to and removed from the rooms.
+   * An item removed from a room stays in the index by name, since a player may carry it.
    */
-  public List<Puzzle<?>> getPuzzles() {
-    return rooms.values().stream()
-            .filter(room -> room.getProblem() instanceof Puzzle)
-            .map(room -> (Puzzle<?>) room.getProblem())
-            .collect(Collectors.toList());
+  private class RoomContents implements Room.ContentsListener {
+
+    @Override
+    public void entityAdded(Room<?> room, IdentifiableEntity entity) {
+      indexEntity(room, entity);
+    }
+
+    @Override
+    public void entityRemoved(Room<?> room, IdentifiableEntity entity) {
+      if (entity instanceof Item item) {
+        itemRooms.remove(item, room);
+      } else if (entity instanceof Fixture fixture) {
+        fixtureRooms.remove(fixture, room);
+      }
+    }
   }
 }
@@ -0,0 +1,216 @@
+package enginedriver;
+
+/**
+ * Index from entity names to entities that ignores case and extra white space,
+ * so "hair   CLIPPERS" finds "Hair Clippers".
+ * The normalized key is computed once when an entity is put in the index. Lookups
+ * normalize the typed name on the fly while hashing and comparing it, so they take
+ * any CharSequence without building a new String.
+
+ * @param <T> the type of the entities
+ */
+class NameIndex<T> {
+  private String[] keys;
+  private Object[] values;
+  private int size;
+
+  /**
+   * Constructor for an empty index.
+   */
+  NameIndex() {
+    this.keys = new String[16];
+    this.values = new Object[16];
+  }
+
+  /**
+   * Put an entity in the index, replacing the entity with the same normalized name.
+
+   * @param name the name of the entity
+   * @param value the entity
+   */
+  void put(String name, T value) {
+    if ((size + 1) * 2 > keys.length) {
+      grow();
+    }
+    String key = normalize(name);
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != null && !keys[slot].equals(key)) {
+      slot = (slot + 1) & mask;
+    }
+    if (keys[slot] == null) {
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] = value;
+  }
+
+  /**
+   * Get the entity with a name, ignoring case and extra white space.
+
+   * @param name the name typed by the player
+   * @return the entity, or null if there is none with that name
+   */
+  @SuppressWarnings("unchecked")
+  T get(CharSequence name) {
+    int slot = find(name);
+    return slot < 0 ? null : (T) values[slot];
+  }
+
+  /**
+   * Remove the entity with a name, ignoring case and extra white space.
+
+   * @param name the name of the entity
+   */
+  void remove(CharSequence name) {
+    int slot = find(name);
+    if (slot < 0) {
+      return;
+    }
+    // shift back the entries that probed past the removed one
+    int mask = keys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (keys[next] != null) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = null;
+    values[hole] = null;
+    size--;
+  }
+
+  /**
+   * Remove every entity from the index.
+   */
+  void clear() {
+    keys = new String[16];
+    values = new Object[16];
+    size = 0;
+  }
+
+  /**
+   * Get the number of entities in the index.
+
+   * @return the number of entities
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Normalize a name: lower case, no leading or trailing white space, and a single space
+   * between words.
+
+   * @param name the name
+   * @return the normalized name
+   */
+  static String normalize(CharSequence name) {
+    StringBuilder key = new StringBuilder(name.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c <= ' ') {
+        pendingSpace = key.length() > 0;
+      } else {
+        if (pendingSpace) {
+          key.append(' ');
+          pendingSpace = false;
+        }
+        key.append(Character.toLowerCase(c));
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Find the slot of a name typed by the player.
+
+   * @return the slot, or -1 if the name is not in the index
+   */
+  private int find(CharSequence name) {
+    int mask = keys.length - 1;
+    int slot = hash(name) & mask;
+    while (keys[slot] != null) {
+      if (matches(keys[slot], name)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Hash of a name as if it was normalized first.
+   */
+  private static int hash(CharSequence name) {
+    int h = 0;
+    boolean pendingSpace = false;
+    boolean started = false;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c <= ' ') {
+        pendingSpace = started;
+      } else {
+        if (pendingSpace) {
+          h = 31 * h + ' ';
+          pendingSpace = false;
+        }
+        h = 31 * h + Character.toLowerCase(c);
+        started = true;
+      }
+    }
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Compare a normalized key with a name as if the name was normalized first.
+   */
+  private static boolean matches(String key, CharSequence name) {
+    int k = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c <= ' ') {
+        pendingSpace = k > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        if (k >= key.length() || key.charAt(k++) != ' ') {
+          return false;
+        }
+        pendingSpace = false;
+      }
+      if (k >= key.length() || key.charAt(k++) != Character.toLowerCase(c)) {
+        return false;
+      }
+    }
+    return k == key.length();
+  }
+
+  /**
+   * Double the table and put every entry back in its new slot.
+   */
+  private void grow() {
+    String[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new String[oldKeys.length * 2];
+    values = new Object[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = hash(oldKeys[i]) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
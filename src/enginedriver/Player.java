@@ -4,11 +4,17 @@ import java.util.Map;
 
 /**
  * Class for player in the game.
+ * The weight, value and number of the items carried are kept as running totals, updated
+ * as items are added and removed, so they and the capacity checks do not depend on the
+ * size of the inventory. With assertions enabled every update checks the totals against
+ * the inventory.
  */
 public class Player extends EntityContainer<Item> {
   private int health;
   private final int maxWeight;
   private int currentWeight;
+  private int inventoryValue;
+  private int itemCount;
   private int roomNumber = 1; //the room that player is in
   private int score;
 
@@ -53,7 +59,7 @@ public class Player extends EntityContainer<Item> {
     super(-1, name, "Player", items);
     this.health = health;
     this.maxWeight = maxWeight;
-    updateCurrentWeight();
+    recountInventory();
   }
 
   /**
@@ -71,7 +77,7 @@ public class Player extends EntityContainer<Item> {
     this.health = health;
     this.maxWeight = maxWeight;
     this.score = score;
-    updateCurrentWeight();
+    recountInventory();
   }
 
   /**
@@ -94,7 +100,7 @@ public class Player extends EntityContainer<Item> {
     this.currentWeight = currentWeight;
     this.roomNumber = roomNumber;
     this.score = score;
-    updateCurrentWeight();
+    recountInventory();
   }
 
 
@@ -108,18 +114,87 @@ public class Player extends EntityContainer<Item> {
   }
 
   /**
-   * Update current weight of inventory.
+   * Get the total value of the items in the inventory.
+
+   * @return the value of the inventory
+   */
+  public int getInventoryValue() {
+    return inventoryValue;
+  }
+
+  /**
+   * Get the number of items in the inventory.
+
+   * @return the number of items
+   */
+  public int getItemCount() {
+    return itemCount;
+  }
+
+  /**
+   * Get the weight the player can still carry.
+
+   * @return the remaining capacity, 0 if the inventory is at or over the max weight
+   */
+  public int getRemainingCapacity() {
+    return Math.max(0, maxWeight - currentWeight);
+  }
+
+  /**
+   * Check if the player can carry an item on top of the inventory.
+
+   * @param item the item
+   * @return true if the item fits within the max weight
+   */
+  public boolean canCarry(Item item) {
+    return item.getWeight() <= maxWeight - currentWeight;
+  }
+
+  /**
+   * Sum the weight, value and number of the items in the inventory.
    */
-  private void updateCurrentWeight() {
+  private void recountInventory() {
     currentWeight = 0;
-    // get all items in the inventory
+    inventoryValue = 0;
+    itemCount = 0;
     Map<String, Item> playerEntities = super.getEntities();
-    for (Map.Entry<String, Item> entry : playerEntities.entrySet()) {
-      Item item =  entry.getValue();  // get the item
-      // get the weight of the item and add it to the current weight
-      currentWeight += item.getWeight();
+    if (playerEntities == null) {
+      return;
     }
+    for (Item item : playerEntities.values()) {
+      if (item != null) {
+        countItem(item, 1);
+      }
+    }
+  }
+
+  /**
+   * Add an item to the totals of the inventory, or take it out of them.
+
+   * @param item the item
+   * @param sign 1 to add the item, -1 to take it out
+   */
+  private void countItem(Item item, int sign) {
+    currentWeight += sign * item.getWeight();
+    inventoryValue += sign * item.getValue();
+    itemCount += sign;
+  }
 
+  /**
+   * Check the running totals against the inventory. Only called in assertions.
+
+   * @return true if the totals match the items carried
+   */
+  private boolean totalsMatch() {
+    int weight = currentWeight;
+    int value = inventoryValue;
+    int count = itemCount;
+    recountInventory();
+    boolean match = weight == currentWeight && value == inventoryValue && count == itemCount;
+    currentWeight = weight;
+    inventoryValue = value;
+    itemCount = count;
+    return match;
   }
 
   /**
@@ -212,9 +287,8 @@ public class Player extends EntityContainer<Item> {
    * @return true if the item is within the maxWeight and successfully added, false otherwise
    */
   public boolean addItem(Item item) {
-    if (item.getWeight() + getCurrentWeight() <= maxWeight) {
-      super.addEntity(item);
-      updateCurrentWeight();
+    if (canCarry(item)) {
+      addEntity(item);
       return true;
     }
     return false;
@@ -224,11 +298,35 @@ public class Player extends EntityContainer<Item> {
    * Delete an item from player's inventory.
    */
   public boolean removeItem(Item item) {
-    if (super.removeEntity(item)) {
-      updateCurrentWeight();
-      return true;
+    return removeEntity(item);
+  }
+
+  @Override
+  public void setEntities(Map<String, Item> entityNames) {
+    super.setEntities(entityNames);
+    recountInventory();
+  }
+
+  @Override
+  public boolean addEntity(Item item) {
+    if (!super.addEntity(item)) {
+      return false;
     }
-    return false;
+    countItem(item, 1);
+    assert totalsMatch() : "inventory totals of " + getName() + " are off";
+    return true;
+  }
+
+  @Override
+  public boolean removeEntity(Item item) {
+    // the item carried under that name, which is the one removed
+    Item carried = getEntities().get(item.getName());
+    if (!super.removeEntity(item)) {
+      return false;
+    }
+    countItem(carried, -1);
+    assert totalsMatch() : "inventory totals of " + getName() + " are off";
+    return true;
   }
 
   /**
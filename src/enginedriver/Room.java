@@ -1,5 +1,6 @@
 package enginedriver;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -9,10 +10,20 @@ import enginedriver.problems.Puzzle;
 
 /**
  * class for a room in the game.
+ * The exits are held by direction: the room each one leads to, and bitmasks of the
+ * directions that have an exit and of the exits that are blocked. A blocked exit reads as
+ * the negative number of its room, as in the world files.
+ * A room tells the game world it belongs to when entities are added to or removed from
+ * it, so that the indices of the world follow every change of its rooms.
  */
 public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEntity> {
-  private Map<String, Integer> exits;
+  private static final int DIRECTIONS = Direction.values().length;
+
+  private final int[] exitRooms = new int[DIRECTIONS];
+  private int exitDirections;
+  private int lockedExits;
   private final T problem;
+  private ContentsListener contentsListener;
 
 
   /**
@@ -26,7 +37,7 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
   public Room(int id, String name, String description,
               Map<String, Integer> exits) {
     super(id, name, description);
-    this.exits = exits;
+    putExits(exits);
     this.problem = null;
   }
 
@@ -42,7 +53,7 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
   public Room(int id, String name, String description,
               Map<String, Integer> exits,  T problem) {
     super(id, name, description);
-    this.exits = exits;
+    putExits(exits);
     this.problem = problem;
   }
 
@@ -59,7 +70,7 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
               Map<String, Integer> exits,
               Map<String, IdentifiableEntity> entityNames) {
     super(id, name, description, entityNames);
-    this.exits = exits;
+    putExits(exits);
     this.problem = null;
   }
 
@@ -79,26 +90,180 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
               Map<String, IdentifiableEntity> entityNames,
               T problem, String pictureName) {
     super(id, name, description, entityNames, pictureName);
-    this.exits = exits;
+    putExits(exits);
     this.problem = problem;
   }
 
   /**
-   * Returns a map of exits from the room.
+   * Returns a map of exits from the room, by the keys of their directions.
+   * The map is a copy; exits are changed with setExit and unlockExits.
 
    * @return Map of exits rooms from data.
    */
   public Map<String, Integer> getExits() {
+    Map<String, Integer> exits = new LinkedHashMap<>();
+    for (Direction direction : Direction.values()) {
+      if (hasExit(direction)) {
+        exits.put(direction.getKey(), getExit(direction));
+      }
+    }
     return exits;
   }
 
   /**
-   * unlocks an exit from the room.
+   * Check if the room has an exit in a direction, even one that leads nowhere.
+
+   * @param direction the direction
+   * @return true if the room has an exit in that direction
+   */
+  public boolean hasExit(Direction direction) {
+    return (exitDirections & direction.bit()) != 0;
+  }
+
+  /**
+   * Get the room an exit leads to.
+
+   * @param direction the direction of the exit
+   * @return the number of the room, negative if the exit is blocked, 0 if it leads nowhere
+   */
+  public int getExit(Direction direction) {
+    int roomNumber = exitRooms[direction.ordinal()];
+    return isExitLocked(direction) ? -roomNumber : roomNumber;
+  }
+
+  /**
+   * Check if an exit is blocked.
+
+   * @param direction the direction of the exit
+   * @return true if the exit is blocked
+   */
+  public boolean isExitLocked(Direction direction) {
+    return (lockedExits & direction.bit()) != 0;
+  }
+
+  /**
+   * Set the room an exit leads to.
+
+   * @param direction the direction of the exit
+   * @param roomNumber the number of the room, negative if the exit is blocked
+   */
+  public void setExit(Direction direction, int roomNumber) {
+    putExit(direction, roomNumber);
+  }
+
+  /**
+   * Set the room an exit leads to, for setExit and the constructors, which must not call
+   * a method a subclass may override.
+   */
+  private void putExit(Direction direction, int roomNumber) {
+    exitRooms[direction.ordinal()] = Math.abs(roomNumber);
+    exitDirections |= direction.bit();
+    if (roomNumber < 0) {
+      lockedExits |= direction.bit();
+    } else {
+      lockedExits &= ~direction.bit();
+    }
+  }
+
+  /**
+   * Unblock every blocked exit of the room.
+
+   * @return the bits of the directions of the exits unblocked, see Direction.bit
+   */
+  public int unlockExits() {
+    int unlocked = lockedExits;
+    lockedExits = 0;
+    return unlocked;
+  }
+
+  /**
+   * Give this room the exits of another room.
+
+   * @param room the room to copy the exits of
+   */
+  void copyExits(Room<?> room) {
+    System.arraycopy(room.exitRooms, 0, exitRooms, 0, exitRooms.length);
+    exitDirections = room.exitDirections;
+    lockedExits = room.lockedExits;
+  }
+
+  /**
+   * Set the exits of the room from a map by the keys of their directions.
 
-   * @param key the key of the exit
+   * @param exits the exits, null for none
    */
-  void unlockExit(String key) {
-    exits.put(key, Math.abs(exits.get(key)));
+  private void putExits(Map<String, Integer> exits) {
+    if (exits == null) {
+      return;
+    }
+    for (Map.Entry<String, Integer> exit : exits.entrySet()) {
+      Direction direction = Direction.forKey(exit.getKey());
+      if (direction == null) {
+        throw new IllegalArgumentException("Unknown direction " + exit.getKey());
+      }
+      putExit(direction, exit.getValue() == null ? 0 : exit.getValue());
+    }
+  }
+
+  /**
+   * Set the listener told when entities are added to or removed from the room.
+
+   * @param contentsListener the listener, or null for none
+   */
+  void setContentsListener(ContentsListener contentsListener) {
+    this.contentsListener = contentsListener;
+  }
+
+  /**
+   * Get the listener told when entities are added to or removed from the room.
+
+   * @return the listener, or null if there is none
+   */
+  ContentsListener getContentsListener() {
+    return contentsListener;
+  }
+
+  @Override
+  public void setEntities(Map<String, IdentifiableEntity> entityNames) {
+    if (contentsListener != null && getEntities() != null) {
+      for (IdentifiableEntity entity : getEntities().values()) {
+        if (entity != null) {
+          contentsListener.entityRemoved(this, entity);
+        }
+      }
+    }
+    super.setEntities(entityNames);
+    if (contentsListener != null && entityNames != null) {
+      for (IdentifiableEntity entity : entityNames.values()) {
+        if (entity != null) {
+          contentsListener.entityAdded(this, entity);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean addEntity(IdentifiableEntity entity) {
+    if (!super.addEntity(entity)) {
+      return false;
+    }
+    if (contentsListener != null) {
+      contentsListener.entityAdded(this, entity);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean removeEntity(IdentifiableEntity entity) {
+    // the entity in the room under that name, which is the one removed
+    IdentifiableEntity removed = getEntities().get(entity.getName());
+    if (!super.removeEntity(entity)) {
+      return false;
+    }
+    if (contentsListener != null) {
+      contentsListener.entityRemoved(this, removed);
+    }
+    return true;
   }
 
   /**
@@ -107,7 +272,7 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
    *  @param itemName the name of the item
    *  @return the item
    */
-  public Item  getItem(String itemName) {
+  public Item  getItem(CharSequence itemName) {
     return super.getEntity(itemName, Item.class);
   }
 
@@ -120,4 +285,25 @@ public class Room<T extends IProblem<?>> extends EntityContainer<IdentifiableEnt
     return problem;
   }
 
+  /**
+   * Told when entities are added to or removed from a room.
+   */
+  interface ContentsListener {
+
+    /**
+     * An entity was added to a room.
+
+     * @param room the room
+     * @param entity the entity
+     */
+    void entityAdded(Room<?> room, IdentifiableEntity entity);
+
+    /**
+     * An entity was removed from a room.
+
+     * @param room the room
+     * @param entity the entity
+     */
+    void entityRemoved(Room<?> room, IdentifiableEntity entity);
+  }
 }
@@ -0,0 +1,25 @@
+package enginedriver;
+
+import java.util.Set;
+
+/**
+ * Interface for a source of the rooms of a game world that are not in memory yet.
+ * The game world asks its source for a room the first time the room is needed.
+ */
+public interface RoomSource {
+
+  /**
+   * Get the numbers of all rooms the source can provide.
+
+   * @return the room numbers
+   */
+  Set<Integer> getRoomIds();
+
+  /**
+   * Provide a room of the game world.
+
+   * @param id the number of the room
+   * @return the room, or null if there is no room with that number
+   */
+  Room<?> loadRoom(int id);
+}
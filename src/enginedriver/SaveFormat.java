@@ -0,0 +1,41 @@
+package enginedriver;
+
+/**
+ * The file formats a game can be saved in. A journal only records the changes made
+ * since the last save, in one file per player.
+ */
+public enum SaveFormat {
+  JSON(".json"),
+  BINARY(".bin"),
+  JOURNAL(".journal");
+
+  private final String extension;
+
+  SaveFormat(String extension) {
+    this.extension = extension;
+  }
+
+  /**
+   * Get the extension of the files saved in this format.
+
+   * @return the extension, with its dot
+   */
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Find a format by name, as typed by the player.
+
+   * @param name the name, in any case
+   * @return the format, or null if there is none by that name
+   */
+  public static SaveFormat forName(String name) {
+    for (SaveFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name.trim())) {
+        return format;
+      }
+    }
+    return null;
+  }
+}
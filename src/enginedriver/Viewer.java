@@ -1,37 +1,65 @@
 package enginedriver;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Text that can be viewed for hw8.
  * This part will support pictures in hw9.
- * Use singleton pattern.
+ * Every session has its own viewer. The lines shown while a command runs are collected
+ * in a reusable buffer and written to the output in one go when the command is done.
  */
 public class Viewer {
 
-  private static Viewer instance = null;
+  private final Appendable output;
+  private final StringBuilder buffer = new StringBuilder(256);
 
   /**
-   * Constructor for the viewer.
-   * This constructor is private to prevent instantiation.
+   * Constructor for a viewer.
+
+   * @param output the destination of the text, e.g. System.out or a socket writer
    */
-  private Viewer() {
+  public Viewer(Appendable output) {
+    if (output == null) {
+      throw new IllegalArgumentException("Output of a viewer cannot be null");
+    }
+    this.output = output;
   }
 
   /**
-   * Returns the instance of the viewer.
+   * Shows the text, once the viewer is flushed.
    */
-  public static Viewer getInstance() {
-    if (instance == null) {
-      instance = new Viewer();
-    }
-    return instance;
+  public void showText(String text) {
+    buffer.append(text).append('\n');
   }
 
   /**
-   * Shows the text.
+   * Write the text shown since the last flush to the output.
+   * The output is flushed as well if it buffers text itself.
    */
-  public void showText(String text) {
-    System.out.println(text);
+  public void flush() {
+    if (buffer.length() == 0) {
+      return;
+    }
+    try {
+      output.append(buffer);
+      if (output instanceof Flushable) {
+        ((Flushable) output).flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to show text", e);
+    } finally {
+      buffer.setLength(0);
+    }
   }
 
+  /**
+   * Get the destination of the text.
 
+   * @return the output
+   */
+  public Appendable getOutput() {
+    return output;
+  }
 }
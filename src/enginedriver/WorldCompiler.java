@@ -0,0 +1,158 @@
+package enginedriver;
+
+import binio.BinaryCodec;
+import binio.BinaryDataLoader;
+import enginedriver.problems.IProblem;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jsonio.GameDataLoader;
+import saveio.AtomicFiles;
+
+/**
+ * Command line compiler of game world JSON files into world packs.
+ * A world is checked once, when it is compiled, for the references the engine would
+ * otherwise trip over while playing: entities a room lists but the file does not
+ * define, exits to rooms that do not exist and problems without their solution item.
+ * The pack is a binary snapshot of the world, with every string stored once, every
+ * entity numbered and every reference to an entity resolved to its number, and the rooms
+ * in the order of their numbers. Loading a pack reads no JSON and looks nothing up by
+ * name. Run with java -cp "lib/*:out" enginedriver.WorldCompiler world.json [world.pack].
+ */
+public class WorldCompiler {
+  /** The extension of world packs. */
+  public static final String PACK_EXTENSION = ".pack";
+
+  /**
+   * Compile a world file into a pack.
+
+   * @param args the world JSON file, then the pack to write, by default the world file
+   *             with the pack extension
+   * @throws IOException if the world cannot be read or the pack cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int status = run(args, System.out, System.err);
+    if (status != 0) {
+      System.exit(status);
+    }
+  }
+
+  /**
+   * Compile a world file into a pack, reporting on streams.
+
+   * @param args the arguments of the command
+   * @param out the stream for the summary
+   * @param err the stream for usage and errors
+   * @return 0 if the pack was written, 1 if the world is not valid, 2 for bad usage
+   * @throws IOException if the world cannot be read or the pack cannot be written
+   */
+  public static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      err.println("Usage: WorldCompiler world.json [world" + PACK_EXTENSION + "]");
+      return 2;
+    }
+    String worldFile = args[0];
+    Path pack = Path.of(args.length > 1 ? args[1] : packName(worldFile));
+
+    GameWorld gameWorld = GameDataLoader.loadGameWorld(worldFile);
+    List<String> errors = validate(gameWorld);
+    if (!errors.isEmpty()) {
+      for (String error : errors) {
+        err.println(worldFile + ": " + error);
+      }
+      return 1;
+    }
+    int size = compile(gameWorld, pack);
+    out.println("Compiled " + gameWorld.getName() + " (" + gameWorld.getRooms().size()
+            + " rooms) into " + pack + ", " + size + " bytes");
+    return 0;
+  }
+
+  /**
+   * Write a valid game world as a pack.
+
+   * @param gameWorld the game world
+   * @param pack the file of the pack
+   * @return the size of the pack
+   * @throws IOException if the pack cannot be written or read back
+   */
+  public static int compile(GameWorld gameWorld, Path pack) throws IOException {
+    GameWorld ordered = new GameWorld(gameWorld.getName(), gameWorld.getVersion(),
+            new TreeMap<>(gameWorld.getRooms()));
+    ByteBuffer bytes = BinaryCodec.encodeWorld(ordered);
+    int size = bytes.remaining();
+    // the pack is read back before it replaces an older one
+    if (BinaryCodec.decodeWorld(bytes.duplicate()).getRooms().size()
+            != ordered.getRooms().size()) {
+      throw new IOException("The pack does not hold every room");
+    }
+    AtomicFiles.write(pack, bytes);
+    return size;
+  }
+
+  /**
+   * Check the references of a game world.
+
+   * @param gameWorld the game world
+   * @return the errors found, none if the world is valid
+   */
+  public static List<String> validate(GameWorld gameWorld) {
+    List<String> errors = new ArrayList<>();
+    Map<Integer, Room> rooms = new TreeMap<>(gameWorld.getRooms());
+    for (Room<?> room : rooms.values()) {
+      String where = "room " + room.getId() + " (" + room.getName() + ")";
+      for (Map.Entry<String, IdentifiableEntity> entity : room.getEntities().entrySet()) {
+        if (entity.getValue() == null) {
+          errors.add(where + " lists " + entity.getKey()
+                  + ", which is neither an item nor a fixture");
+        }
+      }
+      for (Direction direction : Direction.values()) {
+        int target = Math.abs(room.getExit(direction));
+        if (target != 0 && !rooms.containsKey(target)) {
+          errors.add(where + " has an exit " + direction.getKey() + " to room " + target
+                  + ", which does not exist");
+        }
+      }
+      IProblem<?> problem = room.getProblem();
+      if (problem != null && problem.getSolution() == null) {
+        errors.add(where + " has the problem " + problem.getName()
+                + ", whose solution is not an item of the world");
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Check if a world file is a pack.
+
+   * @param fileName the name of the file
+   * @return true if the file has the pack extension
+   */
+  public static boolean isPack(String fileName) {
+    return fileName.endsWith(PACK_EXTENSION);
+  }
+
+  /**
+   * Load a game world from a pack.
+
+   * @param fileName the name of the pack, in the worlds folder or a path
+   * @return the game world
+   * @throws IOException if the pack cannot be read
+   */
+  public static GameWorld loadPack(String fileName) throws IOException {
+    return BinaryDataLoader.loadGameWorld(fileName);
+  }
+
+  private static String packName(String worldFile) {
+    int dot = worldFile.lastIndexOf('.');
+    int slash = Math.max(worldFile.lastIndexOf('/'), worldFile.lastIndexOf('\\'));
+    return (dot > slash ? worldFile.substring(0, dot) : worldFile) + PACK_EXTENSION;
+  }
+}
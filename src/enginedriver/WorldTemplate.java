@@ -0,0 +1,123 @@
+package enginedriver;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jsonio.GameDataLoader;
+
+/**
+ * A game world loaded once and shared by every game played on it.
+ * The template itself is never changed. Each game gets its own GameWorld from newWorld,
+ * which copies a room of the template the first time the game touches it. Only the
+ * state a game can change is copied: the entities in the room, the remaining uses of
+ * items, the state of fixtures, the status of the problem and the exits. Names,
+ * descriptions, pictures and solutions stay shared, so a game that visits a few rooms
+ * costs a few small objects per room instead of a whole world.
+ */
+public class WorldTemplate {
+  private final String name;
+  private final String version;
+  private final Map<Integer, Room> rooms;
+  private final Set<Integer> roomIds;
+
+  /**
+   * Constructor for a template from a loaded game world.
+   * The world must not be used by a game afterward.
+
+   * @param gameWorld the game world to share
+   */
+  public WorldTemplate(GameWorld gameWorld) {
+    this.name = gameWorld.getName();
+    this.version = gameWorld.getVersion();
+    this.rooms = new HashMap<>(gameWorld.getRooms());
+    this.roomIds = Collections.unmodifiableSet(rooms.keySet());
+  }
+
+  /**
+   * Create a template from a copy of the current state of a game world.
+   * The game world can still be played afterward.
+
+   * @param gameWorld the game world to copy
+   * @return the template
+   */
+  public static WorldTemplate copyOf(GameWorld gameWorld) {
+    EntityCopier copier = new EntityCopier();
+    Map<Integer, Room> rooms = new HashMap<>();
+    for (Map.Entry<Integer, Room> entry : gameWorld.getRooms().entrySet()) {
+      rooms.put(entry.getKey(), copier.copyRoom(entry.getValue()));
+    }
+    return new WorldTemplate(new GameWorld(gameWorld.getName(), gameWorld.getVersion(), rooms));
+  }
+
+  /**
+   * Load a template from a world pack, or from a game world JSON file, reading its
+   * sections in parallel.
+
+   * @param fileName the name of the file to load
+   * @return the template
+   * @throws IOException if an error occurs during loading
+   */
+  public static WorldTemplate load(String fileName) throws IOException {
+    if (WorldCompiler.isPack(fileName)) {
+      return new WorldTemplate(WorldCompiler.loadPack(fileName));
+    }
+    return new WorldTemplate(GameDataLoader.loadGameWorldInParallel(fileName));
+  }
+
+  /**
+   * Get the name of the game world.
+
+   * @return the name of the game world
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the version of the game world.
+
+   * @return the version of the game world
+   */
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * Get the number of rooms in the game world.
+
+   * @return the number of rooms
+   */
+  public int getRoomCount() {
+    return rooms.size();
+  }
+
+  /**
+   * Create the game world of a new game, in the initial state of the template.
+
+   * @return a game world sharing everything that does not change with the template
+   */
+  public GameWorld newWorld() {
+    return new GameWorld(new SessionRooms(), name, version);
+  }
+
+  /**
+   * Source of the rooms of one game, copying the rooms of the template on demand.
+   */
+  private class SessionRooms implements RoomSource {
+    private final EntityCopier copier = new EntityCopier();
+
+    @Override
+    public Set<Integer> getRoomIds() {
+      return roomIds;
+    }
+
+    @Override
+    public Room<?> loadRoom(int id) {
+      Room<?> room = rooms.get(id);
+      return room == null ? null : copier.copyRoom(room);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package enginedriver.command;
+
+/**
+ * Results of a batch of commands run back to back by the game controller.
+ * Keeps one result code per command and the text every command emitted, packed into
+ * a single String with the offset where the messages of each command end.
+ */
+public class BatchResult {
+  /** The command was run. */
+  public static final int OK = 0;
+  /** The verb of the command is not known. */
+  public static final int INVALID = 1;
+  /** The command failed with an exception, its message is in the output. */
+  public static final int FAILED = 2;
+  /** The game was over before the command, so it was not run. */
+  public static final int GAME_OVER = 3;
+  /**
+   * The command was run but could not do what it asked, such as taking an item that is not
+   * in the room or moving through a blocked exit; the reason is in the output.
+   */
+  public static final int REJECTED = 4;
+
+  private final int[] codes;
+  private final int[] messageEnds;
+  private final String messages;
+
+  /**
+   * Constructor for the results of a batch.
+
+   * @param codes the result code of each command
+   * @param messageEnds the offset in messages where the text of each command ends
+   * @param messages the text emitted by all the commands
+   */
+  public BatchResult(int[] codes, int[] messageEnds, String messages) {
+    if (codes.length != messageEnds.length) {
+      throw new IllegalArgumentException("Need one message offset per result code");
+    }
+    this.codes = codes;
+    this.messageEnds = messageEnds;
+    this.messages = messages;
+  }
+
+  /**
+   * Get the number of commands in the batch.
+
+   * @return the number of commands
+   */
+  public int size() {
+    return codes.length;
+  }
+
+  /**
+   * Get the result code of a command.
+
+   * @param index the index of the command in the batch
+   * @return OK, INVALID, FAILED, GAME_OVER or REJECTED
+   */
+  public int getCode(int index) {
+    return codes[index];
+  }
+
+  /**
+   * Get the text emitted by a command.
+
+   * @param index the index of the command in the batch
+   * @return the lines shown by the command, each ending with a new line
+   */
+  public String getMessages(int index) {
+    int start = index == 0 ? 0 : messageEnds[index - 1];
+    return messages.substring(start, messageEnds[index]);
+  }
+
+  /**
+   * Get the text emitted by the whole batch.
+
+   * @return the lines shown by all commands, in order
+   */
+  public String getAllMessages() {
+    return messages;
+  }
+
+  /**
+   * Count the commands with a result code.
+
+   * @param code the result code
+   * @return the number of commands with that code
+   */
+  public int count(int code) {
+    int count = 0;
+    for (int c : codes) {
+      if (c == code) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,15 @@
+package enginedriver.command;
+
+/**
+ * Interface for the action run when the player enters a verb.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+  /**
+   * Run the command.
+
+   * @param command the parsed command, holding the verb and the object name
+   */
+  void handle(ParsedCommand command);
+}
@@ -0,0 +1,83 @@
+package enginedriver.command;
+
+/**
+ * Single pass tokenizer for the commands entered by the player.
+ * The first word is the verb, kept upper case so it can be looked up in a VerbTable,
+ * the remaining words form the object name. Words are
+ * separated by any run of white space, and every word of the object name is
+ * capitalized to align with the JSON style, e.g. "take hair   CLIPPERS" becomes
+ * TAKE and "Hair Clippers".
+ */
+public class CommandParser {
+
+  /**
+   * Private constructor, the parser only has static methods.
+   */
+  private CommandParser() {
+  }
+
+  /**
+   * Parse a whole command into a reusable ParsedCommand.
+
+   * @param input the command entered by the player
+   * @param command the ParsedCommand to fill in
+   * @return the filled in command
+   */
+  public static ParsedCommand parse(CharSequence input, ParsedCommand command) {
+    return parse(input, 0, input.length(), command);
+  }
+
+  /**
+   * Parse a slice of the input into a reusable ParsedCommand.
+
+   * @param input the text holding the command
+   * @param start the index of the first character of the command
+   * @param end the index after the last character of the command
+   * @param command the ParsedCommand to fill in
+   * @return the filled in command
+   */
+  public static ParsedCommand parse(CharSequence input, int start, int end,
+                                    ParsedCommand command) {
+    command.reset();
+
+    int i = skipSpaces(input, start, end);
+    while (i < end && !isSpace(input.charAt(i))) {
+      command.appendVerbChar(Character.toUpperCase(input.charAt(i++)));
+    }
+
+    // capitalize each word of the object name and join the words with a single space
+    i = skipSpaces(input, i, end);
+    boolean firstWord = true;
+    while (i < end) {
+      if (!firstWord) {
+        command.appendObjectChar(' ');
+      }
+      command.appendObjectChar(Character.toUpperCase(input.charAt(i++)));
+      while (i < end && !isSpace(input.charAt(i))) {
+        command.appendObjectChar(Character.toLowerCase(input.charAt(i++)));
+      }
+      i = skipSpaces(input, i, end);
+      firstWord = false;
+    }
+    return command;
+  }
+
+  /**
+   * Skip white space starting at an index.
+
+   * @return the index of the first character that is not white space, or end
+   */
+  private static int skipSpaces(CharSequence input, int i, int end) {
+    while (i < end && isSpace(input.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Check if a character separates words, the same characters String.trim removes.
+   */
+  private static boolean isSpace(char c) {
+    return c <= ' ';
+  }
+}
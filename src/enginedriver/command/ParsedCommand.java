@@ -0,0 +1,164 @@
+package enginedriver.command;
+
+/**
+ * A command entered by the player, split into its verb and object name.
+ * One instance is meant to be reused for every command of a session, so parsing
+ * a command does not allocate once the buffers have grown to fit.
+ */
+public class ParsedCommand {
+  private char[] verbChars = new char[16];
+  private int verbLength;
+  private Verb verb;
+  private char[] objectChars = new char[32];
+  private int objectLength;
+  private String objectName = "";
+  private final CharSequence object = new ObjectView();
+
+  /**
+   * Get the verb of the command.
+
+   * @return the verb, or UNKNOWN if the command is not a built-in verb
+   */
+  public Verb getVerb() {
+    if (verb == null) {
+      verb = Verb.match(verbChars, 0, verbLength);
+    }
+    return verb;
+  }
+
+  /**
+   * Get the value a table binds to the verb of the command.
+
+   * @param table the table of verbs
+   * @param <V> the type of the values in the table
+   * @return the value, or null if the verb is not in the table
+   */
+  public <V> V lookupVerb(VerbTable<V> table) {
+    return table.get(verbChars, 0, verbLength);
+  }
+
+  /**
+   * Get the verb as it was typed, upper case.
+
+   * @return the verb, or an empty string if the command was blank
+   */
+  public String getVerbName() {
+    return new String(verbChars, 0, verbLength);
+  }
+
+  /**
+   * Get the number of characters in the object name.
+
+   * @return the length of the object name
+   */
+  public int getObjectLength() {
+    return objectLength;
+  }
+
+  /**
+   * Get one character of the object name.
+
+   * @param index the index of the character
+   * @return the character at the index
+   */
+  public char objectCharAt(int index) {
+    if (index < 0 || index >= objectLength) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length "
+              + objectLength);
+    }
+    return objectChars[index];
+  }
+
+  /**
+   * Get the object name as a view over the buffer of this command, without building a
+   * String. The view changes when the next command is parsed, so it must not be kept.
+
+   * @return the object name
+   */
+  public CharSequence getObject() {
+    return object;
+  }
+
+  /**
+   * Get the object name, capitalized to align with the JSON style ("Hair Clippers").
+   * The String is only built the first time it is asked for.
+
+   * @return the object name, or an empty string if the command has no object
+   */
+  public String getObjectName() {
+    if (objectName == null) {
+      objectName = new String(objectChars, 0, objectLength);
+    }
+    return objectName;
+  }
+
+  /**
+   * Clear the command before a new one is parsed into it.
+   */
+  void reset() {
+    verbLength = 0;
+    verb = null;
+    objectLength = 0;
+    objectName = "";
+  }
+
+  /**
+   * Append one character to the verb.
+
+   * @param c the character to append, already upper case
+   */
+  void appendVerbChar(char c) {
+    if (verbLength == verbChars.length) {
+      verbChars = grow(verbChars, verbLength);
+    }
+    verbChars[verbLength++] = c;
+  }
+
+  /**
+   * Append one character to the object name.
+
+   * @param c the character to append
+   */
+  void appendObjectChar(char c) {
+    if (objectLength == objectChars.length) {
+      objectChars = grow(objectChars, objectLength);
+    }
+    objectChars[objectLength++] = c;
+    objectName = null;
+  }
+
+  /**
+   * Double the size of a buffer, keeping its content.
+   */
+  private static char[] grow(char[] chars, int length) {
+    char[] grown = new char[chars.length * 2];
+    System.arraycopy(chars, 0, grown, 0, length);
+    return grown;
+  }
+
+  /**
+   * Character view of the object name held in the buffer.
+   */
+  private class ObjectView implements CharSequence {
+
+    @Override
+    public int length() {
+      return objectLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return objectCharAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return getObjectName().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return getObjectName();
+    }
+  }
+}
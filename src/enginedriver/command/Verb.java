@@ -0,0 +1,62 @@
+package enginedriver.command;
+
+/**
+ * Enum for the verbs understood by the game controller.
+ * Each verb lists the spellings a player may type for it, e.g. "NORTH" or "N".
+ */
+public enum Verb {
+  NORTH("NORTH", "N"),
+  SOUTH("SOUTH", "S"),
+  EAST("EAST", "E"),
+  WEST("WEST", "W"),
+  TAKE("TAKE", "T"),
+  DROP("DROP", "D"),
+  EXAMINE("EXAMINE", "X"),
+  LOOK("LOOK", "L"),
+  USE("USE", "U"),
+  INVENTORY("INVENTORY", "I"),
+  ANSWER("ANSWER", "A"),
+  QUIT("Q"),
+  SAVE("SAVE"),
+  RESTORE("RESTORE"),
+  RESET("RESET"),
+  UNKNOWN();
+
+  private static final VerbTable<Verb> BY_NAME = new VerbTable<>();
+
+  static {
+    for (Verb verb : values()) {
+      for (String name : verb.names) {
+        BY_NAME.put(name, verb);
+      }
+    }
+  }
+
+  private final String[] names;
+
+  Verb(String... names) {
+    this.names = names;
+  }
+
+  /**
+   * Get the spellings a player may type for the verb.
+
+   * @return the spellings, upper case
+   */
+  public String[] getNames() {
+    return names.clone();
+  }
+
+  /**
+   * Find the verb spelled by upper case characters held in an array.
+
+   * @param chars the array holding the spelling
+   * @param offset the index of the first character
+   * @param length the number of characters
+   * @return the matching verb, or UNKNOWN if no verb matches
+   */
+  public static Verb match(char[] chars, int offset, int length) {
+    Verb verb = BY_NAME.get(chars, offset, length);
+    return verb == null ? UNKNOWN : verb;
+  }
+}
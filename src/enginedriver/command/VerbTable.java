@@ -0,0 +1,164 @@
+package enginedriver.command;
+
+import java.util.Locale;
+
+/**
+ * Lookup table from the spellings of a verb ("NORTH", "N") to a value, ignoring case.
+ * Spellings are stored upper case in an open addressing table that is kept at most
+ * half full, so a lookup is one hash over the typed characters and usually one probe,
+ * without building a String for the verb.
+
+ * @param <V> the type of the value bound to a verb
+ */
+public class VerbTable<V> {
+  private String[] names;
+  private Object[] values;
+  private int size;
+
+  /**
+   * Constructor for an empty table.
+   */
+  public VerbTable() {
+    this.names = new String[32];
+    this.values = new Object[32];
+  }
+
+  /**
+   * Bind a spelling to a value, replacing the value bound before if any.
+
+   * @param name the spelling of the verb, any case
+   * @param value the value bound to the spelling
+   */
+  public void put(String name, V value) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Verb name cannot be empty");
+    }
+    if (value == null) {
+      throw new IllegalArgumentException("Value bound to verb " + name + " cannot be null");
+    }
+    if ((size + 1) * 2 > names.length) {
+      grow();
+    }
+    String upper = name.toUpperCase(Locale.ROOT);
+    int slot = findSlot(upper);
+    if (names[slot] == null) {
+      names[slot] = upper;
+      size++;
+    }
+    values[slot] = value;
+  }
+
+  /**
+   * Get the value bound to a spelling.
+
+   * @param name the spelling of the verb, any case
+   * @return the value, or null if the spelling is not bound
+   */
+  public V get(String name) {
+    char[] chars = name.toUpperCase(Locale.ROOT).toCharArray();
+    return get(chars, 0, chars.length);
+  }
+
+  /**
+   * Get the value bound to an upper case spelling held in a char array.
+
+   * @param chars the array holding the spelling, already upper case
+   * @param offset the index of the first character
+   * @param length the number of characters
+   * @return the value, or null if the spelling is not bound
+   */
+  @SuppressWarnings("unchecked")
+  public V get(char[] chars, int offset, int length) {
+    int mask = names.length - 1;
+    int slot = hash(chars, offset, length) & mask;
+    while (names[slot] != null) {
+      if (sameName(names[slot], chars, offset, length)) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Get the number of spellings bound in the table.
+
+   * @return the number of spellings
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Find the slot holding a spelling, or the empty slot where it belongs.
+   */
+  private int findSlot(String upper) {
+    int mask = names.length - 1;
+    int slot = hash(upper) & mask;
+    while (names[slot] != null && !names[slot].equals(upper)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Double the table and put every spelling back in its new slot.
+   */
+  private void grow() {
+    String[] oldNames = names;
+    Object[] oldValues = values;
+    names = new String[oldNames.length * 2];
+    values = new Object[oldNames.length * 2];
+    for (int i = 0; i < oldNames.length; i++) {
+      if (oldNames[i] != null) {
+        int slot = findSlot(oldNames[i]);
+        names[slot] = oldNames[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Hash of a spelling, the same as for its characters held in an array.
+   */
+  private static int hash(String name) {
+    int h = 0;
+    for (int i = 0; i < name.length(); i++) {
+      h = 31 * h + name.charAt(i);
+    }
+    return spread(h);
+  }
+
+  /**
+   * Hash of a spelling held in an array.
+   */
+  private static int hash(char[] chars, int offset, int length) {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++) {
+      h = 31 * h + chars[i];
+    }
+    return spread(h);
+  }
+
+  /**
+   * Mix the high bits into the low bits used to pick a slot.
+   */
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Compare a stored spelling with characters held in an array.
+   */
+  private static boolean sameName(String name, char[] chars, int offset, int length) {
+    if (name.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (name.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -50,6 +50,18 @@ public class Monster<T> extends Problem<T> {
     this.canAttack = canAttack;
   }
 
+  /**
+   * Copy constructor for a monster, copying its active and can attack status.
+
+   * @param other the monster to copy
+   */
+  public Monster(Monster<T> other) {
+    super(other);
+    this.attack = other.attack;
+    this.damage = other.damage;
+    this.canAttack = other.canAttack;
+  }
+
   /**
    * Sets the active status of the monster.
 
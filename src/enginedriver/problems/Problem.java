@@ -56,6 +56,24 @@ public abstract class Problem<T> extends IdentifiableEntity
     this.validator = validator;
   }
 
+  /**
+   * Copy constructor for a problem, for a game that must not share the state of the
+   * original. The solution and all text are shared, the active status is copied.
+
+   * @param other the problem to copy
+   */
+  protected Problem(Problem<T> other) {
+    super(other.getName(), other.getDescription(), other.getPictureName());
+    this.active = other.active;
+    this.affectsTarget = other.affectsTarget;
+    this.affectsPlayer = other.affectsPlayer;
+    this.value = other.value;
+    this.effects = other.effects;
+    this.target = other.target;
+    this.solution = other.solution;
+    this.validator = other.validator;
+  }
+
   /**
    * Gets affectsPlayer status of the problem.
 
@@ -37,4 +37,13 @@ public class Puzzle<T> extends Problem<T> {
             affectsPlayer, solution, value, effects, target,
             pictureName, validator);
   }
+
+  /**
+   * Copy constructor for a puzzle, copying its active status.
+
+   * @param other the puzzle to copy
+   */
+  public Puzzle(Puzzle<T> other) {
+    super(other);
+  }
 }
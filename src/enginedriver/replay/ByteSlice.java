@@ -0,0 +1,57 @@
+package enginedriver.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Character view over a slice of a byte buffer holding single byte (ASCII / Latin-1) text.
+ * The view is re-pointed at every line of a command log, so commands are parsed straight
+ * from the mapped file without copying them into Strings.
+ */
+class ByteSlice implements CharSequence {
+  private ByteBuffer buffer;
+  private int start;
+  private int length;
+
+  /**
+   * Point the view at a slice of a buffer.
+
+   * @param buffer the buffer holding the text
+   * @param start the index of the first byte
+   * @param end the index after the last byte
+   * @return this view
+   */
+  ByteSlice set(ByteBuffer buffer, int start, int end) {
+    this.buffer = buffer;
+    this.start = start;
+    this.length = end - start;
+    return this;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length "
+              + length);
+    }
+    return (char) (buffer.get(start + index) & 0xff);
+  }
+
+  @Override
+  public CharSequence subSequence(int from, int to) {
+    return toString().substring(from, to);
+  }
+
+  @Override
+  public String toString() {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) (buffer.get(start + i) & 0xff);
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,369 @@
+package enginedriver.replay;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import enginedriver.session.SessionFactory;
+import saveio.SaveWriter;
+
+/**
+ * Replays a command log recorded from many game sessions.
+ * Every line of the log is a session id, a space or tab, and the command entered in that
+ * session, e.g. "alice\tTAKE Lamp". Sessions may be interleaved. The log is memory
+ * mapped and indexed by session in one pass, then the sessions are replayed in parallel,
+ * each one in order on its own GameController, parsing commands directly from the
+ * mapped bytes. The text shown by the commands is dropped, and so are the files their
+ * saves would write, so that replaying a log never overwrites the saves of real players.
+ */
+public class ReplayEngine {
+  private static final int MAX_REGION_SIZE = 1 << 30;
+  // the latencies of all the commands are sorted in one array
+  private static final long MAX_COMMANDS = Integer.MAX_VALUE - 8;
+
+  private final SessionFactory sessionFactory;
+  private final int threads;
+  private final SaveWriter saves = SaveWriter.discarding();
+
+  /**
+   * Constructor for a replay engine.
+
+   * @param sessionFactory the factory for the controller of each session
+   * @param threads the number of sessions replayed at the same time
+   */
+  public ReplayEngine(SessionFactory sessionFactory, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Replay needs at least one thread");
+    }
+    this.sessionFactory = sessionFactory;
+    this.threads = threads;
+  }
+
+  /**
+   * Replay a command log.
+
+   * @param commandLog the path of the log
+   * @return the report of the replay
+   * @throws IOException if the log cannot be read, has more commands than can be timed,
+   *     or a session cannot be created
+   */
+  public ReplayReport replay(Path commandLog) throws IOException {
+    try (FileChannel channel = FileChannel.open(commandLog, StandardOpenOption.READ)) {
+      List<ByteBuffer> regions = mapLines(channel);
+      SessionIndex index = new SessionIndex();
+      long malformed = 0;
+      for (int r = 0; r < regions.size(); r++) {
+        malformed += index.addLines(regions.get(r), r);
+      }
+      List<SessionLog> sessions = index.getSessions();
+      long commands = 0;
+      for (SessionLog session : sessions) {
+        commands += session.count;
+      }
+      if (commands > MAX_COMMANDS) {
+        throw new IOException("Replay log has " + commands + " commands, more than the "
+                + MAX_COMMANDS + " that can be timed: " + commandLog);
+      }
+      return runSessions(regions, sessions, malformed);
+    }
+  }
+
+  /**
+   * Map the log in regions of at most 1 GB, each one ending at the end of a line.
+   */
+  private static List<ByteBuffer> mapLines(FileChannel channel) throws IOException {
+    List<ByteBuffer> regions = new ArrayList<>();
+    long size = channel.size();
+    long position = 0;
+    while (position < size) {
+      long length = Math.min(MAX_REGION_SIZE, size - position);
+      MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      int end = (int) length;
+      if (position + length < size) {
+        while (end > 0 && region.get(end - 1) != '\n') {
+          end--;
+        }
+        if (end == 0) {
+          throw new IOException("Line longer than " + MAX_REGION_SIZE + " bytes at " + position);
+        }
+      }
+      regions.add(region.slice(0, end));
+      position += end;
+    }
+    return regions;
+  }
+
+  /**
+   * Replay every session on the thread pool and merge their results.
+   */
+  private ReplayReport runSessions(List<ByteBuffer> regions, List<SessionLog> sessions,
+                                   long malformed) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      long start = System.nanoTime();
+      List<Future<SessionResult>> futures = new ArrayList<>();
+      for (SessionLog session : sessions) {
+        futures.add(pool.submit(() -> runSession(regions, session)));
+      }
+      List<SessionResult> results = new ArrayList<>();
+      for (Future<SessionResult> future : futures) {
+        results.add(future.get());
+      }
+      long elapsed = System.nanoTime() - start;
+
+      long commands = 0;
+      long skipped = malformed;
+      long failed = 0;
+      for (SessionResult result : results) {
+        commands += result.count;
+        skipped += result.skipped;
+        failed += result.failed;
+      }
+      long[] latencies = new long[(int) commands];
+      int offset = 0;
+      for (SessionResult result : results) {
+        System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+        offset += result.count;
+      }
+      Arrays.sort(latencies);
+      return new ReplayReport(sessions.size(), commands, skipped, failed, elapsed, latencies);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Replay interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("Replay failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Replay the commands of one session in order, timing each one.
+   */
+  private SessionResult runSession(List<ByteBuffer> regions, SessionLog session)
+          throws IOException {
+    GameController controller = sessionFactory.create(session.id,
+            new Viewer(Writer.nullWriter()));
+    controller.setSaveWriter(saves);
+    SessionResult result = new SessionResult(session.count);
+    ByteSlice command = new ByteSlice();
+    for (int i = 0; i < session.count; i++) {
+      if (controller.isGameOver()) {
+        result.skipped = session.count - i;
+        break;
+      }
+      ByteBuffer region = regions.get((int) (session.lines[i] >>> 32));
+      int start = (int) session.lines[i];
+      command.set(region, start, lineEnd(region, start));
+
+      long before = System.nanoTime();
+      try {
+        controller.processCommand(command);
+        controller.finishPendingCommand();
+      } catch (RuntimeException e) {
+        result.failed++;
+      }
+      result.latencies[result.count++] = System.nanoTime() - before;
+    }
+    return result;
+  }
+
+  /**
+   * Find the end of the line starting at an index, without the line break.
+   */
+  private static int lineEnd(ByteBuffer region, int start) {
+    int end = start;
+    int limit = region.limit();
+    while (end < limit && region.get(end) != '\n') {
+      end++;
+    }
+    if (end > start && region.get(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Lines of the log belonging to one session, as region index and offset of the command.
+   */
+  private static class SessionLog {
+    private final String id;
+    private final byte[] idBytes;
+    private long[] lines = new long[16];
+    private int count;
+
+    SessionLog(byte[] idBytes) {
+      this.idBytes = idBytes;
+      this.id = new String(idBytes, StandardCharsets.ISO_8859_1);
+    }
+
+    void add(int region, int commandStart) throws IOException {
+      if (count == lines.length) {
+        if (count == MAX_COMMANDS) {
+          throw new IOException("Session " + id + " has more than " + MAX_COMMANDS
+                  + " commands");
+        }
+        lines = Arrays.copyOf(lines, (int) Math.min(MAX_COMMANDS, 2L * count));
+      }
+      lines[count++] = ((long) region << 32) | commandStart;
+    }
+  }
+
+  /**
+   * Index from session id to its lines, looked up with the id bytes in the mapped log so
+   * indexing a line does not build a String.
+   */
+  private static class SessionIndex {
+    private final List<SessionLog> sessions = new ArrayList<>();
+    private SessionLog[] table = new SessionLog[1024];
+
+    List<SessionLog> getSessions() {
+      return sessions;
+    }
+
+    /**
+     * Index every line of a region.
+
+     * @return the number of malformed lines, without a session id and a command
+     * @throws IOException if a session has more commands than can be timed
+     */
+    long addLines(ByteBuffer region, int regionIndex) throws IOException {
+      long malformed = 0;
+      int limit = region.limit();
+      int lineStart = 0;
+      while (lineStart < limit) {
+        int end = lineEnd(region, lineStart);
+        int separator = lineStart;
+        while (separator < end && region.get(separator) != ' ' && region.get(separator) != '\t') {
+          separator++;
+        }
+        if (separator == end || separator == lineStart) {
+          if (end > lineStart) {
+            malformed++;
+          }
+        } else {
+          find(region, lineStart, separator).add(regionIndex, separator + 1);
+        }
+        lineStart = end;
+        while (lineStart < limit && region.get(lineStart) != '\n') {
+          lineStart++;
+        }
+        lineStart++;
+      }
+      return malformed;
+    }
+
+    /**
+     * Find the session of an id, adding it if it is new.
+     */
+    private SessionLog find(ByteBuffer region, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + region.get(i);
+      }
+      int mask = table.length - 1;
+      int slot = (h ^ (h >>> 16)) & mask;
+      while (table[slot] != null) {
+        if (sameId(table[slot].idBytes, region, start, end)) {
+          return table[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      byte[] idBytes = new byte[end - start];
+      region.get(start, idBytes);
+      SessionLog session = new SessionLog(idBytes);
+      table[slot] = session;
+      sessions.add(session);
+      if (sessions.size() * 2 > table.length) {
+        rehash();
+      }
+      return session;
+    }
+
+    private void rehash() {
+      table = new SessionLog[table.length * 2];
+      int mask = table.length - 1;
+      for (SessionLog session : sessions) {
+        int h = 0;
+        for (byte b : session.idBytes) {
+          h = 31 * h + b;
+        }
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (table[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = session;
+      }
+    }
+
+    private static boolean sameId(byte[] id, ByteBuffer region, int start, int end) {
+      if (id.length != end - start) {
+        return false;
+      }
+      for (int i = 0; i < id.length; i++) {
+        if (id[i] != region.get(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Counters and latencies of one replayed session.
+   */
+  private static class SessionResult {
+    private final long[] latencies;
+    private int count;
+    private long skipped;
+    private long failed;
+
+    SessionResult(int capacity) {
+      this.latencies = new long[capacity];
+    }
+  }
+
+  /**
+   * Main method to replay a command log against a world file.
+   * Every session starts a new player named after its session id.
+
+   * @param args the command log, the world file and optionally the number of threads
+   * @throws IOException if the log or the world cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: ReplayEngine <command log> <world file> [threads]");
+      return;
+    }
+    String worldFile = args[1];
+    int threads = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+
+    WorldTemplate template = WorldTemplate.load(worldFile);
+    ReplayEngine engine = new ReplayEngine((sessionId, viewer) -> new GameController(
+            new GameSnapshot(template, new Player(sessionId, 100, 20, 0)), viewer), threads);
+    System.out.println(engine.replay(Paths.get(args[0])));
+  }
+}
@@ -0,0 +1,124 @@
+package enginedriver.replay;
+
+/**
+ * Summary of a replay: how many commands were run, how fast, and the latency of
+ * individual commands.
+ */
+public class ReplayReport {
+  private final int sessions;
+  private final long commands;
+  private final long skipped;
+  private final long failed;
+  private final long elapsedNanos;
+  private final long[] sortedLatencies;
+
+  /**
+   * Constructor for a replay report.
+
+   * @param sessions the number of sessions replayed
+   * @param commands the number of commands run
+   * @param skipped the number of lines not run, malformed or after the game was over
+   * @param failed the number of commands that failed with an exception
+   * @param elapsedNanos the wall clock time of the replay in nanoseconds
+   * @param sortedLatencies the latency of every command run in nanoseconds, sorted
+   */
+  public ReplayReport(int sessions, long commands, long skipped, long failed,
+                      long elapsedNanos, long[] sortedLatencies) {
+    this.sessions = sessions;
+    this.commands = commands;
+    this.skipped = skipped;
+    this.failed = failed;
+    this.elapsedNanos = elapsedNanos;
+    this.sortedLatencies = sortedLatencies;
+  }
+
+  /**
+   * Get the number of sessions replayed.
+
+   * @return the number of sessions
+   */
+  public int getSessions() {
+    return sessions;
+  }
+
+  /**
+   * Get the number of commands run.
+
+   * @return the number of commands
+   */
+  public long getCommands() {
+    return commands;
+  }
+
+  /**
+   * Get the number of lines that were not run.
+
+   * @return the number of lines skipped
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Get the number of commands that failed with an exception.
+
+   * @return the number of failed commands
+   */
+  public long getFailed() {
+    return failed;
+  }
+
+  /**
+   * Get the wall clock time of the replay.
+
+   * @return the time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the throughput of the replay.
+
+   * @return the number of commands run per second
+   */
+  public double getCommandsPerSecond() {
+    return elapsedNanos == 0 ? 0 : commands * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  /**
+   * Get a percentile of the latency of a single command.
+
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in nanoseconds, or 0 if no command was run
+   */
+  public long getLatencyPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    if (sortedLatencies.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+    return sortedLatencies[Math.max(index, 0)];
+  }
+
+  /**
+   * Summary of the replay, one figure per line.
+
+   * @return the summary
+   */
+  @Override
+  public String toString() {
+    return String.format("sessions:          %d%n"
+                    + "commands:          %d%n"
+                    + "skipped lines:     %d%n"
+                    + "failed commands:   %d%n"
+                    + "elapsed:           %.3f s%n"
+                    + "commands/sec:      %.0f%n"
+                    + "p50 latency:       %d ns%n"
+                    + "p99 latency:       %d ns",
+            sessions, commands, skipped, failed, elapsedNanos / 1e9, getCommandsPerSecond(),
+            getLatencyPercentile(50), getLatencyPercentile(99));
+  }
+}
@@ -0,0 +1,278 @@
+package enginedriver.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+import enginedriver.GameController;
+import enginedriver.Viewer;
+import enginedriver.session.SessionFactory;
+
+/**
+ * One client of the game server, playing one game over a telnet style line protocol.
+ * The first line the client sends is the player's name, every following line is a
+ * command. The name names the player's save files, so only letters, digits, '_' and '-'
+ * are accepted, and a client sending any other name is told so and disconnected. After
+ * each response the server sends the prompt "> ". When the game is over the server says
+ * goodbye and closes the connection.
+ * A connection is only ever used by the worker thread of its selector. A command waiting
+ * for the save writer, such as a RESTORE reading its files, stops the connection from
+ * reading until the worker finishes the command.
+ */
+class ClientConnection {
+  static final String PROMPT = "> ";
+  private static final int MAX_LINE_LENGTH = 4096;
+  private static final Pattern PLAYER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+  private final SocketChannel channel;
+  private final SessionFactory sessionFactory;
+  private final GameServer server;
+  private final ConnectionOutput output = new ConnectionOutput();
+  private final LineView line = new LineView();
+  private SelectionKey key;
+  private Executor worker;
+  private GameController controller;
+  // the bytes received after a command waiting for the save writer, run once it finishes
+  private ByteBuffer unread;
+  private boolean waiting;
+  private boolean closing;
+  private boolean closed;
+
+  /**
+   * Constructor for a connection.
+
+   * @param channel the channel of the client
+   * @param sessionFactory the factory for the controller of the client's game
+   * @param server the server the client is connected to
+   */
+  ClientConnection(SocketChannel channel, SessionFactory sessionFactory, GameServer server) {
+    this.channel = channel;
+    this.sessionFactory = sessionFactory;
+    this.server = server;
+  }
+
+  /**
+   * Register the channel of the client with a selector, for reading.
+
+   * @param selector the selector of the worker thread
+   * @return the key of the channel
+   */
+  SelectionKey channelRegister(Selector selector) throws IOException {
+    return channel.register(selector, SelectionKey.OP_READ, this);
+  }
+
+  /**
+   * Greet the client once its channel is registered with a selector.
+
+   * @param key the key of the channel
+   * @param worker the executor running tasks on the worker thread of the selector
+   */
+  void start(SelectionKey key, Executor worker) throws IOException {
+    this.key = key;
+    this.worker = worker;
+    output.append("Welcome! Enter your name:\n").append(PROMPT);
+    sendPending();
+  }
+
+  /**
+   * Read what the client sent and run every complete line.
+
+   * @param readBuffer a buffer of the worker to read into, empty
+   */
+  void onReadable(ByteBuffer readBuffer) throws IOException {
+    int read = channel.read(readBuffer);
+    if (read < 0) {
+      close();
+      return;
+    }
+    readBuffer.flip();
+    runLines(readBuffer);
+    readBuffer.clear();
+    sendPending();
+  }
+
+  /**
+   * Run every complete line in the bytes received, keeping the bytes after a command
+   * that waits for the save writer until it is finished.
+   */
+  private void runLines(ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining() && !closing && !waiting) {
+      byte b = bytes.get();
+      if (b == '\n') {
+        handleLine();
+        line.clear();
+      } else if (b != '\r') {
+        if (line.length() == MAX_LINE_LENGTH) {
+          output.append("Line too long.\n");
+          closing = true;
+        } else {
+          line.add(b);
+        }
+      }
+    }
+    if (waiting && bytes.hasRemaining()) {
+      unread = ByteBuffer.allocate(bytes.remaining()).put(bytes).flip();
+    }
+  }
+
+  /**
+   * Finish the command that waited for the save writer, then run the lines received
+   * after it. Runs on the worker thread.
+   */
+  private void resume() {
+    if (closed) {
+      return;
+    }
+    try {
+      controller.finishPendingCommand();
+      waiting = false;
+      commandDone();
+      ByteBuffer bytes = unread;
+      unread = null;
+      if (bytes != null) {
+        runLines(bytes);
+      }
+      sendPending();
+    } catch (IOException | RuntimeException e) {
+      close();
+    }
+  }
+
+  /**
+   * Send the text that did not fit in the socket before.
+   */
+  void onWritable() throws IOException {
+    sendPending();
+  }
+
+  /**
+   * Close the connection.
+   */
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (key != null) {
+        key.cancel();
+      }
+      channel.close();
+    } catch (IOException e) {
+      // nothing more can be sent to the client anyway
+    }
+    server.connectionClosed();
+  }
+
+  /**
+   * Run one line: the player's name if the game has not started, a command otherwise.
+   */
+  private void handleLine() throws IOException {
+    if (controller == null) {
+      String name = line.toString().trim();
+      if (name.isEmpty()) {
+        output.append("Enter your name:\n").append(PROMPT);
+        return;
+      }
+      if (!PLAYER_NAME.matcher(name).matches()) {
+        output.append("Invalid name: use 1 to 32 letters, digits, '_' or '-'.\n");
+        closing = true;
+        return;
+      }
+      controller = sessionFactory.create(name, new Viewer(output));
+      output.append("Your name is: ").append(name).append('\n').append(PROMPT);
+      return;
+    }
+    controller.processCommand(line);
+    CompletableFuture<?> pending = controller.getPendingCommand();
+    if (pending != null) {
+      waiting = true;
+      pending.whenComplete((done, failure) -> worker.execute(this::resume));
+      return;
+    }
+    commandDone();
+  }
+
+  /**
+   * Count the command just run, and say goodbye or prompt for the next one.
+   */
+  private void commandDone() {
+    server.commandProcessed();
+    if (controller.isGameOver()) {
+      output.append("Goodbye.\n");
+      closing = true;
+    } else {
+      output.append(PROMPT);
+    }
+  }
+
+  /**
+   * Send the pending text with a gathering write, waiting for the socket to be writable
+   * if it does not take everything, and close the connection once a goodbye is sent.
+   * No more commands are read while one is waiting for the save writer.
+   */
+  private void sendPending() throws IOException {
+    if (output.writeTo(channel)) {
+      int interest = waiting ? 0 : SelectionKey.OP_READ;
+      if (closing) {
+        close();
+      } else if (key.interestOps() != interest) {
+        key.interestOps(interest);
+      }
+    } else {
+      // stop reading commands until the client has taken its responses
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+  }
+
+  /**
+   * Character view over the bytes of the line being received.
+   * Commands are ASCII, so each byte is one character; names are decoded as UTF-8.
+   */
+  private static class LineView implements CharSequence {
+    private byte[] bytes = new byte[128];
+    private int length;
+
+    void add(byte b) {
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[length++] = b;
+    }
+
+    void clear() {
+      length = 0;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length "
+                + length);
+      }
+      return (char) (bytes[index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
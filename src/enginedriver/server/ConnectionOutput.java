@@ -0,0 +1,143 @@
+package enginedriver.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Text waiting to be sent to one client, encoded as UTF-8 into a chain of direct buffers.
+ * The viewer of the client's game appends to it, and the connection sends everything
+ * pending with one gathering write. Buffers are reused once they have been sent.
+ */
+class ConnectionOutput implements Appendable {
+  private static final int CHUNK_SIZE = 4096;
+
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+  private ByteBuffer[] chunks = new ByteBuffer[2];
+  private int first;
+  private int count;
+
+  @Override
+  public Appendable append(CharSequence csq) {
+    return append(csq, 0, csq.length());
+  }
+
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) {
+    CharBuffer chars = CharBuffer.wrap(csq, start, end);
+    encoder.reset();
+    while (true) {
+      CoderResult result = encoder.encode(chars, writableChunk(), true);
+      if (result.isUnderflow()) {
+        break;
+      }
+      if (result.isOverflow()) {
+        addChunk();
+      } else {
+        // unmappable or malformed input, e.g. a lone surrogate
+        chars.position(chars.position() + result.length());
+        ByteBuffer chunk = writableChunk();
+        if (!chunk.hasRemaining()) {
+          chunk = addChunk();
+        }
+        chunk.put((byte) '?');
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) {
+    if (c < 0x80) {
+      ByteBuffer chunk = writableChunk();
+      if (!chunk.hasRemaining()) {
+        chunk = addChunk();
+      }
+      chunk.put((byte) c);
+      return this;
+    }
+    return append(String.valueOf(c));
+  }
+
+  /**
+   * Check if any text is waiting to be sent.
+
+   * @return true if there is text to send
+   */
+  boolean hasPending() {
+    return count > 0 && (count > 1 || chunks[first].position() > 0);
+  }
+
+  /**
+   * Send as much pending text as the channel takes without blocking.
+
+   * @param channel the channel of the client
+   * @return true if everything was sent, false if some text is still pending
+   * @throws IOException if writing to the channel fails
+   */
+  boolean writeTo(GatheringByteChannel channel) throws IOException {
+    if (!hasPending()) {
+      return true;
+    }
+    for (int i = first; i < first + count; i++) {
+      chunks[i].flip();
+    }
+    channel.write(chunks, first, count);
+
+    // drop the chunks that were sent completely, keep the rest for later
+    while (count > 0 && !chunks[first].hasRemaining()) {
+      chunks[first].clear();
+      first++;
+      count--;
+    }
+    if (count == 0) {
+      first = 0;
+      return true;
+    }
+    for (int i = first; i < first + count; i++) {
+      chunks[i].compact();
+    }
+    return false;
+  }
+
+  /**
+   * Get the chunk text is appended to, the last one of the chain.
+   */
+  private ByteBuffer writableChunk() {
+    if (count == 0) {
+      return addChunk();
+    }
+    return chunks[first + count - 1];
+  }
+
+  /**
+   * Add an empty chunk at the end of the chain, reusing a buffer sent before if any.
+   */
+  private ByteBuffer addChunk() {
+    if (first + count == chunks.length) {
+      if (first > 0) {
+        // move the pending chunks to the front, keeping the sent buffers behind them
+        ByteBuffer[] moved = new ByteBuffer[chunks.length];
+        System.arraycopy(chunks, first, moved, 0, count);
+        System.arraycopy(chunks, 0, moved, count, first);
+        System.arraycopy(chunks, first + count, moved, count + first,
+                chunks.length - first - count);
+        chunks = moved;
+        first = 0;
+      } else {
+        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      }
+    }
+    int index = first + count;
+    if (chunks[index] == null) {
+      chunks[index] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
+    count++;
+    return chunks[index];
+  }
+}
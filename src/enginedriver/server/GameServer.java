@@ -0,0 +1,327 @@
+package enginedriver.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import binio.PlayerStore;
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.Player;
+import enginedriver.WorldTemplate;
+import enginedriver.session.SessionFactory;
+import saveio.SaveWriter;
+
+/**
+ * Non-blocking TCP front end for the game engine, speaking a telnet style line protocol.
+ * One acceptor thread accepts connections and hands them round robin to a few worker
+ * threads. Each worker multiplexes its connections over one selector, runs the commands
+ * of a connection as complete lines arrive, and sends the responses back with gathering
+ * writes from direct buffers.
+ */
+public class GameServer implements AutoCloseable {
+  private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+  private final SessionFactory sessionFactory;
+  private final Worker[] workers;
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final AtomicLong acceptedConnections = new AtomicLong();
+  private final AtomicLong processedCommands = new AtomicLong();
+  private ServerSocketChannel serverChannel;
+  private Thread acceptor;
+  private volatile boolean running;
+
+  /**
+   * Constructor for a game server.
+
+   * @param sessionFactory the factory for the controller of each client's game
+   * @param workerThreads the number of threads multiplexing the connections
+   */
+  public GameServer(SessionFactory sessionFactory, int workerThreads) {
+    if (workerThreads < 1) {
+      throw new IllegalArgumentException("Server needs at least one worker thread");
+    }
+    this.sessionFactory = sessionFactory;
+    this.workers = new Worker[workerThreads];
+  }
+
+  /**
+   * Start accepting connections.
+
+   * @param address the address to listen on, port 0 for any free port
+   * @return the port the server listens on
+   * @throws IOException if the server cannot listen on the address
+   */
+  public int start(InetSocketAddress address) throws IOException {
+    if (running) {
+      throw new IllegalStateException("Server is already running");
+    }
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address, 1024);
+    running = true;
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = new Worker(Selector.open());
+      Thread thread = new Thread(workers[i], "game-server-worker-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+    acceptor = new Thread(this::acceptConnections, "game-server-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return getPort();
+  }
+
+  /**
+   * Get the port the server listens on.
+
+   * @return the port
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Get the number of clients connected now.
+
+   * @return the number of open connections
+   */
+  public int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  /**
+   * Get the number of connections accepted since the server started.
+
+   * @return the number of accepted connections
+   */
+  public long getAcceptedConnections() {
+    return acceptedConnections.get();
+  }
+
+  /**
+   * Get the number of commands run for all clients.
+
+   * @return the number of commands
+   */
+  public long getProcessedCommands() {
+    return processedCommands.get();
+  }
+
+  /**
+   * Stop accepting connections and close every connection.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      if (serverChannel != null) {
+        serverChannel.close();
+      }
+    } catch (IOException e) {
+      // the server is going away anyway
+    }
+    for (Worker worker : workers) {
+      if (worker != null) {
+        worker.selector.wakeup();
+      }
+    }
+  }
+
+  /**
+   * Count a connection that was closed.
+   */
+  void connectionClosed() {
+    openConnections.decrementAndGet();
+  }
+
+  /**
+   * Count a command that was run.
+   */
+  void commandProcessed() {
+    processedCommands.incrementAndGet();
+  }
+
+  /**
+   * Accept connections until the server is closed, handing them to the workers.
+   */
+  private void acceptConnections() {
+    int next = 0;
+    while (running) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        openConnections.incrementAndGet();
+        acceptedConnections.incrementAndGet();
+        workers[next].add(new ClientConnection(channel, sessionFactory, this));
+        next = (next + 1) % workers.length;
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        if (!running) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Thread multiplexing a share of the connections over one selector.
+   */
+  private class Worker implements Runnable, Executor {
+    private final Selector selector;
+    private final Queue<ClientConnection> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    Worker(Selector selector) {
+      this.selector = selector;
+    }
+
+    /**
+     * Hand a new connection to this worker.
+     */
+    void add(ClientConnection connection) {
+      added.add(connection);
+      selector.wakeup();
+    }
+
+    /**
+     * Run a task on this worker, such as finishing a command that waited for the save
+     * writer.
+     */
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          registerAdded();
+          runTasks();
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            handle(key);
+          }
+        }
+      } catch (IOException e) {
+        // the selector failed, drop the connections of this worker below
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          ((ClientConnection) key.attachment()).close();
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          // nothing left to release
+        }
+      }
+    }
+
+    /**
+     * Register the connections handed over since the last select.
+     */
+    private void registerAdded() {
+      ClientConnection connection;
+      while ((connection = added.poll()) != null) {
+        try {
+          SelectionKey key = connection.channelRegister(selector);
+          connection.start(key, this);
+        } catch (IOException | RuntimeException e) {
+          connection.close();
+        }
+      }
+    }
+
+    /**
+     * Run the tasks handed over since the last select.
+     */
+    private void runTasks() {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        task.run();
+      }
+    }
+
+    /**
+     * Read from or write to one ready connection.
+     */
+    private void handle(SelectionKey key) {
+      ClientConnection connection = (ClientConnection) key.attachment();
+      try {
+        if (key.isValid() && key.isWritable()) {
+          connection.onWritable();
+        }
+        if (key.isValid() && key.isReadable()) {
+          connection.onReadable(readBuffer);
+        }
+      } catch (IOException | RuntimeException e) {
+        readBuffer.clear();
+        connection.close();
+      }
+    }
+  }
+
+  /**
+   * Main method to serve a world file.
+   * Every client plays a new player named after the name it sends first.
+
+   * @param args the world file, optionally the port and the number of worker threads
+   * @throws IOException if the server cannot listen on the port
+   * @throws InterruptedException if interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: GameServer <world file> [port] [worker threads]");
+      return;
+    }
+    String worldFile = args[0];
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+    int threads = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+
+    WorldTemplate template = WorldTemplate.load(worldFile);
+    // saves must not stall the selector threads
+    SaveWriter saveWriter = new SaveWriter();
+    PlayerStore playerStore = PlayerStore.open("players.store");
+    GameServer server = new GameServer((name, viewer) -> {
+      GameController controller = new GameController(
+              new GameSnapshot(template, new Player(name, 100, 20, 0)), viewer);
+      controller.setSaveWriter(saveWriter);
+      controller.setPlayerStore(playerStore);
+      return controller;
+    }, threads);
+    // finish the saves and get the store to the disk when the server is stopped
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.close();
+      saveWriter.close();
+      try {
+        playerStore.close();
+      } catch (IOException e) {
+        System.err.println("Failed to close " + playerStore.getFileName() + ": "
+                + e.getMessage());
+      }
+    }));
+    System.out.println("Serving " + worldFile + " on port "
+            + server.start(new InetSocketAddress(port)));
+    Thread.currentThread().join();
+  }
+}
@@ -0,0 +1,179 @@
+package enginedriver.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for the game server. Every simulated client connects, sends its name,
+ * then sends its commands one at a time, waiting for the prompt after each, and quits.
+ * Clients run on virtual threads, so thousands of them can be simulated at once.
+ */
+public class LoadClient {
+  private static final byte[] PROMPT = ClientConnection.PROMPT.getBytes(StandardCharsets.US_ASCII);
+
+  private final InetSocketAddress address;
+  private final List<String> commands;
+
+  /**
+   * Constructor for a load client.
+
+   * @param address the address of the server
+   * @param commands the commands every client sends, before quitting
+   */
+  public LoadClient(InetSocketAddress address, List<String> commands) {
+    this.address = address;
+    this.commands = List.copyOf(commands);
+  }
+
+  /**
+   * Run the clients until all of them have quit.
+
+   * @param clients the number of clients
+   * @param rounds how many times every client sends its commands
+   * @return the round trip latencies of all commands in nanoseconds, sorted
+   * @throws IOException if a client fails
+   * @throws InterruptedException if interrupted while waiting for the clients
+   */
+  public long[] run(int clients, int rounds) throws IOException, InterruptedException {
+    List<Future<long[]>> results = new ArrayList<>(clients);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < clients; i++) {
+        String name = "Client" + i;
+        results.add(executor.submit(() -> play(name, rounds)));
+      }
+    }
+    long[] latencies = new long[clients * rounds * commands.size()];
+    int count = 0;
+    for (Future<long[]> result : results) {
+      long[] clientLatencies;
+      try {
+        clientLatencies = result.get();
+      } catch (ExecutionException e) {
+        throw new IOException("Client failed", e.getCause());
+      }
+      System.arraycopy(clientLatencies, 0, latencies, count, clientLatencies.length);
+      count += clientLatencies.length;
+    }
+    // clients whose game ended early leave the tail unfilled
+    latencies = Arrays.copyOf(latencies, count);
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  /**
+   * Play the game as one client.
+   */
+  private long[] play(String name, int rounds) throws IOException {
+    long[] latencies = new long[rounds * commands.size()];
+    ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    try (SocketChannel channel = SocketChannel.open(address)) {
+      channel.socket().setTcpNoDelay(true);
+      readUntilPrompt(channel, in);
+      send(channel, name);
+      readUntilPrompt(channel, in);
+      int count = 0;
+      for (int round = 0; round < rounds; round++) {
+        for (String command : commands) {
+          long start = System.nanoTime();
+          send(channel, command);
+          if (!readUntilPrompt(channel, in)) {
+            // the game ended early, e.g. the player died
+            return Arrays.copyOf(latencies, count);
+          }
+          latencies[count++] = System.nanoTime() - start;
+        }
+      }
+      send(channel, "Q");
+      while (channel.read(in) >= 0) {
+        in.clear();
+      }
+      return latencies;
+    }
+  }
+
+  /**
+   * Send one line.
+   */
+  private static void send(SocketChannel channel, String line) throws IOException {
+    ByteBuffer out = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+  }
+
+  /**
+   * Read until the received text ends with the prompt.
+
+   * @return false if the server closed the connection first
+   */
+  private static boolean readUntilPrompt(SocketChannel channel, ByteBuffer in)
+          throws IOException {
+    in.clear();
+    while (true) {
+      if (!in.hasRemaining()) {
+        // keep only the tail, which is all the prompt check needs
+        in.position(in.position() - PROMPT.length);
+        in.compact();
+      }
+      if (channel.read(in) < 0) {
+        return false;
+      }
+      if (endsWithPrompt(in)) {
+        return true;
+      }
+    }
+  }
+
+  private static boolean endsWithPrompt(ByteBuffer in) {
+    int end = in.position();
+    if (end < PROMPT.length) {
+      return false;
+    }
+    for (int i = 0; i < PROMPT.length; i++) {
+      if (in.get(end - PROMPT.length + i) != PROMPT[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Main method to put a running server under load.
+
+   * @param args host, port, number of clients, rounds, then the commands to send
+   * @throws Exception if the clients fail
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 5) {
+      System.err.println("Usage: LoadClient <host> <port> <clients> <rounds> <command>...");
+      return;
+    }
+    InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+    int clients = Integer.parseInt(args[2]);
+    int rounds = Integer.parseInt(args[3]);
+    LoadClient client = new LoadClient(address,
+            Arrays.asList(args).subList(4, args.length));
+
+    long start = System.nanoTime();
+    long[] latencies = client.run(clients, rounds);
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%d commands from %d clients in %.1f ms, %.0f commands/sec%n",
+            latencies.length, clients, elapsed / 1e6, latencies.length * 1e9 / elapsed);
+    if (latencies.length > 0) {
+      System.out.printf("latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+              latencies[latencies.length / 2] / 1e3,
+              latencies[(int) (latencies.length * 0.99)] / 1e3,
+              latencies[latencies.length - 1] / 1e3);
+    }
+  }
+}
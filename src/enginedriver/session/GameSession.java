@@ -0,0 +1,101 @@
+package enginedriver.session;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import enginedriver.GameController;
+
+/**
+ * One game played by one player: a game controller with its own input and output.
+ * The session reads commands line by line from its input and runs them until the input
+ * ends or the game is over. The text of the commands goes to the viewer of the
+ * controller, which writes to the output of the session. A command that fails stops the
+ * session, and the error is kept for its manager, without affecting the other sessions.
+ */
+public class GameSession implements Runnable {
+  private final String id;
+  private final GameController controller;
+  private final BufferedReader input;
+  private volatile long commandCount;
+  private volatile boolean finished;
+  private volatile Exception failure;
+
+  /**
+   * Constructor for a session.
+
+   * @param id the id of the session
+   * @param controller the controller running the commands of the session
+   * @param input the source of the commands, one per line
+   */
+  public GameSession(String id, GameController controller, BufferedReader input) {
+    this.id = id;
+    this.controller = controller;
+    this.input = input;
+  }
+
+  /**
+   * Run the commands of the session until the input ends or the game is over.
+   */
+  @Override
+  public void run() {
+    try {
+      String command;
+      while (!controller.isGameOver() && (command = input.readLine()) != null) {
+        controller.processCommand(command);
+        // a session has its own thread, which can wait for a restore to read its files
+        controller.finishPendingCommand();
+        commandCount++;
+      }
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+    } finally {
+      finished = true;
+    }
+  }
+
+  /**
+   * Get the id of the session.
+
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Get the controller of the session.
+
+   * @return the controller
+   */
+  public GameController getController() {
+    return controller;
+  }
+
+  /**
+   * Get the number of commands run so far.
+
+   * @return the number of commands
+   */
+  public long getCommandCount() {
+    return commandCount;
+  }
+
+  /**
+   * Check if the session has stopped running commands.
+
+   * @return true if the input ended, the game is over or the session failed
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Get the error that stopped the session, if reading its input or running a command
+   * failed.
+
+   * @return the error, or null if the session did not fail
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+}
@@ -0,0 +1,23 @@
+package enginedriver.session;
+
+import java.io.IOException;
+
+import enginedriver.GameController;
+import enginedriver.Viewer;
+
+/**
+ * Interface for creating the game controller of a session.
+ */
+@FunctionalInterface
+public interface SessionFactory {
+
+  /**
+   * Create the game controller of a session.
+
+   * @param sessionId the id of the session
+   * @param viewer the viewer the controller must show its text on
+   * @return the controller running the commands of the session
+   * @throws IOException if the game data cannot be loaded
+   */
+  GameController create(String sessionId, Viewer viewer) throws IOException;
+}
@@ -0,0 +1,169 @@
+package enginedriver.session;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import enginedriver.GameController;
+import enginedriver.Viewer;
+
+/**
+ * Hosts many independent game sessions in one JVM.
+ * Every session runs on its own virtual thread, so a session waiting for its player's
+ * next command only parks a virtual thread and thousands of sessions can be open at
+ * the same time.
+ */
+public class SessionManager implements AutoCloseable {
+  private final SessionFactory sessionFactory;
+  private final ExecutorService executor;
+  private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong finishedCommands = new AtomicLong();
+  private final AtomicLong finishedSessions = new AtomicLong();
+  private final AtomicLong failedSessions = new AtomicLong();
+  // notified every time a session finishes
+  private final Object finished = new Object();
+
+  /**
+   * Constructor for a session manager.
+
+   * @param sessionFactory the factory for the controller of each session
+   */
+  public SessionManager(SessionFactory sessionFactory) {
+    this.sessionFactory = sessionFactory;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Open a session and start running its commands.
+
+   * @param sessionId the id of the session, unique among the open sessions
+   * @param input the source of the commands, one per line
+   * @param output the destination of the text shown by the commands
+   * @return the session
+   * @throws IOException if the game data of the session cannot be loaded
+   */
+  public GameSession open(String sessionId, BufferedReader input, Appendable output)
+          throws IOException {
+    if (executor.isShutdown()) {
+      throw new IllegalStateException("Session manager is closed");
+    }
+    GameController controller = sessionFactory.create(sessionId, new Viewer(output));
+    GameSession session = new GameSession(sessionId, controller, input);
+    if (sessions.putIfAbsent(sessionId, session) != null) {
+      throw new IllegalArgumentException("Session " + sessionId + " is already open");
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          session.run();
+        } finally {
+          // counted before the session is gone, for whoever waits for the sessions
+          finishedCommands.addAndGet(session.getCommandCount());
+          finishedSessions.incrementAndGet();
+          if (session.getFailure() != null) {
+            failedSessions.incrementAndGet();
+          }
+          sessions.remove(sessionId);
+          synchronized (finished) {
+            finished.notifyAll();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      sessions.remove(sessionId);
+      throw new IllegalStateException("Session manager is closed", e);
+    }
+    return session;
+  }
+
+  /**
+   * Get an open session.
+
+   * @param sessionId the id of the session
+   * @return the session, or null if no session with that id is open
+   */
+  public GameSession getSession(String sessionId) {
+    return sessions.get(sessionId);
+  }
+
+  /**
+   * Get the number of sessions still running.
+
+   * @return the number of open sessions
+   */
+  public int getOpenSessions() {
+    return sessions.size();
+  }
+
+  /**
+   * Get the number of sessions that have finished.
+
+   * @return the number of finished sessions
+   */
+  public long getFinishedSessions() {
+    return finishedSessions.get();
+  }
+
+  /**
+   * Get the number of sessions stopped by an error, see GameSession.getFailure.
+
+   * @return the number of failed sessions
+   */
+  public long getFailedSessions() {
+    return failedSessions.get();
+  }
+
+  /**
+   * Get the number of commands run by all sessions, finished or not.
+
+   * @return the number of commands
+   */
+  public long getCommandCount() {
+    long count = finishedCommands.get();
+    for (GameSession session : sessions.values()) {
+      count += session.getCommandCount();
+    }
+    return count;
+  }
+
+  /**
+   * Wait for every open session to finish.
+
+   * @param timeout the longest time to wait
+   * @param unit the unit of the timeout
+   * @return true if all sessions finished, false if the timeout passed first
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitSessions(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (finished) {
+      while (!sessions.isEmpty()) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(finished, remaining);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stop accepting sessions and interrupt the sessions still running.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package jsonio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jsonio.deserializer.GameWorldDeserializer;
+import jsonio.deserializer.PlayerDeserializer;
+import jsonio.serializer.GameWorldSerializer;
+import jsonio.serializer.PlayerSerializer;
+
+/**
+ * Registry of the JSON codecs of the game data, shared by every session.
+ * The ObjectMapper and its module are configured once, and an ObjectReader and an
+ * ObjectWriter are built once per type and reused, so loading and saving no longer pays
+ * for bootstrapping Jackson and warming its caches on every call. Readers and writers are
+ * immutable and thread-safe.
+ */
+public class CodecRegistry {
+  private static final ObjectMapper MAPPER = createMapper();
+  private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+  private CodecRegistry() {
+  }
+
+  /**
+   * Get the reader for a type of game data.
+
+   * @param type the type to read
+   * @return the reader, built on first use
+   */
+  public static ObjectReader reader(Class<?> type) {
+    return READERS.computeIfAbsent(type, MAPPER::readerFor);
+  }
+
+  /**
+   * Get the writer for a type of game data.
+
+   * @param type the type to write
+   * @return the writer, built on first use
+   */
+  public static ObjectWriter writer(Class<?> type) {
+    return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+  }
+
+  /**
+   * Get a reader for players whose items are looked up in a game world.
+   * The game world is passed to the deserializer as a context attribute, so the
+   * shared reader is reused instead of registering a new module per player.
+
+   * @param gameWorld the game world holding the items of the players
+   * @return the reader
+   */
+  public static ObjectReader playerReader(GameWorld gameWorld) {
+    return reader(Player.class).withAttribute(PlayerDeserializer.GAME_WORLD_ATTRIBUTE,
+            gameWorld);
+  }
+
+  /**
+   * Create the mapper with the codecs of the game data.
+   */
+  private static ObjectMapper createMapper() {
+    SimpleModule module = new SimpleModule();
+    module.addDeserializer(GameWorld.class, new GameWorldDeserializer());
+    module.addDeserializer(Player.class, new PlayerDeserializer());
+    module.addSerializer(GameWorld.class, new GameWorldSerializer());
+    module.addSerializer(Player.class, new PlayerSerializer());
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(module);
+    return mapper;
+  }
+}
@@ -1,18 +1,20 @@
 package jsonio;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import enginedriver.GameWorld;
 import enginedriver.Player;
-import jsonio.deserializer.GameWorldDeserializer;
-import jsonio.deserializer.PlayerDeserializer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import jsonio.deserializer.LazyWorldSource;
+import jsonio.deserializer.ParallelWorldLoader;
 
 /**
  * The GameDataLoader class is responsible for loading and saving game data.
- * It uses Jackson to read and write JSON files representing the game world.
+ * It uses Jackson to read and write JSON files representing the game world, through the
+ * readers shared in CodecRegistry.
  */
 public class GameDataLoader {
   private static final String WORLD_SAVE_BASE_PATH = "resources/worlds/";
@@ -34,13 +36,40 @@ public class GameDataLoader {
 
     }
 
-    ObjectMapper mapper = new ObjectMapper();
-    SimpleModule module = new SimpleModule();
+    return CodecRegistry.reader(GameWorld.class).readValue(new File(newFileName));
+  }
+
+  /**
+   * Load the game world from a JSON file, reading its sections at the same time on the
+   * common fork-join pool. This pays off for large worlds on machines with several cores;
+   * with a single worker the world is read sequentially, without the extra pass.
+
+   * @param fileName the name of the file to load
+   * @return the GameWorld object
+   * @throws IOException if an error occurs during loading
+   */
+  public static GameWorld loadGameWorldInParallel(String fileName) throws IOException {
+    byte[] json = Files.readAllBytes(worldPath(fileName));
+    GameWorld gameWorld = null;
+    if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+      gameWorld = ParallelWorldLoader.load(json, ForkJoinPool.commonPool());
+    }
+    if (gameWorld == null) {
+      gameWorld = CodecRegistry.reader(GameWorld.class).readValue(json);
+    }
+    return gameWorld;
+  }
 
-    module.addDeserializer(GameWorld.class, new GameWorldDeserializer());
-    mapper.registerModule(module);
+  /**
+   * Load the game world from a JSON file, reading each room only when the game first
+   * needs it. Only the room numbers and entity names are read now.
 
-    return mapper.readValue(new File(newFileName), GameWorld.class);
+   * @param fileName the name of the file to load
+   * @return the GameWorld object
+   * @throws IOException if an error occurs during loading
+   */
+  public static GameWorld loadGameWorldLazily(String fileName) throws IOException {
+    return LazyWorldSource.load(Files.readAllBytes(worldPath(fileName)));
   }
 
   /**
@@ -54,12 +83,14 @@ public class GameDataLoader {
   public static Player loadPlayer(String fileName, GameWorld gameWorld) throws IOException {
     String newFileName = PLAYER_SAVE_BASE_PATH + fileName;
 
-    ObjectMapper mapper = new ObjectMapper();
-    SimpleModule module = new SimpleModule();
-
-    module.addDeserializer(Player.class, new PlayerDeserializer(gameWorld));
-    mapper.registerModule(module);
+    return CodecRegistry.playerReader(gameWorld).readValue(new File(newFileName));
+  }
 
-    return mapper.readValue(new File(newFileName), Player.class);
+  /**
+   * Find a world file in the worlds folder, or else at the given path.
+   */
+  private static Path worldPath(String fileName) {
+    Path path = Path.of(WORLD_SAVE_BASE_PATH + fileName);
+    return Files.exists(path) ? path : Path.of(fileName);
   }
 }
\ No newline at end of file
@@ -1,16 +1,15 @@
 package jsonio;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import enginedriver.GameWorld;
 import enginedriver.Player;
-import java.io.File;
 import java.io.IOException;
-import jsonio.serializer.GameWorldSerializer;
-import jsonio.serializer.PlayerSerializer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import saveio.AtomicFiles;
 
 /**
  * The GameDataSaver class is responsible for saving game data to two JSON files.
+ * It uses the writers shared in CodecRegistry, and replaces the files atomically.
  */
 public class GameDataSaver {
   private static final String WORLD_SAVE_BASE_PATH = "resources/worlds/";
@@ -24,14 +23,8 @@ public class GameDataSaver {
    */
   public static void saveGameJson(String fileName, GameWorld gameWorld) throws IOException {
     String newFileName = WORLD_SAVE_BASE_PATH + fileName;
-    ObjectMapper mapper = new ObjectMapper();
-
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(GameWorld.class, new GameWorldSerializer());
-    mapper.registerModule(module);
-
-    File saveFile = new File(newFileName);
-    mapper.writeValue(saveFile, gameWorld);
+    byte[] json = CodecRegistry.writer(GameWorld.class).writeValueAsBytes(gameWorld);
+    AtomicFiles.write(Path.of(newFileName), ByteBuffer.wrap(json));
   }
 
   /**
@@ -43,13 +36,7 @@ public class GameDataSaver {
    */
   public static void savePlayerJson(String fileName, Player player) throws IOException {
     String newFileName = PLAYER_SAVE_BASE_PATH + fileName;
-    ObjectMapper mapper = new ObjectMapper();
-
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Player.class, new PlayerSerializer());
-    mapper.registerModule(module);
-
-    File saveFile = new File(newFileName);
-    mapper.writeValue(saveFile, player);
+    byte[] json = CodecRegistry.writer(Player.class).writeValueAsBytes(player);
+    AtomicFiles.write(Path.of(newFileName), ByteBuffer.wrap(json));
   }
 }
@@ -1,6 +1,8 @@
 package jsonio.deserializer;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
 
 /**
  * HelperUtils class provides utility methods for JSON reading and writing.
@@ -9,27 +11,82 @@ import com.fasterxml.jackson.databind.JsonNode;
 class DeserializerHelperUtils {
 
   /**
-   * Helper method to get a text value from a JsonNode.
+   * Helper method to read the current value of a JsonParser as text.
 
-   * @param node the JsonNode
-   * @param fieldName the field name
-   * @return the text value, or an empty string if not found
+   * @param parser the JsonParser, positioned on a value
+   * @return the text value, or an empty string if the value is null or not a scalar
+   * @throws IOException if the value cannot be read
    */
-  static String getNodeText(JsonNode node, String fieldName) {
-    JsonNode fieldNode = node.get(fieldName);
-    return fieldNode != null ? fieldNode.asText() : "";
+  static String readText(JsonParser parser) throws IOException {
+    if (parser.currentToken().isStructStart()) {
+      parser.skipChildren();
+      return "";
+    }
+    return parser.getValueAsString("");
   }
 
   /**
-   * Helper method to get an integer value from a JsonNode.
+   * Helper method to read the current value of a JsonParser as text, keeping null.
 
-   * @param node the JsonNode
-   * @param fieldName the field name
-   * @return the integer value, or 0 if not found
+   * @param parser the JsonParser, positioned on a value
+   * @return the text value, or null if the value is null or not a scalar
+   * @throws IOException if the value cannot be read
    */
-  static int getNodeInt(JsonNode node, String fieldName) {
-    JsonNode fieldNode = node.get(fieldName);
-    return fieldNode != null ? fieldNode.asInt() : 0;
+  static String readNullableText(JsonParser parser) throws IOException {
+    if (parser.currentToken().isStructStart()) {
+      parser.skipChildren();
+      return null;
+    }
+    return parser.getValueAsString(null);
+  }
+
+  /**
+   * Helper method to read the current value of a JsonParser as an integer.
+   * Numbers written as strings, e.g. "12", are read as numbers.
+
+   * @param parser the JsonParser, positioned on a value
+   * @return the integer value, or 0 if the value is not a number
+   * @throws IOException if the value cannot be read
+   */
+  static int readInt(JsonParser parser) throws IOException {
+    if (parser.currentToken().isStructStart()) {
+      parser.skipChildren();
+      return 0;
+    }
+    return parser.getValueAsInt(0);
+  }
+
+  /**
+   * Helper method to read the current value of a JsonParser as a boolean.
+   * Booleans written as strings, e.g. "true", are read as booleans.
+
+   * @param parser the JsonParser, positioned on a value
+   * @return the boolean value, or false if the value is not a boolean
+   * @throws IOException if the value cannot be read
+   */
+  static boolean readBoolean(JsonParser parser) throws IOException {
+    if (parser.currentToken().isStructStart()) {
+      parser.skipChildren();
+      return false;
+    }
+    return parser.getValueAsBoolean(false);
+  }
+
+  /**
+   * Helper method to move a JsonParser to the next field of the current object,
+   * positioned on the value of the field.
+
+   * @param parser the JsonParser, inside an object
+   * @return the name of the field, or null at the end of the object
+   * @throws IOException if the field cannot be read
+   */
+  static String nextField(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.FIELD_NAME) {
+      return null;
+    }
+    String fieldName = parser.currentName();
+    parser.nextToken();
+    return fieldName;
   }
 
 }
@@ -0,0 +1,232 @@
+package jsonio.deserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import enginedriver.Fixture;
+import enginedriver.Item;
+import java.io.IOException;
+
+/**
+ * Reads the entities of a game world JSON file one object at a time, straight from the
+ * tokens of a JsonParser. Items and fixtures need nothing else and are built at once;
+ * problems and rooms refer to other entities by name and are read into entries that
+ * WorldAssembler resolves.
+ * It's package private and not intended for public use.
+ */
+class EntityReader {
+
+  /**
+   * Read an item object.
+
+   * @param parser the JsonParser, positioned on the start of the object
+   * @return the item
+   * @throws IOException if the object cannot be read
+   */
+  static Item readItem(JsonParser parser) throws IOException {
+    String name = "";
+    String description = "";
+    String whenUsed = "";
+    String pictureName = "";
+    int weight = 0;
+    int maxUses = 0;
+    int remainingUses = 0;
+    int value = 0;
+    String field;
+    while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+      switch (field) {
+        case "name":
+          name = DeserializerHelperUtils.readText(parser);
+          break;
+        case "weight":
+          weight = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "max_uses":
+          maxUses = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "uses_remaining":
+          remainingUses = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "value":
+          value = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "when_used":
+          whenUsed = DeserializerHelperUtils.readText(parser);
+          break;
+        case "description":
+          description = DeserializerHelperUtils.readText(parser);
+          break;
+        case "picture":
+          pictureName = DeserializerHelperUtils.readText(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Item(name, description, maxUses, remainingUses, value, weight, whenUsed,
+            pictureName);
+  }
+
+  /**
+   * Read a fixture object.
+
+   * @param parser the JsonParser, positioned on the start of the object
+   * @return the fixture
+   * @throws IOException if the object cannot be read
+   */
+  static Fixture readFixture(JsonParser parser) throws IOException {
+    String name = "";
+    String description = "";
+    String pictureName = "";
+    int weight = 0;
+    int states = -1;
+    String field;
+    while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+      switch (field) {
+        case "name":
+          name = DeserializerHelperUtils.readText(parser);
+          break;
+        case "weight":
+          weight = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "states":
+          states = readStates(parser);
+          break;
+        case "description":
+          description = DeserializerHelperUtils.readText(parser);
+          break;
+        case "picture":
+          pictureName = DeserializerHelperUtils.readText(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Fixture(name, description, weight, null, states, pictureName);
+  }
+
+  /**
+   * Read a monster or puzzle object.
+
+   * @param parser the JsonParser, positioned on the start of the object
+   * @param monster true for a monster, false for a puzzle
+   * @return the entry of the problem, to be built once the items are known
+   * @throws IOException if the object cannot be read
+   */
+  static WorldAssembler.ProblemEntry readProblem(JsonParser parser, boolean monster)
+          throws IOException {
+    WorldAssembler.ProblemEntry entry = new WorldAssembler.ProblemEntry(monster);
+    String field;
+    while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+      switch (field) {
+        case "name":
+          entry.name = DeserializerHelperUtils.readText(parser);
+          break;
+        case "active":
+          entry.active = DeserializerHelperUtils.readBoolean(parser);
+          break;
+        case "affects_target":
+          entry.affectsTarget = DeserializerHelperUtils.readBoolean(parser);
+          break;
+        case "affects_player":
+          entry.affectsPlayer = DeserializerHelperUtils.readBoolean(parser);
+          break;
+        case "can_attack":
+          entry.canAttack = DeserializerHelperUtils.readBoolean(parser);
+          break;
+        case "solution":
+          entry.solution = DeserializerHelperUtils.readText(parser);
+          break;
+        case "value":
+          entry.value = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "damage":
+          entry.damage = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "description":
+          entry.description = DeserializerHelperUtils.readText(parser);
+          break;
+        case "effects":
+          entry.effects = DeserializerHelperUtils.readText(parser);
+          break;
+        case "target":
+          entry.target = DeserializerHelperUtils.readText(parser);
+          break;
+        case "attack":
+          entry.attack = DeserializerHelperUtils.readText(parser);
+          break;
+        case "picture":
+          entry.pictureName = DeserializerHelperUtils.readText(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Read a room object.
+
+   * @param parser the JsonParser, positioned on the start of the object
+   * @return the entry of the room, to be built once its entities are known
+   * @throws IOException if the object cannot be read
+   */
+  static WorldAssembler.RoomEntry readRoom(JsonParser parser) throws IOException {
+    WorldAssembler.RoomEntry entry = new WorldAssembler.RoomEntry();
+    String field;
+    while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+      switch (field) {
+        case "room_name":
+          entry.name = DeserializerHelperUtils.readText(parser);
+          break;
+        case "room_number":
+          entry.id = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "description":
+          entry.description = DeserializerHelperUtils.readText(parser);
+          break;
+        case "N":
+          entry.north = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "S":
+          entry.south = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "E":
+          entry.east = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "W":
+          entry.west = DeserializerHelperUtils.readInt(parser);
+          break;
+        case "puzzle":
+          entry.puzzle = DeserializerHelperUtils.readNullableText(parser);
+          break;
+        case "monster":
+          entry.monster = DeserializerHelperUtils.readNullableText(parser);
+          break;
+        case "items":
+          entry.items = DeserializerHelperUtils.readText(parser);
+          break;
+        case "fixtures":
+          entry.fixtures = DeserializerHelperUtils.readText(parser);
+          break;
+        case "picture":
+          entry.pictureName = DeserializerHelperUtils.readText(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Read the number of states of a fixture. Only a plain number counts as states.
+   */
+  private static int readStates(JsonParser parser) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getIntValue();
+    }
+    parser.skipChildren();
+    return -1;
+  }
+}
@@ -0,0 +1,235 @@
+package jsonio.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import enginedriver.GameWorld;
+import enginedriver.Room;
+import enginedriver.RoomSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source of the rooms of a game world JSON file, reading each room only when the game
+ * world first needs it.
+ * Loading the world only scans the file, noting where the object of each room, item,
+ * fixture, monster and puzzle starts, by room number or name. A room is read from its
+ * offset the first time it is asked for, together with the entities it refers to that
+ * were not read before; entities are read once and shared, as with a full load, so the
+ * rooms read on demand are the rooms a full load would build.
+ * The bytes of the file are kept for the life of the game world. A source serves a
+ * single game world and is not thread-safe.
+ */
+public class LazyWorldSource implements RoomSource {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final byte[] json;
+  private final Map<Integer, Integer> roomOffsets = new HashMap<>();
+  private final Set<Integer> roomIds = Collections.unmodifiableSet(roomOffsets.keySet());
+  // offsets of the entities not read yet, removed as they are read
+  private final Map<String, Integer> itemOffsets = new HashMap<>();
+  private final Map<String, Integer> fixtureOffsets = new HashMap<>();
+  private final Map<String, Integer> monsterOffsets = new HashMap<>();
+  private final Map<String, Integer> puzzleOffsets = new HashMap<>();
+  private final WorldAssembler assembler = new WorldAssembler();
+  private String name = "";
+  private String version = "";
+
+  private LazyWorldSource(byte[] json) {
+    this.json = json;
+    // entities are added one by one as rooms need them, so build them at once
+    assembler.itemsDone();
+    assembler.fixturesDone();
+    assembler.monstersDone();
+    assembler.puzzlesDone();
+  }
+
+  /**
+   * Load a game world whose rooms are read from a JSON document when first needed.
+
+   * @param json the bytes of the document, not to be changed afterward
+   * @return the game world
+   * @throws IOException if the document cannot be scanned
+   */
+  public static GameWorld load(byte[] json) throws IOException {
+    LazyWorldSource source = new LazyWorldSource(json);
+    source.scan();
+    return new GameWorld(source, source.name, source.version);
+  }
+
+  @Override
+  public Set<Integer> getRoomIds() {
+    return roomIds;
+  }
+
+  @Override
+  public Room<?> loadRoom(int id) {
+    Integer offset = roomOffsets.get(id);
+    if (offset == null) {
+      return null;
+    }
+    try (JsonParser parser = parserAt(offset)) {
+      WorldAssembler.RoomEntry entry = EntityReader.readRoom(parser);
+      for (String itemName : WorldAssembler.names(entry.items)) {
+        readItem(itemName);
+      }
+      for (String fixtureName : WorldAssembler.names(entry.fixtures)) {
+        readFixture(fixtureName);
+      }
+      if (entry.puzzle != null) {
+        readProblem(entry.puzzle, puzzleOffsets, false);
+      } else if (entry.monster != null) {
+        readProblem(entry.monster, monsterOffsets, true);
+      }
+      return assembler.newRoom(entry);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read room " + id, e);
+    }
+  }
+
+  /**
+   * Scan the document once, noting the offsets of its objects.
+   */
+  private void scan() throws IOException {
+    try (JsonParser parser = FACTORY.createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("A game world must be a JSON object");
+      }
+      String field;
+      while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+        switch (field) {
+          case "name":
+            name = DeserializerHelperUtils.readText(parser);
+            break;
+          case "version":
+            version = DeserializerHelperUtils.readText(parser);
+            break;
+          case "items":
+            scanNamed(parser, itemOffsets);
+            break;
+          case "fixtures":
+            scanNamed(parser, fixtureOffsets);
+            break;
+          case "monsters":
+            scanNamed(parser, monsterOffsets);
+            break;
+          case "puzzles":
+            scanNamed(parser, puzzleOffsets);
+            break;
+          case "rooms":
+            scanRooms(parser);
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /**
+   * Note the offsets of the objects of an array of entities by name.
+   */
+  private void scanNamed(JsonParser parser, Map<String, Integer> offsets) throws IOException {
+    int offset;
+    while ((offset = nextObject(parser)) >= 0) {
+      String entityName = "";
+      String field;
+      while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+        if (field.equals("name")) {
+          entityName = DeserializerHelperUtils.readText(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      offsets.put(entityName, offset);
+    }
+  }
+
+  /**
+   * Note the offsets of the objects of the array of rooms by room number.
+   */
+  private void scanRooms(JsonParser parser) throws IOException {
+    int offset;
+    while ((offset = nextObject(parser)) >= 0) {
+      int id = 0;
+      String field;
+      while ((field = DeserializerHelperUtils.nextField(parser)) != null) {
+        if (field.equals("room_number")) {
+          id = DeserializerHelperUtils.readInt(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      roomOffsets.put(id, offset);
+    }
+  }
+
+  /**
+   * Move to the next object of the array the parser is in, skipping anything else.
+
+   * @return the offset of the object, or -1 at the end of the array
+   */
+  private static int nextObject(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY
+            && parser.currentToken() != JsonToken.END_OBJECT) {
+      parser.skipChildren();
+      return -1;
+    }
+    while (true) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        return (int) parser.currentTokenLocation().getByteOffset();
+      }
+      if (token == JsonToken.END_ARRAY || token == null) {
+        return -1;
+      }
+      parser.skipChildren();
+    }
+  }
+
+  private void readItem(String itemName) throws IOException {
+    Integer offset = itemOffsets.remove(itemName);
+    if (offset != null) {
+      try (JsonParser parser = parserAt(offset)) {
+        assembler.addItem(EntityReader.readItem(parser));
+      }
+    }
+  }
+
+  private void readFixture(String fixtureName) throws IOException {
+    Integer offset = fixtureOffsets.remove(fixtureName);
+    if (offset != null) {
+      try (JsonParser parser = parserAt(offset)) {
+        assembler.addFixture(EntityReader.readFixture(parser));
+      }
+    }
+  }
+
+  private void readProblem(String problemName, Map<String, Integer> offsets, boolean monster)
+          throws IOException {
+    Integer offset = offsets.remove(problemName);
+    if (offset != null) {
+      try (JsonParser parser = parserAt(offset)) {
+        WorldAssembler.ProblemEntry entry = EntityReader.readProblem(parser, monster);
+        String solution = WorldAssembler.solutionItem(entry);
+        if (solution != null) {
+          readItem(solution);
+        }
+        assembler.addProblem(entry);
+      }
+    }
+  }
+
+  /**
+   * Create a parser positioned on the start of the object at an offset.
+   */
+  private JsonParser parserAt(int offset) throws IOException {
+    JsonParser parser = FACTORY.createParser(json, offset, json.length - offset);
+    parser.nextToken();
+    return parser;
+  }
+}
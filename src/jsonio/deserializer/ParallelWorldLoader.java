@@ -0,0 +1,459 @@
+package jsonio.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import enginedriver.Fixture;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Room;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads a game world JSON document on a fork-join pool, reading its sections at the same
+ * time instead of one after the other.
+ * A quick pass over the bytes finds the sections of the document and where each object
+ * of their arrays starts and ends, without parsing them. The objects are then read in
+ * chunks by tasks that split the arrays in halves, so that a large section keeps every
+ * worker busy, and the rooms are built the same way once all the entities they refer to
+ * are known. The world is the one GameWorldDeserializer builds from the same document.
+ */
+public class ParallelWorldLoader {
+  private static final JsonFactory FACTORY = new JsonFactory();
+  // a task reads its objects itself below this many bytes, or builds this many rooms
+  private static final int CHUNK_BYTES = 64 * 1024;
+  private static final int CHUNK_ROOMS = 512;
+
+  private final byte[] json;
+  private final ForkJoinPool pool;
+
+  private ParallelWorldLoader(byte[] json, ForkJoinPool pool) {
+    this.json = json;
+    this.pool = pool;
+  }
+
+  /**
+   * Load a game world from a JSON document on a fork-join pool.
+
+   * @param json the bytes of the document
+   * @param pool the pool to read the sections on
+   * @return the game world, or null if the document is not a plain JSON object, in which
+   *         case it is left to GameWorldDeserializer to read or to report
+   * @throws IOException if an object of the document cannot be read
+   */
+  public static GameWorld load(byte[] json, ForkJoinPool pool) throws IOException {
+    List<Section> sections = new SectionScanner(json).scan();
+    if (sections == null) {
+      return null;
+    }
+    try {
+      return new ParallelWorldLoader(json, pool).assemble(sections);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private GameWorld assemble(List<Section> sections) throws IOException {
+    String name = "";
+    String version = "";
+    List<ReadTask<Item>> items = new ArrayList<>();
+    List<ReadTask<Fixture>> fixtures = new ArrayList<>();
+    List<ReadTask<WorldAssembler.ProblemEntry>> monsters = new ArrayList<>();
+    List<ReadTask<WorldAssembler.ProblemEntry>> puzzles = new ArrayList<>();
+    List<ReadTask<WorldAssembler.RoomEntry>> rooms = new ArrayList<>();
+    for (Section section : sections) {
+      switch (section.field) {
+        case "name":
+          name = readText(section);
+          break;
+        case "version":
+          version = readText(section);
+          break;
+        case "items":
+          items.add(fork(section, EntityReader::readItem));
+          break;
+        case "fixtures":
+          fixtures.add(fork(section, EntityReader::readFixture));
+          break;
+        case "monsters":
+          monsters.add(fork(section, parser -> EntityReader.readProblem(parser, true)));
+          break;
+        case "puzzles":
+          puzzles.add(fork(section, parser -> EntityReader.readProblem(parser, false)));
+          break;
+        case "rooms":
+          rooms.add(fork(section, EntityReader::readRoom));
+          break;
+        default:
+          break;
+      }
+    }
+
+    // the entities in the order of the document, so that later duplicates win as before
+    WorldAssembler assembler = new WorldAssembler();
+    for (ReadTask<Item> task : items) {
+      task.join().forEach(assembler::addItem);
+    }
+    assembler.itemsDone();
+    for (ReadTask<Fixture> task : fixtures) {
+      task.join().forEach(assembler::addFixture);
+    }
+    assembler.fixturesDone();
+    for (ReadTask<WorldAssembler.ProblemEntry> task : monsters) {
+      task.join().forEach(assembler::addProblem);
+    }
+    assembler.monstersDone();
+    for (ReadTask<WorldAssembler.ProblemEntry> task : puzzles) {
+      task.join().forEach(assembler::addProblem);
+    }
+    assembler.puzzlesDone();
+
+    List<WorldAssembler.RoomEntry> roomEntries = new ArrayList<>();
+    for (ReadTask<WorldAssembler.RoomEntry> task : rooms) {
+      roomEntries.addAll(task.join());
+    }
+    Map<Integer, Room> builtRooms = new HashMap<>();
+    for (Room<?> room : pool.invoke(new BuildTask(assembler, roomEntries, 0,
+            roomEntries.size()))) {
+      builtRooms.put(room.getId(), room);
+    }
+    return new GameWorld(name, version, builtRooms);
+  }
+
+  private <T> ReadTask<T> fork(Section section, ObjectReader<T> reader) {
+    ReadTask<T> task = new ReadTask<>(section, 0, section.count, reader);
+    pool.execute(task);
+    return task;
+  }
+
+  private String readText(Section section) throws IOException {
+    try (JsonParser parser = FACTORY.createParser(json, section.start,
+            section.end - section.start)) {
+      parser.nextToken();
+      return DeserializerHelperUtils.readText(parser);
+    }
+  }
+
+  /**
+   * Reader of one object of a section.
+   */
+  private interface ObjectReader<T> {
+    T read(JsonParser parser) throws IOException;
+  }
+
+  /**
+   * Task reading a range of the objects of a section, splitting it while it is large.
+   * Tasks are never serialized, although ForkJoinTask is Serializable.
+   */
+  @SuppressWarnings("serial")
+  private class ReadTask<T> extends RecursiveTask<List<T>> {
+    private final Section section;
+    private final int from;
+    private final int to;
+    private final ObjectReader<T> reader;
+
+    ReadTask(Section section, int from, int to, ObjectReader<T> reader) {
+      this.section = section;
+      this.from = from;
+      this.to = to;
+      this.reader = reader;
+    }
+
+    @Override
+    protected List<T> compute() {
+      if (to - from > 1 && section.ends[to - 1] - section.starts[from] > CHUNK_BYTES) {
+        int middle = (from + to) >>> 1;
+        ReadTask<T> second = new ReadTask<>(section, middle, to, reader);
+        second.fork();
+        List<T> objects = new ReadTask<>(section, from, middle, reader).compute();
+        objects.addAll(second.join());
+        return objects;
+      }
+      List<T> objects = new ArrayList<>(to - from);
+      try {
+        for (int i = from; i < to; i++) {
+          try (JsonParser parser = FACTORY.createParser(json, section.starts[i],
+                  section.ends[i] - section.starts[i])) {
+            parser.nextToken();
+            objects.add(reader.read(parser));
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return objects;
+    }
+  }
+
+  /**
+   * Task building a range of rooms from their entries, splitting it while it is large.
+   * The assembler is only read, so the tasks share it. Tasks are never serialized.
+   */
+  @SuppressWarnings("serial")
+  private static class BuildTask extends RecursiveTask<List<Room<?>>> {
+    private final WorldAssembler assembler;
+    private final List<WorldAssembler.RoomEntry> entries;
+    private final int from;
+    private final int to;
+
+    BuildTask(WorldAssembler assembler, List<WorldAssembler.RoomEntry> entries, int from,
+              int to) {
+      this.assembler = assembler;
+      this.entries = entries;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<Room<?>> compute() {
+      if (to - from > CHUNK_ROOMS) {
+        int middle = (from + to) >>> 1;
+        BuildTask second = new BuildTask(assembler, entries, middle, to);
+        second.fork();
+        List<Room<?>> rooms = new BuildTask(assembler, entries, from, middle).compute();
+        rooms.addAll(second.join());
+        return rooms;
+      }
+      List<Room<?>> rooms = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        rooms.add(assembler.newRoom(entries.get(i)));
+      }
+      return rooms;
+    }
+  }
+
+  /**
+   * A field of the document, with the offsets of the objects of its array, if any.
+   */
+  private static class Section {
+    final String field;
+    final int start;
+    int end;
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    int count;
+
+    Section(String field, int start) {
+      this.field = field;
+      this.start = start;
+    }
+
+    void addObject(int objectStart, int objectEnd) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        ends = Arrays.copyOf(ends, count * 2);
+      }
+      starts[count] = objectStart;
+      ends[count] = objectEnd;
+      count++;
+    }
+  }
+
+  /**
+   * Finds the sections of a document by matching its brackets and quotes, without
+   * reading the values.
+   */
+  private static class SectionScanner {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final long QUOTES = 0x2222222222222222L;
+    private static final long BACKSLASHES = 0x5c5c5c5c5c5c5c5cL;
+
+    private final byte[] json;
+    private int position;
+
+    SectionScanner(byte[] json) {
+      this.json = json;
+    }
+
+    /**
+     * Find the sections of the document.
+
+     * @return the sections in document order, or null if the document is not a plain
+     *         JSON object
+     */
+    List<Section> scan() {
+      List<Section> sections = new ArrayList<>();
+      skipWhitespace();
+      if (peek() != '{') {
+        return null;
+      }
+      position++;
+      skipWhitespace();
+      if (peek() == '}') {
+        return sections;
+      }
+      while (true) {
+        skipWhitespace();
+        int keyStart = position + 1;
+        if (peek() != '"' || !skipString()) {
+          return null;
+        }
+        String field = new String(json, keyStart, position - 1 - keyStart,
+                StandardCharsets.UTF_8);
+        if (field.indexOf('\\') >= 0) {
+          // an escaped field name, read by the parser instead
+          return null;
+        }
+        skipWhitespace();
+        if (peek() != ':') {
+          return null;
+        }
+        position++;
+        skipWhitespace();
+        Section section = new Section(field, position);
+        if (!(peek() == '[' ? scanArray(section) : skipValue())) {
+          return null;
+        }
+        section.end = position;
+        sections.add(section);
+        skipWhitespace();
+        if (peek() == ',') {
+          position++;
+        } else if (peek() == '}') {
+          return sections;
+        } else {
+          return null;
+        }
+      }
+    }
+
+    /**
+     * Move past an array, noting where its objects start and end.
+     */
+    private boolean scanArray(Section section) {
+      position++;
+      skipWhitespace();
+      if (peek() == ']') {
+        position++;
+        return true;
+      }
+      while (true) {
+        skipWhitespace();
+        int start = position;
+        if (!skipValue()) {
+          return false;
+        }
+        if (json[start] == '{') {
+          section.addObject(start, position);
+        }
+        skipWhitespace();
+        if (peek() == ',') {
+          position++;
+        } else if (peek() == ']') {
+          position++;
+          return true;
+        } else {
+          return false;
+        }
+      }
+    }
+
+    /**
+     * Move past a value, matching the brackets of objects and arrays.
+     */
+    private boolean skipValue() {
+      byte b = peek();
+      if (b == '"') {
+        return skipString();
+      }
+      if (b != '{' && b != '[') {
+        int start = position;
+        while (position < json.length && !isDelimiter(json[position])) {
+          position++;
+        }
+        return position > start;
+      }
+      int depth = 0;
+      while (position < json.length) {
+        b = json[position];
+        if (b == '"') {
+          if (!skipString()) {
+            return false;
+          }
+          continue;
+        }
+        if (b == '{' || b == '[') {
+          depth++;
+        } else if (b == '}' || b == ']') {
+          if (--depth == 0) {
+            position++;
+            return true;
+          }
+        }
+        position++;
+      }
+      return false;
+    }
+
+    /**
+     * Move past a string, from its opening quote.
+     * Most of a world file is text, so the string is searched for a quote or a backslash
+     * eight bytes at a time.
+     */
+    private boolean skipString() {
+      position++;
+      while (position + Long.BYTES <= json.length) {
+        long word = (long) LONGS.get(json, position);
+        long found = matches(word, QUOTES) | matches(word, BACKSLASHES);
+        if (found == 0) {
+          position += Long.BYTES;
+          continue;
+        }
+        position += Long.numberOfTrailingZeros(found) >>> 3;
+        if (json[position++] == '"') {
+          return true;
+        }
+        position++;
+      }
+      while (position < json.length) {
+        byte b = json[position++];
+        if (b == '"') {
+          return true;
+        }
+        if (b == '\\') {
+          position++;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Mark the bytes of a word equal to the byte repeated in a pattern, with the high bit
+     * of the byte. Only the lowest mark is exact, which is the one used.
+     */
+    private static long matches(long word, long pattern) {
+      long equal = word ^ pattern;
+      return (equal - 0x0101010101010101L) & ~equal & 0x8080808080808080L;
+    }
+
+    private void skipWhitespace() {
+      while (position < json.length && isWhitespace(json[position])) {
+        position++;
+      }
+    }
+
+    private byte peek() {
+      return position < json.length ? json[position] : 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDelimiter(byte b) {
+      return b == ',' || b == '}' || b == ']' || isWhitespace(b);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package jsonio.deserializer;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import enginedriver.GameWorld;
 import enginedriver.Item;
@@ -18,6 +19,11 @@ import java.util.Map;
  * a player into a Player object.
  */
 public class PlayerDeserializer extends JsonDeserializer<Player> {
+  /**
+   * Name of the context attribute holding the GameWorld, for a deserializer created
+   * without one.
+   */
+  public static final String GAME_WORLD_ATTRIBUTE = "enginedriver.GameWorld";
 
   // Initialize gameWorld for reference
   private final GameWorld gameWorld;
@@ -30,6 +36,14 @@ public class PlayerDeserializer extends JsonDeserializer<Player> {
     this.gameWorld = gameWorld;
   }
 
+  /**
+   * Constructor for a PlayerDeserializer shared by all game worlds.
+   * The GameWorld of each call is read from the GAME_WORLD_ATTRIBUTE context attribute.
+   */
+  public PlayerDeserializer() {
+    this.gameWorld = null;
+  }
+
   /**
    * Deserialize a JSON representation of a Player into a Player object.
    */
@@ -46,10 +60,12 @@ public class PlayerDeserializer extends JsonDeserializer<Player> {
     int roomNumber = rootNode.get("room_number").asInt();
     int score = rootNode.get("score").asInt();
 
-    // Parse all items from gameWorld
-    Map<String, Item> allItems = new HashMap<>();
-    for (Item item : gameWorld.getItems()) {
-      allItems.put(item.getName(), item);
+    GameWorld gameWorld = this.gameWorld != null
+            ? this.gameWorld
+            : (GameWorld) deserializationContext.getAttribute(GAME_WORLD_ATTRIBUTE);
+    if (gameWorld == null) {
+      throw JsonMappingException.from(jsonParser,
+              "No game world to find the items of player " + name + " in");
     }
 
     // Parse inventory string and lookup items from allItems map
@@ -59,8 +75,10 @@ public class PlayerDeserializer extends JsonDeserializer<Player> {
     if (inventoryNode != null && !inventoryNode.asText().isEmpty()) {
       String[] itemNames = inventoryNode.asText().split(",\\s*");
       for (String itemName : itemNames) {
-        if (!itemName.isEmpty() && allItems.containsKey(itemName)) {
-          inventory.put(itemName, allItems.get(itemName));
+        // the world indexes its items by name, so only the inventory is looked at
+        Item item = itemName.isEmpty() ? null : gameWorld.findItem(itemName);
+        if (item != null) {
+          inventory.put(itemName, item);
         }
       }
     }
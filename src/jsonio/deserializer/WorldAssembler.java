@@ -0,0 +1,268 @@
+package jsonio.deserializer;
+
+import enginedriver.Direction;
+import enginedriver.Fixture;
+import enginedriver.IdentifiableEntity;
+import enginedriver.Item;
+import enginedriver.Room;
+import enginedriver.problems.IProblem;
+import enginedriver.problems.Monster;
+import enginedriver.problems.Puzzle;
+import enginedriver.problems.validator.ItemSolutionValidator;
+import enginedriver.problems.validator.StringSolutionValidator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles the entities of a game world as they are read, in whatever order the
+ * sections of the file come in. A problem needs the items, and a room needs the items,
+ * fixtures, monsters and puzzles; when an entry arrives before the sections it refers to,
+ * it waits in a fix-up table and is built once those sections are complete.
+ * It's package private and not intended for public use.
+ */
+class WorldAssembler {
+  private final Map<String, Item> items = new HashMap<>();
+  private final Map<String, Fixture> fixtures = new HashMap<>();
+  private final Map<String, Monster<?>> monsters = new HashMap<>();
+  private final Map<String, Puzzle<?>> puzzles = new HashMap<>();
+  private final Map<Integer, Room> rooms = new HashMap<>();
+  private final List<ProblemEntry> pendingProblems = new ArrayList<>();
+  private final List<RoomEntry> pendingRooms = new ArrayList<>();
+  private boolean itemsDone;
+  private boolean fixturesDone;
+  private boolean monstersDone;
+  private boolean puzzlesDone;
+
+  /**
+   * Add an item.
+
+   * @param item the item
+   */
+  void addItem(Item item) {
+    items.put(item.getName(), item);
+  }
+
+  /**
+   * Add a fixture.
+
+   * @param fixture the fixture
+   */
+  void addFixture(Fixture fixture) {
+    fixtures.put(fixture.getName(), fixture);
+  }
+
+  /**
+   * Add a monster or puzzle, built at once if all items are known.
+
+   * @param entry the entry of the problem
+   */
+  void addProblem(ProblemEntry entry) {
+    if (itemsDone) {
+      buildProblem(entry);
+    } else {
+      pendingProblems.add(entry);
+    }
+  }
+
+  /**
+   * Add a room, built at once if all the entities it may refer to are known.
+
+   * @param entry the entry of the room
+   */
+  void addRoom(RoomEntry entry) {
+    if (itemsDone && fixturesDone && monstersDone && puzzlesDone) {
+      buildRoom(entry);
+    } else {
+      pendingRooms.add(entry);
+    }
+  }
+
+  /**
+   * Mark the items as complete, building the problems waiting for them.
+   */
+  void itemsDone() {
+    itemsDone = true;
+    for (ProblemEntry entry : pendingProblems) {
+      buildProblem(entry);
+    }
+    pendingProblems.clear();
+  }
+
+  /**
+   * Mark the fixtures as complete.
+   */
+  void fixturesDone() {
+    fixturesDone = true;
+  }
+
+  /**
+   * Mark the monsters as complete.
+   */
+  void monstersDone() {
+    monstersDone = true;
+  }
+
+  /**
+   * Mark the puzzles as complete.
+   */
+  void puzzlesDone() {
+    puzzlesDone = true;
+  }
+
+  /**
+   * Build everything still waiting, treating missing sections as empty.
+
+   * @return the rooms by room number
+   */
+  Map<Integer, Room> finish() {
+    if (!itemsDone) {
+      itemsDone();
+    }
+    for (RoomEntry entry : pendingRooms) {
+      buildRoom(entry);
+    }
+    pendingRooms.clear();
+    return rooms;
+  }
+
+  /**
+   * Get the items read so far.
+
+   * @return the items by name
+   */
+  Map<String, Item> getItems() {
+    return items;
+  }
+
+  private void buildProblem(ProblemEntry entry) {
+    String solutionText = entry.solution;
+    if (solutionText.startsWith("'") && solutionText.endsWith("'")) {
+      String solution = solutionText.substring(1, solutionText.length() - 1);
+      StringSolutionValidator validator = new StringSolutionValidator();
+      if (entry.monster) {
+        monsters.put(entry.name, new Monster<>(entry.name, entry.description, entry.active,
+                entry.affectsTarget, entry.canAttack, entry.affectsPlayer, solution,
+                entry.value, entry.damage, entry.effects, entry.target, entry.pictureName,
+                entry.attack, validator));
+      } else {
+        puzzles.put(entry.name, new Puzzle<>(entry.name, entry.description, entry.active,
+                entry.affectsTarget, entry.affectsPlayer, solution, entry.value,
+                entry.effects, entry.target, entry.pictureName, validator));
+      }
+    } else {
+      Item solution = items.get(solutionText);
+      ItemSolutionValidator validator = new ItemSolutionValidator();
+      if (entry.monster) {
+        monsters.put(entry.name, new Monster<>(entry.name, entry.description, entry.active,
+                entry.affectsTarget, entry.canAttack, entry.affectsPlayer, solution,
+                entry.value, entry.damage, entry.effects, entry.target, entry.pictureName,
+                entry.attack, validator));
+      } else {
+        puzzles.put(entry.name, new Puzzle<>(entry.name, entry.description, entry.active,
+                entry.affectsTarget, entry.affectsPlayer, solution, entry.value,
+                entry.effects, entry.target, entry.pictureName, validator));
+      }
+    }
+  }
+
+  private void buildRoom(RoomEntry entry) {
+    rooms.put(entry.id, newRoom(entry));
+  }
+
+  /**
+   * Build a room from the entities added so far, without keeping it.
+
+   * @param entry the entry of the room
+   * @return the room
+   */
+  Room<?> newRoom(RoomEntry entry) {
+    // items first, so that a fixture with the same name replaces the item
+    Map<String, IdentifiableEntity> entityNames = new HashMap<>();
+    for (String itemName : names(entry.items)) {
+      entityNames.put(itemName, items.get(itemName));
+    }
+    for (String fixtureName : names(entry.fixtures)) {
+      entityNames.put(fixtureName, fixtures.get(fixtureName));
+    }
+
+    IProblem<?> problem = null;
+    if (entry.puzzle != null) {
+      problem = puzzles.get(entry.puzzle);
+    } else if (entry.monster != null) {
+      problem = monsters.get(entry.monster);
+    }
+
+    Room<?> room = new Room<>(entry.id, entry.name, entry.description, null, entityNames,
+            problem, entry.pictureName);
+    room.setExit(Direction.NORTH, entry.north);
+    room.setExit(Direction.SOUTH, entry.south);
+    room.setExit(Direction.EAST, entry.east);
+    room.setExit(Direction.WEST, entry.west);
+    return room;
+  }
+
+  /**
+   * Split the comma separated names of the items or fixtures of a room.
+
+   * @param list the names as written in the room
+   * @return the names, none for an empty list
+   */
+  static String[] names(String list) {
+    return list.isEmpty() ? new String[0] : list.split(", ");
+  }
+
+  /**
+   * Get the name of the item solving a problem.
+
+   * @param entry the entry of the problem
+   * @return the name of the item, or null if the solution is a quoted text
+   */
+  static String solutionItem(ProblemEntry entry) {
+    String solutionText = entry.solution;
+    return solutionText.startsWith("'") && solutionText.endsWith("'") ? null : solutionText;
+  }
+
+  /**
+   * A monster or puzzle as read from the file, with its solution still a name.
+   */
+  static class ProblemEntry {
+    final boolean monster;
+    String name = "";
+    String description = "";
+    String effects = "";
+    String target = "";
+    String attack = "";
+    String pictureName = "";
+    String solution = "";
+    boolean active;
+    boolean affectsTarget;
+    boolean affectsPlayer;
+    boolean canAttack;
+    int value;
+    int damage;
+
+    ProblemEntry(boolean monster) {
+      this.monster = monster;
+    }
+  }
+
+  /**
+   * A room as read from the file, with its entities and problem still names.
+   */
+  static class RoomEntry {
+    String name = "";
+    String description = "";
+    String pictureName = "";
+    String items = "";
+    String fixtures = "";
+    String puzzle;
+    String monster;
+    int id;
+    int north;
+    int south;
+    int east;
+    int west;
+  }
+}
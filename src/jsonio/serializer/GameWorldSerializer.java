@@ -3,6 +3,7 @@ package jsonio.serializer;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import enginedriver.Direction;
 import enginedriver.Fixture;
 import enginedriver.GameWorld;
 import enginedriver.Item;
@@ -10,13 +11,17 @@ import enginedriver.Room;
 import enginedriver.problems.Monster;
 import enginedriver.problems.Puzzle;
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * The GameWorldSerializer class is responsible for serializing the GameWorld object to JSON.
  * It uses Jackson to convert the GameWorld object into a JSON representation.
  */
 public class GameWorldSerializer extends JsonSerializer<GameWorld> {
+  // the order saved worlds have always listed the exits of a room in
+  private static final Direction[] EXIT_ORDER = {
+    Direction.SOUTH, Direction.EAST, Direction.WEST, Direction.NORTH
+  };
+
   @Override
   public void serialize(GameWorld gameWorld, JsonGenerator jsonGenerator,
                         SerializerProvider serializerProvider) throws IOException {
@@ -38,9 +43,10 @@ public class GameWorldSerializer extends JsonSerializer<GameWorld> {
               .replace("\n", "\\n"));
 
       // Serialize exits
-      Map<String, Integer> exits = room.getExits();
-      for (Map.Entry<String, Integer> entry : exits.entrySet()) {
-        jsonGenerator.writeNumberField(entry.getKey(), entry.getValue());
+      for (Direction direction : EXIT_ORDER) {
+        if (room.hasExit(direction)) {
+          jsonGenerator.writeNumberField(direction.getKey(), room.getExit(direction));
+        }
       }
 
       // Serialize problem
@@ -0,0 +1,60 @@
+package saveio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files so that a crash never leaves them half written: the new content goes to
+ * a temporary file in the same folder, is forced to the disk, and then replaces the file
+ * in one rename. A reader sees either the old file or the new one.
+ */
+public class AtomicFiles {
+
+  /**
+   * Replace the content of a file.
+
+   * @param target the file
+   * @param contents the new content, in order, from the positions to the limits
+   * @throws IOException if the file cannot be written, in which case it is left unchanged
+   */
+  public static void write(Path target, ByteBuffer... contents) throws IOException {
+    Path folder = target.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(folder, "." + target.getFileName(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        for (ByteBuffer content : contents) {
+          while (content.hasRemaining()) {
+            channel.write(content);
+          }
+        }
+        channel.force(true);
+      }
+      try {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      forceFolder(folder);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Force the rename to the disk as well, where the system allows opening a folder.
+   */
+  private static void forceFolder(Path folder) {
+    try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // not supported on this system, the rename is still atomic
+    }
+  }
+}
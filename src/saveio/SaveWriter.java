@@ -0,0 +1,262 @@
+package saveio;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes saves in the background, so that the thread running the commands of a game
+ * never waits for the disk. Every save has a key, usually naming its files; saves with the
+ * same key are written one after the other, in the order they were submitted. A save
+ * submitted while another one with the same key is still waiting to start replaces it,
+ * since only the latest state needs to reach the disk, and both are told when it is
+ * written. Writes that must not be replaced, such as appends to a journal, and reads of
+ * saves run in order with the saves of their key too.
+ * A discarding writer drops every write instead, for games whose saves must not reach the
+ * disk, and runs the reads at once on the thread submitting them.
+ */
+public class SaveWriter implements AutoCloseable {
+  private final ExecutorService[] stripes;
+  private final Map<String, Pending> waiting = new HashMap<>();
+  private final AtomicLong writtenCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong discardedCount = new AtomicLong();
+
+  /**
+   * Constructor for a writer with one background thread.
+   */
+  public SaveWriter() {
+    this(1);
+  }
+
+  /**
+   * Constructor for a writer.
+
+   * @param threads the number of background threads, saves with the same key always
+   *     going to the same thread
+   */
+  public SaveWriter(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("A save writer needs at least one thread");
+    }
+    stripes = new ExecutorService[threads];
+    for (int i = 0; i < threads; i++) {
+      stripes[i] = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Create a writer dropping every save, such as for replaying recorded games.
+
+   * @return the writer
+   */
+  public static SaveWriter discarding() {
+    return new SaveWriter(new ExecutorService[0]);
+  }
+
+  private SaveWriter(ExecutorService[] stripes) {
+    this.stripes = stripes;
+  }
+
+  /**
+   * Submit a save to be written in the background.
+
+   * @param key the key of the save
+   * @param job the job serializing and writing the save
+   * @return a future completed once the save, or a later one replacing it, is written
+   */
+  public CompletableFuture<Void> submit(String key, Job job) {
+    if (isDiscarding()) {
+      discardedCount.incrementAndGet();
+      return CompletableFuture.completedFuture(null);
+    }
+    synchronized (waiting) {
+      Pending pending = waiting.get(key);
+      if (pending != null) {
+        pending.job = job;
+        coalescedCount.incrementAndGet();
+        return pending.future;
+      }
+      Pending next = new Pending(job);
+      waiting.put(key, next);
+      stripe(key).execute(() -> run(key, next));
+      return next.future;
+    }
+  }
+
+  /**
+   * Submit a write to be run in the background after the saves with the same key
+   * submitted before it. Unlike a save the write is never replaced, so it suits writes
+   * that each add to the file, such as appends to a journal.
+
+   * @param key the key of the save
+   * @param job the job writing
+   * @return a future completed once the write is done
+   */
+  public CompletableFuture<Void> submitAppend(String key, Job job) {
+    if (isDiscarding()) {
+      discardedCount.incrementAndGet();
+      return CompletableFuture.completedFuture(null);
+    }
+    return submitInOrder(key, () -> {
+      job.write();
+      writtenCount.incrementAndGet();
+      return null;
+    });
+  }
+
+  /**
+   * Submit a task to be run in the background after the saves with the same key submitted
+   * before it. Unlike a save the task is never replaced, and the saves with the same key
+   * submitted after it run after it.
+
+   * @param key the key of the saves the task reads or writes
+   * @param task the task
+   * @param <T> the type of the result of the task
+   * @return a future completed with the result of the task
+   */
+  public <T> CompletableFuture<T> submitInOrder(String key, Task<T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (isDiscarding()) {
+      complete(future, task);
+      return future;
+    }
+    synchronized (waiting) {
+      // a later save must not replace one submitted before the task
+      waiting.remove(key);
+      stripe(key).execute(() -> complete(future, task));
+    }
+    return future;
+  }
+
+  /**
+   * Get the number of saves written.
+
+   * @return the number of saves
+   */
+  public long getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  /**
+   * Get the number of saves and writes dropped by a discarding writer.
+
+   * @return the number of saves
+   */
+  public long getDiscardedCount() {
+    return discardedCount.get();
+  }
+
+  /**
+   * Check if the writer drops every save instead of writing it.
+
+   * @return true for a discarding writer
+   */
+  public boolean isDiscarding() {
+    return stripes.length == 0;
+  }
+
+  /**
+   * Get the number of saves replaced by a later one before they were written.
+
+   * @return the number of saves
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * Write the saves submitted so far, then stop the background threads.
+   */
+  @Override
+  public void close() {
+    for (ExecutorService stripe : stripes) {
+      stripe.shutdown();
+    }
+    try {
+      for (ExecutorService stripe : stripes) {
+        stripe.awaitTermination(1, TimeUnit.MINUTES);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static <T> void complete(CompletableFuture<T> future, Task<T> task) {
+    try {
+      future.complete(task.run());
+    } catch (Exception | Error e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  private ExecutorService stripe(String key) {
+    return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+  }
+
+  private void run(String key, Pending pending) {
+    Job job;
+    synchronized (waiting) {
+      // from now on a save with the same key waits for this one instead of replacing it
+      waiting.remove(key, pending);
+      job = pending.job;
+    }
+    try {
+      job.write();
+      writtenCount.incrementAndGet();
+      pending.future.complete(null);
+    } catch (Exception | Error e) {
+      pending.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * A save to write: its state is captured when it is submitted, and serialized and
+   * written by the job.
+   */
+  @FunctionalInterface
+  public interface Job {
+
+    /**
+     * Serialize the save and write its files.
+
+     * @throws IOException if the files cannot be written
+     */
+    void write() throws IOException;
+  }
+
+  /**
+   * A task run in order with the saves of its key, such as reading a save back.
+
+   * @param <T> the type of the result of the task
+   */
+  @FunctionalInterface
+  public interface Task<T> {
+
+    /**
+     * Run the task.
+
+     * @return the result of the task
+     * @throws IOException if the files of the task cannot be read or written
+     */
+    T run() throws IOException;
+  }
+
+  private static class Pending {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    Job job;
+
+    Pending(Job job) {
+      this.job = job;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import binio.BinaryCodec;
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.SaveFormat;
+import enginedriver.Viewer;
+import enginedriver.problems.Monster;
+import enginedriver.problems.Puzzle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import jsonio.CodecRegistry;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for BinaryCodec.
+ */
+public class BinaryCodecTest {
+  // SAVE BINARY writes these files, which are removed after each test
+  private static final Path WORLD_SAVE = Path.of("resources/worlds/Align Quest.Bob.bin");
+  private static final Path PLAYER_SAVE = Path.of("resources/players/Bob.bin");
+
+  private GameWorld gameWorld;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    Files.deleteIfExists(WORLD_SAVE);
+    Files.deleteIfExists(PLAYER_SAVE);
+  }
+
+  @Test
+  void testWorldRoundTrip() throws Exception {
+    GameWorld decoded = BinaryCodec.decodeWorld(BinaryCodec.encodeWorld(gameWorld));
+
+    assertEquals(gameWorld.getName(), decoded.getName());
+    assertEquals(gameWorld.getVersion(), decoded.getVersion());
+    assertEquals(gameWorld.getRooms().keySet(), decoded.getRooms().keySet());
+    for (Room<?> room : gameWorld.getRooms().values()) {
+      Room<?> copy = decoded.getRoom(room.getId());
+      assertEquals(room.getName(), copy.getName());
+      assertEquals(room.getDescription(), copy.getDescription());
+      assertEquals(room.getPictureName(), copy.getPictureName());
+      assertEquals(room.getExits(), copy.getExits());
+      assertEquals(room.getEntities().keySet(), copy.getEntities().keySet());
+      assertEquals(room.getEntities(), copy.getEntities());
+      if (room.getProblem() == null) {
+        assertNull(copy.getProblem());
+      } else {
+        assertEquals(room.getProblem().getName(), copy.getProblem().getName());
+        assertEquals(room.getProblem().getActive(), copy.getProblem().getActive());
+        assertEquals(room.getProblem().getValue(), copy.getProblem().getValue());
+      }
+    }
+
+    Item lamp = decoded.getRoom(3).getItem("Lamp");
+    assertEquals(3, lamp.getWeight());
+    assertEquals(20, lamp.getRemainingUses());
+    assertEquals(100, lamp.getUseMax());
+    assertEquals("You light the lamp with the flint.", lamp.getWhenUsed());
+
+    Monster<?> teddy = (Monster<?>) decoded.getRoom(3).getProblem();
+    assertEquals("Teddy Bear", teddy.getName());
+    assertTrue(teddy.getCanAttack());
+    // the solution is the item lying in the courtyard, not a copy of it
+    assertSame(decoded.getRoom(1).getItem("Hair Clippers"), teddy.getSolution());
+
+    Puzzle<?> recursion = (Puzzle<?>) decoded.getRoom(10).getProblem();
+    assertEquals("Base Case", recursion.getSolution());
+  }
+
+  @Test
+  void testWorldKeepsSolutionsNoLongerInRooms() throws Exception {
+    Item clippers = gameWorld.getRoom(1).getItem("Hair Clippers");
+    gameWorld.getRoom(1).removeEntity(clippers);
+    gameWorld.getRoom(6).getProblem().setActive(false);
+
+    GameWorld decoded = BinaryCodec.decodeWorld(BinaryCodec.encodeWorld(gameWorld));
+
+    assertNull(decoded.getRoom(1).getItem("Hair Clippers"));
+    assertEquals(clippers, decoded.getRoom(3).getProblem().getSolution());
+    assertEquals(false, decoded.getRoom(6).getProblem().getActive());
+  }
+
+  @Test
+  void testPlayerRoundTripThroughChannels() throws Exception {
+    Item clippers = gameWorld.getRoom(1).getItem("Hair Clippers");
+    clippers.use();
+    Player player = new Player("Bob", 80, 20, 0);
+    player.addItem(clippers);
+    player.setRoomNumber(3);
+    player.setScore(150);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryCodec.writePlayer(player, Channels.newChannel(bytes));
+    Player decoded = BinaryCodec.readPlayer(
+            Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals("Bob", decoded.getName());
+    assertEquals(80, decoded.getHealth());
+    assertEquals(20, decoded.getMaxWeight());
+    assertEquals(3, decoded.getRoomNumber());
+    assertEquals(150, decoded.getScore());
+    assertEquals(clippers.getWeight(), decoded.getCurrentWeight());
+    Item item = decoded.getEntity("Hair Clippers", Item.class);
+    assertEquals(clippers, item);
+    assertEquals(3, item.getRemainingUses());
+  }
+
+  @Test
+  void testSmallerThanJson() throws Exception {
+    byte[] json = CodecRegistry.writer(GameWorld.class).writeValueAsBytes(gameWorld);
+    int binary = BinaryCodec.encodeWorld(gameWorld).remaining();
+    assertTrue(binary < json.length, binary + " bytes, JSON " + json.length);
+  }
+
+  @Test
+  void testRejectsOtherSnapshots() throws Exception {
+    ByteBuffer player = BinaryCodec.encodePlayer(new Player("Bob", 100, 20, 0));
+    assertThrows(IOException.class, () -> BinaryCodec.decodeWorld(player.duplicate()));
+
+    ByteBuffer newer = player.duplicate();
+    newer.put(4, (byte) (BinaryCodec.VERSION + 1));
+    IOException e = assertThrows(IOException.class, () -> BinaryCodec.decodePlayer(newer));
+    assertTrue(e.getMessage().contains("version"));
+
+    ByteBuffer world = BinaryCodec.encodeWorld(gameWorld);
+    ByteBuffer truncated = world.duplicate().limit(world.limit() - 10);
+    assertThrows(IOException.class, () -> BinaryCodec.decodeWorld(truncated));
+  }
+
+  @Test
+  void testSaveAndRestoreBinary() throws Exception {
+    StringBuilder output = new StringBuilder();
+    GameController controller = new GameController(gameWorld, new Player("Bob", 100, 20, 0),
+            new Viewer(output));
+    controller.processCommand("TAKE Hair Clippers");
+    controller.processCommand("SAVE binary");
+    assertTrue(output.toString().contains("Align Quest.Bob.bin and Bob.bin"), output.toString());
+    assertTrue(Files.exists(WORLD_SAVE));
+
+    controller.processCommand("DROP Hair Clippers");
+    controller.processCommand("RESTORE BINARY");
+    assertTrue(output.toString().contains("Game restored successfully from Align Quest.Bob.bin"),
+            output.toString());
+    Player player = controller.getPlayer();
+    assertNotNull(player.getEntity("Hair Clippers", Item.class));
+    assertNull(controller.getGameWorld().getRoom(1).getItem("Hair Clippers"));
+
+    controller.processCommand("SAVE zip");
+    assertTrue(output.toString().contains("Unknown save format: Zip"), output.toString());
+  }
+
+  @Test
+  void testDefaultSaveFormat() throws Exception {
+    StringBuilder output = new StringBuilder();
+    GameController controller = new GameController(gameWorld, new Player("Bob", 100, 20, 0),
+            new Viewer(output));
+    controller.setSaveFormat(SaveFormat.BINARY);
+    controller.processCommand("SAVE");
+    assertTrue(Files.exists(PLAYER_SAVE));
+    Map<Integer, Room> rooms = BinaryCodec.readWorld(
+            Files.newByteChannel(WORLD_SAVE)).getRooms();
+    assertEquals(gameWorld.getRooms().size(), rooms.size());
+  }
+}
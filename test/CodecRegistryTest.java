@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jsonio.CodecRegistry;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CodecRegistry.
+ */
+public class CodecRegistryTest {
+
+  @Test
+  void testReadersAndWritersAreShared() {
+    assertSame(CodecRegistry.reader(GameWorld.class), CodecRegistry.reader(GameWorld.class));
+    assertSame(CodecRegistry.writer(Player.class), CodecRegistry.writer(Player.class));
+  }
+
+  @Test
+  void testPlayerReaderFindsItemsInItsWorld() throws Exception {
+    GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    Item lamp = gameWorld.getRoom(3).getItem("Lamp");
+    Player player = new Player("Eve", 80, 20, 0);
+    player.addItem(lamp);
+    player.setRoomNumber(3);
+
+    String json = CodecRegistry.writer(Player.class).writeValueAsString(player);
+    Player loaded = CodecRegistry.playerReader(gameWorld).readValue(json);
+
+    assertEquals("Eve", loaded.getName());
+    assertEquals(80, loaded.getHealth());
+    assertEquals(3, loaded.getRoomNumber());
+    assertSame(lamp, loaded.getEntity("Lamp", Item.class));
+    assertThrows(JsonMappingException.class,
+        () -> CodecRegistry.reader(Player.class).readValue(json));
+  }
+
+  @Test
+  void testConcurrentLoads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Player>> players = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        players.add(executor.submit(() -> {
+          GameWorld gameWorld = GameDataLoader.loadGameWorld("TestGameWorld.json");
+          return GameDataLoader.loadPlayer("TestPlayer.json", gameWorld);
+        }));
+      }
+      for (Future<Player> player : players) {
+        assertEquals("TestPlayer", player.get().getName());
+        assertTrue(player.get().getEntities().isEmpty());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
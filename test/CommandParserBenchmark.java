@@ -0,0 +1,56 @@
+import enginedriver.command.CommandParser;
+import enginedriver.command.ParsedCommand;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Benchmark for CommandParser.
+ * Parses a mix of commands into one reused ParsedCommand and reports the time and the
+ * bytes allocated per command once the JIT has warmed up. Run with
+ * java -cp "lib/*:out" CommandParserBenchmark.
+ */
+public class CommandParserBenchmark {
+  private static final String[] COMMANDS = {
+    "N", "north", "take hair clippers", "T KEY", "  drop   Frying   PAN ", "L",
+    "examine Billboard", "use Lamp", "answer base case", "I", "jump around", "SAVE"
+  };
+  private static final int WARMUP_ROUNDS = 2_000_000;
+  private static final int MEASURED_ROUNDS = 10_000_000;
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    ParsedCommand command = new ParsedCommand();
+
+    long checksum = run(command, WARMUP_ROUNDS);
+
+    long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    checksum += run(command, MEASURED_ROUNDS);
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+    System.out.printf("commands parsed:     %d%n", MEASURED_ROUNDS);
+    System.out.printf("ns per command:      %.1f%n", (double) elapsed / MEASURED_ROUNDS);
+    System.out.printf("bytes per command:   %.3f%n", (double) allocated / MEASURED_ROUNDS);
+    System.out.printf("checksum:            %d%n", checksum);
+  }
+
+  /**
+   * Parse the sample commands round robin.
+
+   * @return a checksum so the JIT cannot drop the work
+   */
+  private static long run(ParsedCommand command, int rounds) {
+    long checksum = 0;
+    for (int i = 0; i < rounds; i++) {
+      CommandParser.parse(COMMANDS[i % COMMANDS.length], command);
+      checksum += command.getVerb().ordinal() + command.getObjectLength();
+    }
+    return checksum;
+  }
+}
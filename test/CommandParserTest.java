@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import enginedriver.command.CommandParser;
+import enginedriver.command.ParsedCommand;
+import enginedriver.command.Verb;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CommandParser.
+ */
+public class CommandParserTest {
+
+  private ParsedCommand command;
+
+  @BeforeEach
+  void setUp() {
+    command = new ParsedCommand();
+  }
+
+  @Test
+  void testFullNamesAndAbbreviations() {
+    assertEquals(Verb.NORTH, CommandParser.parse("NORTH", command).getVerb());
+    assertEquals(Verb.NORTH, CommandParser.parse("n", command).getVerb());
+    assertEquals(Verb.INVENTORY, CommandParser.parse("Inventory", command).getVerb());
+    assertEquals(Verb.EXAMINE, CommandParser.parse("x Desk", command).getVerb());
+    assertEquals(Verb.QUIT, CommandParser.parse("q", command).getVerb());
+    assertEquals(Verb.SAVE, CommandParser.parse("save", command).getVerb());
+    assertEquals(Verb.RESTORE, CommandParser.parse("RESTORE", command).getVerb());
+  }
+
+  @Test
+  void testUnknownVerb() {
+    assertEquals(Verb.UNKNOWN, CommandParser.parse("QUIT", command).getVerb());
+    assertEquals(Verb.UNKNOWN, CommandParser.parse("jump", command).getVerb());
+    assertEquals(Verb.UNKNOWN, CommandParser.parse("", command).getVerb());
+    assertEquals(Verb.UNKNOWN, CommandParser.parse("   ", command).getVerb());
+  }
+
+  @Test
+  void testObjectNameIsCapitalized() {
+    CommandParser.parse("  take   hair\tCLIPPERS  ", command);
+    assertEquals(Verb.TAKE, command.getVerb());
+    assertEquals("Hair Clippers", command.getObjectName());
+    assertEquals(13, command.getObjectLength());
+    assertEquals('C', command.objectCharAt(5));
+    assertEquals(13, command.getObject().length());
+    assertEquals("Hair Clippers", command.getObject().toString());
+  }
+
+  @Test
+  void testNoObjectName() {
+    CommandParser.parse("T Key", command);
+    CommandParser.parse("L", command);
+    assertEquals(Verb.LOOK, command.getVerb());
+    assertEquals("", command.getObjectName());
+    assertEquals(0, command.getObjectLength());
+  }
+
+  @Test
+  void testParseSlice() {
+    String line = "7\tanswer base case\n";
+    CommandParser.parse(line, 2, line.length() - 1, command);
+    assertEquals(Verb.ANSWER, command.getVerb());
+    assertEquals("Base Case", command.getObjectName());
+  }
+
+  @Test
+  void testObjectNameIsCached() {
+    CommandParser.parse("drop frying pan", command);
+    assertSame(command.getObjectName(), command.getObjectName());
+  }
+}
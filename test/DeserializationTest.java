@@ -1,14 +1,28 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import enginedriver.Fixture;
 import enginedriver.GameWorld;
+import enginedriver.Item;
 import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.problems.Monster;
+import enginedriver.problems.Puzzle;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import jsonio.GameDataLoader;
 import jsonio.deserializer.GameWorldDeserializer;
+import jsonio.deserializer.LazyWorldSource;
+import jsonio.deserializer.ParallelWorldLoader;
 import jsonio.deserializer.PlayerDeserializer;
 import org.junit.jupiter.api.Test;
 
@@ -67,4 +81,198 @@ class DeserializationTest {
     assertEquals(10, player.getMaxWeight());
     assertEquals(0, player.getScore());
   }
-}
\ No newline at end of file
+
+  /**
+   * Test the deserialization of a GameWorld whose rooms and problems come before the
+   * entities they refer to, with numbers written both as strings and as numbers.
+
+   * @throws IOException if an error occurs during deserialization
+   */
+  @Test
+  void testDeserializeForwardReferences() throws IOException {
+    String json = "{ \"rooms\": [ { \"room_name\": \"Hall\", \"room_number\": 1, "
+            + "\"description\": \"A hall\", \"N\": \"2\", \"S\": 0, \"E\": \"-2\", "
+            + "\"puzzle\": null, \"monster\": \"Bear\", \"items\": \"Lamp, Key\", "
+            + "\"fixtures\": \"Desk\", \"picture\": null, \"extra\": { \"a\": [1, 2] } },"
+            + "{ \"room_name\": \"Study\", \"room_number\": \"2\", \"description\": \"\", "
+            + "\"puzzle\": \"Riddle\", \"monster\": null, \"items\": null, \"fixtures\": null } ],"
+            + "\"monsters\": [ { \"name\": \"Bear\", \"active\": \"true\", "
+            + "\"affects_target\": true, \"affects_player\": \"true\", \"can_attack\": \"true\", "
+            + "\"solution\": \"Key\", \"damage\": \"-5\", \"attack\": \"growls\" } ],"
+            + "\"puzzles\": [ { \"name\": \"Riddle\", \"active\": true, "
+            + "\"affects_target\": \"false\", \"affects_player\": false, "
+            + "\"solution\": \"'Echo'\", \"value\": 50 } ],"
+            + "\"name\": \"Forward\", \"version\": \"2\","
+            + "\"items\": [ { \"name\": \"Lamp\", \"weight\": \"2\", \"max_uses\": 3, "
+            + "\"uses_remaining\": \"3\", \"value\": 10, \"when_used\": \"Light!\" },"
+            + "{ \"name\": \"Key\", \"weight\": 1, \"max_uses\": 1, \"uses_remaining\": 1 } ],"
+            + "\"fixtures\": [ { \"name\": \"Desk\", \"weight\": \"1000\", \"states\": 2 } ] }";
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(new SimpleModule().addDeserializer(GameWorld.class,
+            new GameWorldDeserializer()));
+
+    GameWorld gameWorld = mapper.readValue(json, GameWorld.class);
+
+    assertEquals("Forward", gameWorld.getName());
+    assertEquals("2", gameWorld.getVersion());
+    Room<?> hall = gameWorld.getRoom(1);
+    assertEquals(2, hall.getExits().get("N"));
+    assertEquals(-2, hall.getExits().get("E"));
+    assertEquals(0, hall.getExits().get("W"));
+    Item lamp = hall.getItem("Lamp");
+    assertEquals(2, lamp.getWeight());
+    assertEquals(3, lamp.getRemainingUses());
+    assertEquals("Light!", lamp.getWhenUsed());
+    assertEquals(2, hall.getEntity("Desk", Fixture.class).getStates());
+
+    Monster<?> bear = (Monster<?>) hall.getProblem();
+    assertTrue(bear.getActive());
+    assertTrue(bear.getCanAttack());
+    assertEquals(-5, bear.getDamage());
+    assertSame(hall.getItem("Key"), bear.getSolution());
+
+    Room<?> study = gameWorld.getRoom(2);
+    Puzzle<?> riddle = (Puzzle<?>) study.getProblem();
+    assertEquals("Echo", riddle.getSolution());
+    assertEquals(50, riddle.getValue());
+    assertTrue(riddle.getActive());
+    assertEquals(0, study.getEntities().size());
+    assertNull(study.getItem("Lamp"));
+  }
+
+  /**
+   * Test that a lazily loaded GameWorld has the same rooms as a full load.
+
+   * @throws IOException if an error occurs during deserialization
+   */
+  @Test
+  void testLazyLoadMatchesFullLoad() throws IOException {
+    GameWorld full = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    GameWorld lazy = GameDataLoader.loadGameWorldLazily("data/align_quest_game_elements.json");
+
+    assertEquals(full.getName(), lazy.getName());
+    assertEquals(full.getVersion(), lazy.getVersion());
+    // the rooms a game moves through first, then all of them
+    for (int id : new int[] {3, 1, 2}) {
+      assertEquals(full.getRoom(id).getDescription(), lazy.getRoom(id).getDescription());
+    }
+    assertSame(lazy.getRoom(1).getItem("Hair Clippers"),
+            ((Monster<?>) lazy.getRoom(3).getProblem()).getSolution());
+    assertNull(lazy.getRoom(999));
+    assertEquals(full.getRooms().keySet(), lazy.getRooms().keySet());
+    for (Room<?> room : full.getRooms().values()) {
+      Room<?> lazyRoom = lazy.getRoom(room.getId());
+      assertEquals(room.getName(), lazyRoom.getName());
+      assertEquals(room.getExits(), lazyRoom.getExits());
+      assertEquals(room.getEntities().keySet(), lazyRoom.getEntities().keySet());
+      if (room.getProblem() == null) {
+        assertNull(lazyRoom.getProblem());
+      } else {
+        assertEquals(room.getProblem().getName(), lazyRoom.getProblem().getName());
+      }
+    }
+    assertEquals(full.getItems().size(), lazy.getItems().size());
+  }
+
+  /**
+   * Test that a lazily loaded GameWorld reads a room only when it is first needed, and
+   * resolves references to entities further down the file.
+
+   * @throws IOException if an error occurs during deserialization
+   */
+  @Test
+  void testLazyLoadReadsRoomsOnDemand() throws IOException {
+    String json = "{ \"name\": \"Lazy\", \"version\": \"1\", \"rooms\": ["
+            + "{ \"room_name\": \"Hall\", \"room_number\": \"1\", \"description\": \"A hall\","
+            + " \"N\": \"2\", \"monster\": \"Bear\", \"items\": \"Key\" },"
+            + "{ \"room_name\": \"Study\", \"room_number\": 2, \"description\": \"A dusty room\","
+            + " \"S\": 1, \"items\": \"Key, Lamp\", \"fixtures\": \"Desk\" } ],"
+            + "\"monsters\": [ { \"name\": \"Bear\", \"solution\": \"Lamp\" } ],"
+            + "\"items\": [ { \"name\": \"Key\", \"weight\": 1 }, { \"name\": \"Lamp\" } ],"
+            + "\"fixtures\": [ { \"name\": \"Desk\", \"weight\": 1000 } ] }";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    GameWorld gameWorld = LazyWorldSource.load(bytes);
+    assertEquals("Lazy", gameWorld.getName());
+
+    Room<?> hall = gameWorld.getRoom(1);
+    assertEquals(2, hall.getExits().get("N"));
+    Monster<?> bear = (Monster<?>) hall.getProblem();
+
+    // the study is not read yet, so a change to its text shows once it is
+    String dusty = "A dusty room";
+    int at = json.indexOf(dusty);
+    byte[] clean = "A clean room".getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(clean, 0, bytes, at, clean.length);
+    Room<?> study = gameWorld.getRoom(2);
+    assertEquals("A clean room", study.getDescription());
+    assertSame(hall.getItem("Key"), study.getItem("Key"));
+    assertSame(bear.getSolution(), study.getItem("Lamp"));
+    assertEquals(1000, study.getEntity("Desk", Fixture.class).getWeight());
+    assertEquals(2, gameWorld.getRooms().size());
+  }
+
+  /**
+   * Test that a world loaded in parallel, in many chunks, is the world a sequential load
+   * builds.
+
+   * @throws IOException if an error occurs during deserialization
+   */
+  @Test
+  void testParallelLoadMatchesSequentialLoad() throws IOException {
+    Path file = Files.createTempFile("world-", ".json");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      WorldGenerator.write(file, 3000);
+      GameWorld sequential = GameDataLoader.loadGameWorld(file.toString());
+      GameWorld parallel = ParallelWorldLoader.load(Files.readAllBytes(file), pool);
+
+      assertEquals(sequential.getName(), parallel.getName());
+      assertEquals(sequential.getVersion(), parallel.getVersion());
+      assertEquals(sequential.getRooms().keySet(), parallel.getRooms().keySet());
+      for (Room<?> room : sequential.getRooms().values()) {
+        Room<?> parallelRoom = parallel.getRoom(room.getId());
+        assertEquals(room.getName(), parallelRoom.getName());
+        assertEquals(room.getDescription(), parallelRoom.getDescription());
+        assertEquals(room.getExits(), parallelRoom.getExits());
+        assertEquals(room.getEntities().keySet(), parallelRoom.getEntities().keySet());
+        if (room.getProblem() == null) {
+          assertNull(parallelRoom.getProblem());
+        } else {
+          assertEquals(room.getProblem().getName(), parallelRoom.getProblem().getName());
+        }
+      }
+      Monster<?> monster = (Monster<?>) parallel.getRoom(10).getProblem();
+      assertNotNull(monster.getSolution());
+    } finally {
+      pool.shutdown();
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Test a parallel load of a world whose sections refer to sections further down, and of
+   * documents it leaves to the sequential deserializer.
+
+   * @throws IOException if an error occurs during deserialization
+   */
+  @Test
+  void testParallelLoadForwardReferences() throws IOException {
+    String json = "{ \"rooms\": [ { \"room_name\": \"Hall\", \"room_number\": 1, "
+            + "\"monster\": \"Bear\", \"items\": \"Key\", \"extra\": [ \"]\\\"}\" ] }, 7 ],"
+            + "\"monsters\": [ { \"name\": \"Bear\", \"solution\": \"Key\" } ],"
+            + "\"name\": \"Forward\", \"version\": 2, \"other\": { \"rooms\": [] },"
+            + "\"items\": [ { \"name\": \"Key\", \"weight\": 1 } ] }";
+    GameWorld gameWorld = ParallelWorldLoader.load(json.getBytes(StandardCharsets.UTF_8),
+            ForkJoinPool.commonPool());
+    assertEquals("Forward", gameWorld.getName());
+    assertEquals("2", gameWorld.getVersion());
+    assertEquals(1, gameWorld.getRooms().size());
+    Room<?> hall = gameWorld.getRoom(1);
+    assertSame(hall.getItem("Key"), ((Monster<?>) hall.getProblem()).getSolution());
+
+    assertNull(ParallelWorldLoader.load("[]".getBytes(StandardCharsets.UTF_8),
+            ForkJoinPool.commonPool()));
+    assertNull(ParallelWorldLoader.load("{ \"rooms\": [ {} ".getBytes(StandardCharsets.UTF_8),
+            ForkJoinPool.commonPool()));
+  }
+}
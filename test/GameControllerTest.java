@@ -9,12 +9,19 @@ import enginedriver.IdentifiableEntity;
 import enginedriver.Item;
 import enginedriver.Player;
 import enginedriver.Room;
+import enginedriver.command.BatchResult;
+import enginedriver.command.Verb;
 import enginedriver.problems.Monster;
 import enginedriver.problems.Puzzle;
 import enginedriver.problems.validator.ItemSolutionValidator;
 import enginedriver.problems.validator.StringSolutionValidator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -28,6 +35,11 @@ public class GameControllerTest {
   private Player tempPlayer;
   private GameController gameController;
 
+  @AfterEach
+  void tearDown() throws IOException {
+    // written by SAVE
+    Files.deleteIfExists(Path.of("resources/worlds/Align Quest.TestPlayer.json"));
+  }
 
   @BeforeEach
   void setUp() {
@@ -322,6 +334,64 @@ public class GameControllerTest {
     assertEquals(2, tempPlayer.getRoomNumber());
   }
 
+  @Test
+  void testRegisterNewVerb() {
+    int[] jumps = new int[1];
+    gameController.registerCommand(command -> jumps[0]++, "JUMP", "J");
+    gameController.processCommand("jump");
+    gameController.processCommand("J over the fence");
+    assertEquals(2, jumps[0]);
+    // built-in verbs still work
+    gameController.processCommand("north");
+    assertEquals(2, tempPlayer.getRoomNumber());
+  }
+
+  @Test
+  void testReplaceBuiltInVerb() {
+    gameController.registerCommand(Verb.NORTH, command -> tempPlayer.setRoomNumber(5));
+    gameController.processCommand("N");
+    assertEquals(5, tempPlayer.getRoomNumber());
+  }
+
+  @Test
+  void testProcessBatch() {
+    BatchResult result = gameController.processBatch(
+            List.of("take hair clippers", "dance", "N", "I"));
+    assertEquals(4, result.size());
+    assertEquals(BatchResult.OK, result.getCode(0));
+    assertEquals(BatchResult.INVALID, result.getCode(1));
+    assertEquals(BatchResult.OK, result.getCode(2));
+    assertEquals(1, result.count(BatchResult.INVALID));
+    assertEquals("Invalid command.\n", result.getMessages(1));
+    assertTrue(result.getMessages(3).contains("Hair Clippers"));
+    assertTrue(result.getAllMessages().startsWith(result.getMessages(0)));
+    assertEquals(2, tempPlayer.getRoomNumber());
+  }
+
+  @Test
+  void testProcessBatchReportsRejectedCommands() {
+    BatchResult result = gameController.processBatch(
+            List.of("S", "TAKE Unicorn", "DROP Unicorn", "X Unicorn", "LOOK"));
+    assertEquals(BatchResult.REJECTED, result.getCode(0));
+    assertEquals(BatchResult.REJECTED, result.getCode(1));
+    assertEquals(BatchResult.REJECTED, result.getCode(2));
+    assertEquals(BatchResult.REJECTED, result.getCode(3));
+    assertEquals(BatchResult.OK, result.getCode(4));
+    assertEquals(4, result.count(BatchResult.REJECTED));
+    assertFalse(result.getMessages(1).isEmpty());
+    assertEquals(1, tempPlayer.getRoomNumber());
+  }
+
+  @Test
+  void testProcessBatchStopsWhenGameIsOver() {
+    BatchResult result = gameController.processBatch(List.of("Q", "N"));
+    assertEquals(BatchResult.OK, result.getCode(0));
+    assertEquals(BatchResult.GAME_OVER, result.getCode(1));
+    assertEquals("", result.getMessages(1));
+    assertTrue(gameController.isGameOver());
+    assertEquals(1, tempPlayer.getRoomNumber());
+  }
+
   @Test
   void testTakeItem() {
     gameController.processCommand("TAKE Hair Clippers");
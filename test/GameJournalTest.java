@@ -0,0 +1,144 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import binio.GameJournal;
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for GameJournal.
+ */
+public class GameJournalTest {
+  private static final Path JOURNAL = Path.of("resources/players/Bob.journal");
+
+  private final StringBuilder output = new StringBuilder();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    Files.deleteIfExists(JOURNAL);
+  }
+
+  private GameController newGame() throws Exception {
+    GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    return new GameController(gameWorld, new Player("Bob", 100, 20, 0), new Viewer(output));
+  }
+
+  private void run(GameController controller, String... commands) {
+    for (String command : commands) {
+      controller.processCommand(command);
+    }
+  }
+
+  @Test
+  void testSavesOnlyChanges() throws Exception {
+    GameController controller = newGame();
+    run(controller, "TAKE Hair Clippers", "N", "TAKE Thumb Drive", "TAKE Modulo 2",
+            "SAVE JOURNAL");
+    assertTrue(output.toString().contains("Game saved successfully in Bob.journal"));
+    long snapshotSize = Files.size(JOURNAL);
+
+    run(controller, "N", "USE Hair Clippers", "E", "USE Modulo 2", "DROP Thumb Drive",
+            "SAVE JOURNAL");
+    long changesSize = Files.size(JOURNAL) - snapshotSize;
+    assertTrue(changesSize > 0 && changesSize < 200, changesSize + " bytes of changes");
+
+    GameController restored = newGame();
+    run(restored, "RESTORE JOURNAL");
+    assertTrue(output.toString().contains("Game restored successfully from Bob.journal"),
+            output.toString());
+    Player player = restored.getPlayer();
+    Player expected = controller.getPlayer();
+    assertEquals(4, player.getRoomNumber());
+    assertEquals(expected.getHealth(), player.getHealth());
+    assertTrue(player.getHealth() < 100);
+    assertEquals(expected.getScore(), player.getScore());
+    assertEquals(expected.getCurrentWeight(), player.getCurrentWeight());
+    assertNull(player.getEntity("Thumb Drive", Item.class));
+    assertEquals(3, player.getEntity("Hair Clippers", Item.class).getRemainingUses());
+    assertEquals(9, player.getEntity("Modulo 2", Item.class).getRemainingUses());
+
+    GameWorld gameWorld = restored.getGameWorld();
+    assertNotNull(gameWorld.getRoom(4).getItem("Thumb Drive"));
+    assertNull(gameWorld.getRoom(1).getItem("Hair Clippers"));
+    assertFalse(gameWorld.getRoom(3).getProblem().getActive());
+    assertFalse(gameWorld.getRoom(4).getProblem().getActive());
+    assertEquals(5, gameWorld.getRoom(4).getExits().get("E"));
+  }
+
+  @Test
+  void testDropsEntryCutShort() throws Exception {
+    GameController controller = newGame();
+    run(controller, "TAKE Hair Clippers", "SAVE JOURNAL", "N", "SAVE JOURNAL");
+    long goodSize = Files.size(JOURNAL);
+    // a crash in the middle of writing an entry
+    Files.write(JOURNAL, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    GameController restored = newGame();
+    run(restored, "RESTORE JOURNAL");
+    assertEquals(2, restored.getPlayer().getRoomNumber());
+    assertEquals(goodSize, Files.size(JOURNAL));
+
+    // later saves go on after the last good entry
+    run(restored, "TAKE Modulo 2", "SAVE JOURNAL");
+    GameController again = newGame();
+    run(again, "RESTORE JOURNAL");
+    assertNotNull(again.getPlayer().getEntity("Modulo 2", Item.class));
+    assertNull(again.getGameWorld().getRoom(2).getItem("Modulo 2"));
+  }
+
+  @Test
+  void testCompactsWhenChangesOutgrowSnapshot() throws Exception {
+    GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    Player player = new Player("Bob", 100, 20, 0);
+    GameJournal journal = new GameJournal(JOURNAL);
+    journal.commit(gameWorld, player);
+    assertEquals(1, journal.getCompactionCount());
+
+    Room<?> courtyard = gameWorld.getRoom(1);
+    Item clippers = courtyard.getItem("Hair Clippers");
+    for (int i = 0; i < 1000; i++) {
+      courtyard.removeEntity(clippers);
+      player.addItem(clippers);
+      journal.itemTaken(courtyard, clippers);
+      player.removeItem(clippers);
+      courtyard.addEntity(clippers);
+      journal.itemDropped(courtyard, clippers);
+      assertEquals(2, journal.getPendingCount());
+      journal.commit(gameWorld, player);
+    }
+    assertTrue(journal.getCompactionCount() > 1);
+    assertTrue(Files.size(JOURNAL) < 2 * 8192, Files.size(JOURNAL) + " bytes");
+
+    GameJournal.State state = new GameJournal(JOURNAL).restore();
+    assertNotNull(state.getGameWorld().getRoom(1).getItem("Hair Clippers"));
+    assertTrue(state.getPlayer().getEntities().isEmpty());
+  }
+
+  @Test
+  void testCompactsAfterReset() throws Exception {
+    GameController controller = new GameController(new GameSnapshot(
+            WorldTemplate.load("data/align_quest_game_elements.json"),
+            new Player("Bob", 100, 20, 0)), new Viewer(output));
+    run(controller, "TAKE Hair Clippers", "SAVE JOURNAL", "RESET", "SAVE JOURNAL");
+    GameController restored = newGame();
+    run(restored, "RESTORE JOURNAL");
+    // the journal starts over from the state the game was restored to
+    assertNotNull(restored.getGameWorld().getRoom(1).getItem("Hair Clippers"));
+    assertTrue(restored.getPlayer().getEntities().isEmpty());
+  }
+}
@@ -0,0 +1,161 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.server.GameServer;
+import enginedriver.server.LoadClient;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saveio.SaveWriter;
+
+/**
+ * Test class for GameServer.
+ */
+public class GameServerTest {
+
+  private GameServer server;
+  private InetSocketAddress address;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new GameServer((name, viewer) -> {
+      GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+      return new GameController(gameWorld, new Player(name, 100, 20, 0), viewer);
+    }, 2);
+    int port = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void testLineProtocol() throws Exception {
+    try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+      socket.setSoTimeout(10000);
+      OutputStream out = socket.getOutputStream();
+      // name and commands split across writes, with telnet line endings
+      out.write("Ali".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      out.write("ce\r\ntake hair clippers\r\nN\nQ\n".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+
+      String text = readAll(socket.getInputStream());
+      assertTrue(text.startsWith("Welcome! Enter your name:\n> Your name is: Alice\n> "));
+      assertTrue(text.contains("Hair Clippers"));
+      assertTrue(text.endsWith("Quitting...\nGoodbye.\n"));
+    }
+    waitForConnections(0);
+    assertEquals(3, server.getProcessedCommands());
+    assertEquals(1, server.getAcceptedConnections());
+  }
+
+  @Test
+  void testHostileName() throws Exception {
+    try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+      socket.setSoTimeout(10000);
+      socket.getOutputStream().write("../../evil\nL\n".getBytes(StandardCharsets.UTF_8));
+
+      String text = readAll(socket.getInputStream());
+      assertTrue(text.endsWith("Invalid name: use 1 to 32 letters, digits, '_' or '-'.\n"));
+    }
+    waitForConnections(0);
+    assertEquals(0, server.getProcessedCommands());
+  }
+
+  @Test
+  void testRestoreWaitsForSaveWriter() throws Exception {
+    SaveWriter saveWriter = new SaveWriter();
+    GameServer saving = new GameServer((name, viewer) -> {
+      GameController controller = new GameController(
+              GameDataLoader.loadGameWorld("data/align_quest_game_elements.json"),
+              new Player(name, 100, 20, 0), viewer);
+      controller.setSaveWriter(saveWriter);
+      return controller;
+    }, 1);
+    try {
+      int port = saving.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+        socket.setSoTimeout(10000);
+        // the commands after RESTORE arrive with it and run once its files are read
+        socket.getOutputStream().write(("Ann\nTAKE hair clippers\nSAVE BINARY\n"
+                + "DROP hair clippers\nRESTORE BINARY\nI\nQ\n").getBytes(StandardCharsets.UTF_8));
+
+        String text = readAll(socket.getInputStream());
+        String restored = "Game restored successfully from Align Quest.Ann.bin and Ann.bin\n> ";
+        assertTrue(text.contains(restored), text);
+        assertTrue(text.substring(text.indexOf(restored))
+                .contains("Items in your inventory: \nHair Clippers"), text);
+        assertTrue(text.endsWith("Quitting...\nGoodbye.\n"), text);
+      }
+      assertEquals(6, saving.getProcessedCommands());
+    } finally {
+      saving.close();
+      saveWriter.close();
+      Files.deleteIfExists(Path.of("resources/worlds/Align Quest.Ann.bin"));
+      Files.deleteIfExists(Path.of("resources/players/Ann.bin"));
+    }
+  }
+
+  @Test
+  void testClientDisconnects() throws Exception {
+    try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+      socket.setSoTimeout(10000);
+      socket.getOutputStream().write("Bob\nL\n".getBytes(StandardCharsets.UTF_8));
+      // the server has the connection once its greeting arrives
+      assertTrue(socket.getInputStream().read() > 0);
+    }
+    waitForConnections(0);
+    assertEquals(1, server.getAcceptedConnections());
+  }
+
+  @Test
+  void testManyClients() throws Exception {
+    LoadClient client = new LoadClient(address, List.of("L", "I", "X"));
+    long[] latencies = client.run(50, 10);
+    assertEquals(50 * 10 * 3, latencies.length);
+    waitForConnections(0);
+    assertEquals(50 * 10 * 3 + 50, server.getProcessedCommands());
+    assertEquals(50, server.getAcceptedConnections());
+  }
+
+  @Test
+  void testClientsEndingEarlyReportOnlyTheirCommands() throws Exception {
+    LoadClient client = new LoadClient(address, List.of("L", "Q", "I"));
+    long[] latencies = client.run(5, 3);
+    // every game ends at the QUIT, after the LOOK
+    assertEquals(5, latencies.length);
+    assertTrue(latencies[0] > 0);
+    waitForConnections(0);
+  }
+
+  private static String readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    in.transferTo(bytes);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  private void waitForConnections(int open) throws InterruptedException {
+    for (int i = 0; i < 500 && server.getOpenConnections() != open; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(open, server.getOpenConnections());
+  }
+}
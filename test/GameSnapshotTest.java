@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.Direction;
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for GameSnapshot.
+ */
+public class GameSnapshotTest {
+  // SAVE also writes these files, which are deleted after each test
+  private static final Path WORLD_SAVE = Path.of("resources/worlds/Align Quest.Bob.json");
+  private static final Path PLAYER_SAVE = Path.of("resources/players/Bob.json");
+
+  private WorldTemplate template;
+  private StringBuilder output;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    template = WorldTemplate.load("data/align_quest_game_elements.json");
+    output = new StringBuilder();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    Files.deleteIfExists(WORLD_SAVE);
+    Files.deleteIfExists(PLAYER_SAVE);
+  }
+
+  @Test
+  void testCaptureAndRestore() {
+    GameWorld gameWorld = template.newWorld();
+    Player player = new Player("Alice", 100, 20, 0);
+    Item clippers = gameWorld.getRoom(1).getItem("Hair Clippers");
+    gameWorld.getRoom(1).removeEntity(clippers);
+    player.addItem(clippers);
+    player.setRoomNumber(2);
+    player.setScore(30);
+
+    GameSnapshot snapshot = GameSnapshot.capture(gameWorld, player);
+    player.removeItem(clippers);
+    player.setScore(0);
+    gameWorld.getRoom(4).setExit(Direction.EAST, 5);
+
+    Player restoredPlayer = snapshot.newPlayer();
+    GameWorld restoredWorld = snapshot.newWorld();
+    assertEquals("Alice", restoredPlayer.getName());
+    assertEquals(2, restoredPlayer.getRoomNumber());
+    assertEquals(30, restoredPlayer.getScore());
+    assertEquals(clippers.getWeight(), restoredPlayer.getCurrentWeight());
+    Item restoredClippers = restoredPlayer.getEntity("hair clippers", Item.class);
+    assertNotNull(restoredClippers);
+    assertNotSame(clippers, restoredClippers);
+    assertNull(restoredWorld.getRoom(1).getItem("Hair Clippers"));
+    assertEquals(-5, restoredWorld.getRoom(4).getExits().get("E"));
+
+    // every restore starts from the same state
+    restoredWorld.getRoom(4).setExit(Direction.EAST, 5);
+    assertEquals(-5, snapshot.newWorld().getRoom(4).getExits().get("E"));
+  }
+
+  @Test
+  void testSaveAndRestoreInMemory() {
+    GameController controller = new GameController(
+            new GameSnapshot(template, new Player("Bob", 100, 20, 0)), new Viewer(output));
+    controller.processCommand("take hair clippers");
+    controller.processCommand("save");
+    controller.processCommand("N");
+    controller.processCommand("drop hair clippers");
+    controller.processCommand("restore");
+
+    assertTrue(output.toString().endsWith("Game restored successfully.\n"));
+    assertEquals(1, controller.getPlayer().getRoomNumber());
+    assertTrue(controller.getPlayer().hasEntity("Hair Clippers"));
+    assertFalse(controller.getGameWorld().getRoom(2).hasEntity("Hair Clippers"));
+  }
+
+  @Test
+  void testReset() {
+    GameController controller = new GameController(
+            new GameSnapshot(template, new Player("Carol", 100, 20, 0)), new Viewer(output));
+    controller.processCommand("take hair clippers");
+    controller.processCommand("N");
+    controller.processCommand("reset");
+
+    assertTrue(output.toString().endsWith("The game starts again.\n"));
+    assertEquals(1, controller.getPlayer().getRoomNumber());
+    assertEquals(0, controller.getPlayer().getScore());
+    assertFalse(controller.getPlayer().hasEntity("Hair Clippers"));
+    assertTrue(controller.getGameWorld().getRoom(1).hasEntity("Hair Clippers"));
+
+    GameController plain = new GameController(template.newWorld(),
+            new Player("Dan", 100, 20, 0), new Viewer(output));
+    plain.processCommand("reset");
+    assertTrue(output.toString().endsWith("This game cannot be reset.\n"));
+  }
+}
@@ -1,11 +1,22 @@
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
+import enginedriver.Fixture;
+import enginedriver.GameController;
 import enginedriver.GameWorld;
+import enginedriver.IdentifiableEntity;
+import enginedriver.Item;
+import enginedriver.Player;
 import enginedriver.Room;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import jsonio.GameDataLoader;
+import jsonio.GameDataSaver;
 
 
 /**
@@ -114,6 +125,199 @@ public class GameWorldTest {
     assertEquals(room2, gw.getRoom(2));
     // Non-existent ID
     assertNull(gw.getRoom(999));
+    assertNull(gw.getRoom(0));
+    assertNull(gw.getRoom(Integer.MIN_VALUE));
+
+    // Sparse room numbers
+    Map<Integer, Room> sparse = new HashMap<>();
+    sparse.put(-5, room1);
+    sparse.put(1_000_000, room2);
+    gw.setRooms(sparse);
+    assertEquals(room1, gw.getRoom(-5));
+    assertEquals(room2, gw.getRoom(1_000_000));
+    assertNull(gw.getRoom(1));
+    assertNull(gw.getRoom(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Test findItem() and getItemRoom().
+   */
+  @Test
+  void testFindItem() throws Exception {
+    GameWorld gw = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    Item clippers = gw.findItem("Hair Clippers");
+    assertSame(gw.getRoom(1).getItem("Hair Clippers"), clippers);
+    assertSame(gw.getRoom(1), gw.getItemRoom(clippers));
+    assertNull(gw.findItem("Unicorn"));
+    assertNull(gw.getItemRoom(new Item("Lamp", "desc", 1, 1, 1, 1, "used")));
+
+    // a world whose rooms are loaded on demand finds the items of rooms not loaded yet
+    GameWorld session = WorldTemplate.copyOf(gw).newWorld();
+    Item sessionClippers = session.findItem("Hair Clippers");
+    assertNotSame(clippers, sessionClippers);
+    assertSame(session.getRoom(1).getItem("Hair Clippers"), sessionClippers);
+  }
+
+  /**
+   * Test that the item index follows the items taken and dropped in a game.
+   */
+  @Test
+  void testItemIndexFollowsTakeAndDrop() throws Exception {
+    GameWorld gw = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    GameController controller = new GameController(gw, new Player("Bob", 100, 20, 0),
+            new Viewer(new StringBuilder()));
+    Item clippers = gw.findItem("Hair Clippers");
+
+    controller.processCommand("TAKE Hair Clippers");
+    assertSame(clippers, controller.getPlayer().getEntity("Hair Clippers", Item.class));
+    assertSame(clippers, gw.findItem("Hair Clippers"));
+    assertNull(gw.getItemRoom(clippers));
+
+    controller.processCommand("N");
+    controller.processCommand("DROP Hair Clippers");
+    Room<?> room = gw.getRoom(controller.getPlayer().getRoomNumber());
+    assertSame(room, gw.getItemRoom(clippers));
+    assertSame(clippers, room.getItem("Hair Clippers"));
+  }
+
+  /**
+   * Test getItems(), getFixtures(), getMonsters(), getPuzzles() and getEntityRoom().
+   */
+  @Test
+  void testWorldIndices() throws Exception {
+    GameWorld gw = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    assertEquals(10, gw.getItems().size());
+    assertEquals(10, gw.getFixtures().size());
+    assertEquals(2, gw.getMonsters().size());
+    assertEquals(4, gw.getPuzzles().size());
+    assertSame(gw.getItems(), gw.getItems());
+    assertThrows(UnsupportedOperationException.class, () -> gw.getItems().clear());
+    assertSame(gw.getRoom(3), gw.getEntityRoom(gw.getRoom(3).getProblem()));
+    assertSame(gw.getRoom(1), gw.getEntityRoom(gw.getRoom(1).getEntity("Billboard",
+            Fixture.class)));
+    assertNull(gw.getEntityRoom("Billboard"));
+
+    GameController controller = new GameController(gw, new Player("Bob", 100, 20, 0),
+            new Viewer(new StringBuilder()));
+    Item clippers = gw.findItem("Hair Clippers");
+    controller.processCommand("TAKE Hair Clippers");
+    assertEquals(9, gw.getItems().size());
+    assertFalse(gw.getItems().contains(clippers));
+    controller.processCommand("DROP Hair Clippers");
+    assertTrue(gw.getItems().contains(clippers));
+    assertSame(gw.getRoom(1), gw.getEntityRoom(clippers));
+
+    // a world whose rooms are loaded on demand loads them all to list its entities
+    GameWorld session = WorldTemplate.copyOf(gw).newWorld();
+    assertEquals(10, session.getItems().size());
+    assertEquals(2, session.getMonsters().size());
   }
 
+  /**
+   * Test that an item listed in several rooms stays indexed, and saved, when it is taken
+   * from one of them.
+   */
+  @Test
+  void testSharedItemSurvivesTake() throws Exception {
+    Item lamp = new Item("Lamp", "An oil lamp", 1, 1, 1, 1, "It glows.");
+    Map<String, IdentifiableEntity> hallEntities = new HashMap<>();
+    hallEntities.put("Lamp", lamp);
+    Map<String, IdentifiableEntity> cellarEntities = new HashMap<>();
+    cellarEntities.put("Lamp", lamp);
+    Map<Integer, Room> rooms = new HashMap<>();
+    rooms.put(1, new Room<>(1, "Hall", "A hall", Map.of("N", 2), hallEntities));
+    rooms.put(2, new Room<>(2, "Cellar", "A cellar", Map.of("S", 1), cellarEntities));
+    GameWorld gw = new GameWorld("Shared", "1.0", rooms);
+    assertEquals(1, gw.getItems().size());
+    assertSame(gw.getRoom(1), gw.getItemRoom(lamp));
+
+    GameController controller = new GameController(gw, new Player("Bob", 100, 20, 0),
+            new Viewer(new StringBuilder()));
+    controller.processCommand("TAKE Lamp");
+    assertSame(lamp, controller.getPlayer().getEntity("Lamp", Item.class));
+    assertTrue(gw.getItems().contains(lamp));
+    assertSame(gw.getRoom(2), gw.getItemRoom(lamp));
+
+    Path saved = Path.of("resources/worlds/Shared.Bob.json");
+    try {
+      GameDataSaver.saveGameJson("Shared.Bob.json", gw);
+      GameWorld loaded = GameDataLoader.loadGameWorld("Shared.Bob.json");
+      assertNull(loaded.getRoom(1).getItem("Lamp"));
+      Item loadedLamp = loaded.getRoom(2).getItem("Lamp");
+      assertNotNull(loadedLamp);
+      assertEquals("It glows.", loadedLamp.getWhenUsed());
+      assertSame(loaded.getRoom(2), loaded.getItemRoom(loadedLamp));
+    } finally {
+      Files.deleteIfExists(saved);
+    }
+
+    controller.processCommand("N");
+    controller.processCommand("TAKE Lamp");
+    assertTrue(gw.getItems().isEmpty());
+    assertNull(gw.getItemRoom(lamp));
+    controller.processCommand("DROP Lamp");
+    assertSame(gw.getRoom(2), gw.getItemRoom(lamp));
+  }
+
+  /**
+   * Test that taking one of two items whose names differ only in case leaves the other
+   * one findable.
+   */
+  @Test
+  void testTakeLeavesItemWithSameNormalizedName() {
+    Map<String, IdentifiableEntity> entities = new HashMap<>();
+    entities.put("Key", new Item("Key", "A brass key", 1, 1, 1, 1, "It turns."));
+    entities.put("key", new Item("key", "A small key", 1, 1, 1, 1, "It clicks."));
+    Map<Integer, Room> rooms = new HashMap<>();
+    rooms.put(1, new Room<>(1, "Hall", "A hall", Map.of("N", 0), entities));
+    GameWorld gw = new GameWorld("Keys", "1.0", rooms);
+    GameController controller = new GameController(gw, new Player("Bob", 100, 20, 0),
+            new Viewer(new StringBuilder()));
+
+    controller.processCommand("TAKE KEY");
+    Room<?> hall = gw.getRoom(1);
+    assertEquals(1, hall.getEntities().size());
+    Item left = (Item) hall.getEntities().values().iterator().next();
+    assertTrue(hall.hasEntity("key"));
+    assertSame(left, hall.getItem("KEY"));
+
+    controller.processCommand("TAKE KEY");
+    assertTrue(hall.getEntities().isEmpty());
+    assertEquals(2, controller.getPlayer().getEntities().size());
+  }
+
+  /**
+   * Test that the indices follow entities added to and removed from the rooms directly.
+   */
+  @Test
+  void testIndexFollowsRoomChanges() throws Exception {
+    GameWorld gw = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+    Room<?> courtyard = gw.getRoom(1);
+    Item clippers = courtyard.getItem("Hair Clippers");
+    Fixture billboard = courtyard.getEntity("Billboard", Fixture.class);
+
+    courtyard.removeEntity(clippers);
+    assertNull(gw.getItemRoom(clippers));
+    assertSame(clippers, gw.findItem("Hair Clippers"));
+    gw.getRoom(2).addEntity(clippers);
+    assertSame(gw.getRoom(2), gw.getItemRoom(clippers));
+
+    Map<String, IdentifiableEntity> entities = new HashMap<>();
+    entities.put("Hair Clippers", clippers);
+    courtyard.setEntities(entities);
+    assertNull(gw.getEntityRoom(billboard));
+    assertFalse(gw.getFixtures().contains(billboard));
+    gw.getRoom(2).removeEntity(clippers);
+    assertSame(courtyard, gw.getItemRoom(clippers));
+
+    // rooms replaced by others no longer change the indices
+    Room<?> hall = new Room<>(1, "Hall", "A hall", Map.of("N", 1), new HashMap<>());
+    Map<Integer, Room> rooms = new HashMap<>();
+    rooms.put(1, hall);
+    gw.setRooms(rooms);
+    courtyard.removeEntity(clippers);
+    hall.addEntity(clippers);
+    assertSame(hall, gw.getItemRoom(clippers));
+    assertEquals(1, gw.getItems().size());
+  }
 }
@@ -0,0 +1,81 @@
+import binio.BinaryCodec;
+import binio.GameJournal;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import jsonio.GameDataLoader;
+
+/**
+ * Benchmark for saving a game often on a large generated world, comparing a full binary
+ * snapshot per save with a GameJournal save of the changes made since the last one.
+ * Between two saves the player takes an item and drops it in the next room. Both kinds of
+ * save are forced to disk. Run with
+ * java -cp "lib/*:out" JournalSaveBenchmark [rooms] [saves].
+ */
+public class JournalSaveBenchmark {
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the number of rooms, 100000 by default, and of saves, 200 by default
+   * @throws Exception if a file cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int saves = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    Path worldFile = Files.createTempFile("world-" + rooms + "-", ".json");
+    Path snapshotFile = Files.createTempFile("snapshot-", ".bin");
+    Path journalFile = Files.createTempFile("journal-", ".journal");
+    try {
+      WorldGenerator.write(worldFile, rooms);
+      GameWorld gameWorld = GameDataLoader.loadGameWorld(worldFile.toString());
+      Player player = new Player("Bench", 100, 1_000_000, 0);
+      GameJournal journal = new GameJournal(journalFile);
+      journal.commit(gameWorld, player);
+
+      long snapshotNanos = 0;
+      long journalNanos = 0;
+      for (int i = 1; i <= saves; i++) {
+        Room<?> room = gameWorld.getRoom(i);
+        Item item = room.getItem("Item " + i);
+        room.removeEntity(item);
+        player.addItem(item);
+        journal.itemTaken(room, item);
+        Room<?> next = gameWorld.getRoom(i + 1);
+        player.removeItem(item);
+        next.addEntity(item);
+        journal.itemDropped(next, item);
+        player.setRoomNumber(i + 1);
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+          BinaryCodec.writeWorld(gameWorld, channel);
+          BinaryCodec.writePlayer(player, channel);
+          channel.force(false);
+        }
+        snapshotNanos += System.nanoTime() - start;
+
+        start = System.nanoTime();
+        journal.commit(gameWorld, player);
+        journalNanos += System.nanoTime() - start;
+      }
+
+      System.out.printf("%,d rooms, %,d saves%n", rooms, saves);
+      System.out.printf("  full snapshot: %,10d us per save, %,11d bytes written each%n",
+              snapshotNanos / saves / 1000, Files.size(snapshotFile));
+      System.out.printf("  journal:       %,10d us per save, %,11d bytes of journal, "
+              + "%d compactions%n", journalNanos / saves / 1000, Files.size(journalFile),
+              journal.getCompactionCount());
+    } finally {
+      Files.delete(worldFile);
+      Files.delete(snapshotFile);
+      Files.delete(journalFile);
+    }
+  }
+}
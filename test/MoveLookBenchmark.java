@@ -0,0 +1,63 @@
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jsonio.GameDataLoader;
+
+/**
+ * Microbenchmark for the room lookups of a game: the throughput of a player walking back
+ * and forth between rooms and looking around, and of GameWorld.getRoom alone over every
+ * room of a generated world. Run with
+ * java -cp "lib/*:out" MoveLookBenchmark [rooms].
+ */
+public class MoveLookBenchmark {
+  private static final String[] WALK = {"N", "LOOK", "N", "LOOK", "S", "LOOK", "S", "LOOK"};
+  private static final int COMMANDS = 2_000_000;
+  private static final int LOOKUPS = 50_000_000;
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the number of rooms of the world, 10000 by default
+   * @throws Exception if the world cannot be written or loaded
+   */
+  public static void main(String[] args) throws Exception {
+    int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    Path file = Files.createTempFile("world-" + rooms + "-", ".json");
+    GameWorld gameWorld;
+    try {
+      WorldGenerator.write(file, rooms);
+      gameWorld = GameDataLoader.loadGameWorld(file.toString());
+    } finally {
+      Files.delete(file);
+    }
+    StringBuilder output = new StringBuilder();
+    Player player = new Player("Bench", 100, 20, 0);
+    // rooms 101 to 103 hold no monster or puzzle
+    player.setRoomNumber(101);
+    GameController controller = new GameController(gameWorld, player, new Viewer(output));
+
+    long checksum = 0;
+    for (int pass = 0; pass < 3; pass++) {
+      // the first pass warms up the JIT
+      long start = System.nanoTime();
+      for (int i = 0; i < COMMANDS; i++) {
+        controller.processCommand(WALK[i & 7]);
+        output.setLength(0);
+      }
+      long commandNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < LOOKUPS; i++) {
+        checksum += gameWorld.getRoom(1 + i % rooms).getId();
+      }
+      long lookupNanos = System.nanoTime() - start;
+
+      System.out.printf("move/look: %,.0f commands/s   getRoom: %.2f ns per lookup%n",
+              COMMANDS / (commandNanos / 1e9), (double) lookupNanos / LOOKUPS);
+    }
+    System.out.println("checksum " + checksum + ", room " + player.getRoomNumber());
+  }
+}
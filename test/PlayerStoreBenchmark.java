@@ -0,0 +1,106 @@
+import binio.PlayerStore;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import jsonio.GameDataLoader;
+import jsonio.GameDataSaver;
+
+/**
+ * Benchmark for a PlayerStore of many players: inserting them, looking them up at random,
+ * updating them in place and reopening the store, which rebuilds its index. For
+ * comparison a sample of the players is also saved and loaded as one JSON file each.
+ * Run with java -cp "lib/*:out" PlayerStoreBenchmark [players] [json players].
+ */
+public class PlayerStoreBenchmark {
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the number of players, 1000000 by default, and of players saved as JSON,
+   *             10000 by default
+   * @throws Exception if a file cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    int players = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int jsonPlayers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    Path folder = Files.createTempDirectory("player-store");
+    Path file = folder.resolve("players.store");
+    Random random = new Random(42);
+    try {
+      long start = System.nanoTime();
+      try (PlayerStore store = new PlayerStore(file)) {
+        for (int i = 0; i < players; i++) {
+          store.put(newPlayer(i));
+        }
+        store.flush();
+        report("insert", players, start);
+
+        start = System.nanoTime();
+        long score = 0;
+        for (int i = 0; i < players; i++) {
+          score += store.get("Player " + random.nextInt(players)).getScore();
+        }
+        report("lookup", players, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+          Player player = newPlayer(random.nextInt(players));
+          player.addScore(1);
+          store.put(player);
+        }
+        store.flush();
+        report("update", players, start);
+        System.out.printf("%d bytes, %d free, checksum %d%n", store.getDataSize(),
+                store.getFreeBytes(), score);
+      }
+
+      start = System.nanoTime();
+      try (PlayerStore store = new PlayerStore(file)) {
+        System.out.printf("reopen: %.1f ms for %d players%n",
+                (System.nanoTime() - start) / 1e6, store.size());
+      }
+
+      // the same players as one JSON file each, the way GameDataSaver keeps them
+      GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+      String prefix = "bench-" + ProcessHandle.current().pid() + "-";
+      try {
+        start = System.nanoTime();
+        for (int i = 0; i < jsonPlayers; i++) {
+          GameDataSaver.savePlayerJson(prefix + i + ".json", newPlayer(i));
+        }
+        report("json save", jsonPlayers, start);
+        start = System.nanoTime();
+        for (int i = 0; i < jsonPlayers; i++) {
+          GameDataLoader.loadPlayer(prefix + random.nextInt(jsonPlayers) + ".json", gameWorld);
+        }
+        report("json load", jsonPlayers, start);
+      } finally {
+        for (int i = 0; i < jsonPlayers; i++) {
+          Files.deleteIfExists(Path.of("resources/players/" + prefix + i + ".json"));
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(folder);
+    }
+  }
+
+  private static Player newPlayer(int i) {
+    Player player = new Player("Player " + i, 100, 20, i % 1000);
+    player.setRoomNumber(1 + i % 50);
+    if (i % 4 == 0) {
+      player.addItem(new Item("Hair Clippers", "A pair of clippers", 10, 4, 2, 5,
+              "You activate the clippers."));
+    }
+    return player;
+  }
+
+  private static void report(String operation, int count, long start) {
+    double nanos = System.nanoTime() - start;
+    System.out.printf("%s: %.2f us per player, %.0f players/s%n", operation,
+            nanos / count / 1e3, count / (nanos / 1e9));
+  }
+}
@@ -0,0 +1,250 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import binio.PlayerStore;
+import enginedriver.GameController;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PlayerStore.
+ */
+public class PlayerStoreTest {
+  private Path folder;
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    folder = Files.createTempDirectory("players");
+    file = folder.resolve("players.store");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (var files = Files.list(folder)) {
+      for (Path path : files.toList()) {
+        Files.delete(path);
+      }
+    }
+    Files.delete(folder);
+  }
+
+  @Test
+  void testPutAndGet() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      Player bob = new Player("Bob", 80, 20, 15);
+      bob.setRoomNumber(3);
+      bob.addItem(new Item("Lamp", "A lamp", 1, 2, 3, 4, "used"));
+      store.put(bob);
+      store.put(new Player("Alice", 100, 20, 0));
+
+      Player restored = store.get("Bob");
+      assertEquals("Bob", restored.getName());
+      assertEquals(80, restored.getHealth());
+      assertEquals(15, restored.getScore());
+      assertEquals(3, restored.getRoomNumber());
+      assertTrue(restored.hasEntity("Lamp"));
+      assertEquals("Alice", store.get("Alice").getName());
+      assertNull(store.get("Carol"));
+      assertEquals(2, store.size());
+    }
+  }
+
+  @Test
+  void testUpdatesWriteANewRecord() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      Player bob = new Player("Bob", 100, 20, 0);
+      store.put(bob);
+      long size = store.getDataSize();
+      bob.addScore(10);
+      store.put(bob);
+      assertTrue(store.getDataSize() > size);
+      assertTrue(store.getFreeBytes() > 0);
+      assertEquals(10, store.get("Bob").getScore());
+
+      // the next update goes to the slot the first record left free
+      size = store.getDataSize();
+      bob.addScore(5);
+      store.put(bob);
+      assertEquals(size, store.getDataSize());
+      assertEquals(15, store.get("Bob").getScore());
+
+      // a record outgrowing the free slots goes to the end of the file
+      for (int i = 0; i < 5; i++) {
+        bob.addItem(new Item("Item " + i, "A long description of item " + i, 1, 1, 1, 1,
+                "used"));
+      }
+      store.put(bob);
+      assertTrue(store.getDataSize() > size);
+      assertEquals(5, store.get("Bob").getEntities().size());
+      assertEquals(1, store.size());
+    }
+  }
+
+  @Test
+  void testReusesFreeSlots() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      store.put(new Player("Alice", 100, 20, 0));
+      store.put(new Player("Bob", 100, 20, 0));
+      long size = store.getDataSize();
+      assertTrue(store.remove("Alice"));
+      assertFalse(store.remove("Alice"));
+      assertFalse(store.contains("Alice"));
+      assertTrue(store.getFreeBytes() > 0);
+
+      store.put(new Player("Carol", 100, 20, 0));
+      assertEquals(size, store.getDataSize());
+      assertEquals(0, store.getFreeBytes());
+      assertEquals("Carol", store.get("Carol").getName());
+      assertEquals("Bob", store.get("Bob").getName());
+    }
+  }
+
+  @Test
+  void testReopensWithTheSamePlayers() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      for (int i = 0; i < 3000; i++) {
+        store.put(new Player("Player " + i, 100, 20, i));
+      }
+      for (int i = 0; i < 3000; i += 3) {
+        store.remove("Player " + i);
+      }
+    }
+    try (PlayerStore store = new PlayerStore(file)) {
+      assertEquals(2000, store.size());
+      for (int i = 0; i < 3000; i++) {
+        Player player = store.get("Player " + i);
+        if (i % 3 == 0) {
+          assertNull(player);
+        } else {
+          assertEquals(i, player.getScore());
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCompactGivesBackFreeSpace() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      for (int i = 0; i < 1000; i++) {
+        store.put(new Player("Player " + i, 100, 20, i));
+      }
+      long size = store.getDataSize();
+      for (int i = 0; i < 1000; i += 2) {
+        store.remove("Player " + i);
+      }
+      store.compact();
+      assertEquals(0, store.getFreeBytes());
+      assertTrue(store.getDataSize() < size * 2 / 3);
+      assertEquals(500, store.size());
+      assertEquals(999, store.get("Player 999").getScore());
+      store.put(new Player("Player 0", 100, 20, 7));
+      assertEquals(7, store.get("Player 0").getScore());
+    }
+    try (PlayerStore store = new PlayerStore(file)) {
+      assertEquals(501, store.size());
+      assertEquals(1, store.get("Player 1").getScore());
+    }
+  }
+
+  @Test
+  void testDropsTornRecord() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      store.put(new Player("Alice", 100, 20, 1));
+      store.put(new Player("Bob", 100, 20, 2));
+    }
+    // scramble the last byte of Bob's record, as if the update never finished
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(16);
+      channel.read(header, 0);
+      long end = header.getLong(8);
+      ByteBuffer slot = ByteBuffer.allocate(12);
+      long position = 16;
+      long last = position;
+      while (position < end) {
+        slot.clear();
+        channel.read(slot, position);
+        last = position;
+        position += 12 + slot.getInt(0);
+      }
+      slot.clear();
+      channel.read(slot, last);
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), last + 12 + slot.getInt(4) - 1);
+    }
+    try (PlayerStore store = new PlayerStore(file)) {
+      assertEquals(1, store.size());
+      assertEquals(1, store.get("Alice").getScore());
+      assertNull(store.get("Bob"));
+      assertTrue(store.getFreeBytes() > 0);
+    }
+  }
+
+  @Test
+  void testKeepsTheOldRecordWhenAnUpdateIsTorn() throws IOException {
+    try (PlayerStore store = new PlayerStore(file)) {
+      store.put(new Player("Bob", 100, 20, 1));
+      store.put(new Player("Bob", 100, 20, 2));
+    }
+    // bring back the old record, as if the crash came before it was freed, and scramble
+    // the last byte of the new one
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer old = ByteBuffer.allocate(12);
+      channel.read(old, 16);
+      long position = 16 + 12 + old.getInt(0);
+      ByteBuffer slot = ByteBuffer.allocate(12);
+      channel.read(slot, position);
+      int length = slot.getInt(4);
+      channel.write(ByteBuffer.allocate(4).putInt(0, length), 16 + 4);
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), position + 12 + length - 1);
+    }
+    try (PlayerStore store = new PlayerStore(file)) {
+      assertEquals(1, store.size());
+      assertEquals(1, store.get("Bob").getScore());
+    }
+  }
+
+  @Test
+  void testControllerSavesPlayersInTheStore() throws IOException {
+    StringBuilder output = new StringBuilder();
+    try (PlayerStore store = new PlayerStore(file)) {
+      GameController controller = new GameController(
+              GameDataLoader.loadGameWorld("data/align_quest_game_elements.json"),
+              new Player("Bob", 100, 20, 0), new Viewer(output));
+      controller.setPlayerStore(store);
+      controller.processCommand("TAKE Hair Clippers");
+      controller.processCommand("SAVE BINARY");
+      assertTrue(output.toString().contains(
+              "Game saved successfully as Align Quest.Bob.bin and players.store"), output.toString());
+      assertTrue(store.get("Bob").hasEntity("Hair Clippers"));
+
+      controller.processCommand("DROP Hair Clippers");
+      controller.processCommand("RESTORE BINARY");
+      assertTrue(controller.getPlayer().hasEntity("Hair Clippers"), output.toString());
+    } finally {
+      Files.deleteIfExists(Path.of("resources/worlds/Align Quest.Bob.bin"));
+    }
+  }
+
+  @Test
+  void testRejectsOtherFiles() throws IOException {
+    Files.writeString(file, "not a player store at all");
+    assertThrows(IOException.class, () -> new PlayerStore(file));
+  }
+}
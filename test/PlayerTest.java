@@ -243,5 +243,34 @@ public class PlayerTest {
             + "unchanged when adding an item exceeds the weight limit.");
   }
 
-}
+  /**
+   * Test the running totals and the capacity checks as items come and go.
+   */
+  @Test
+  public void testInventoryTotals() {
+    assertEquals(250, player.getInventoryValue());
+    assertEquals(2, player.getItemCount());
+    assertEquals(46, player.getRemainingCapacity());
+    assertFalse(player.canCarry(carrot));
+
+    player.removeItem(lamp);
+    assertEquals(150, player.getInventoryValue());
+    assertEquals(1, player.getItemCount());
+    assertEquals(49, player.getRemainingCapacity());
+    assertTrue(player.canCarry(lamp));
+    assertFalse(player.canCarry(carrot));
+
+    Player hoarder = new Player("Hoarder", 100, 5000);
+    for (int i = 0; i < 5000; i++) {
+      assertTrue(hoarder.addItem(new Item("Coin " + i, "A coin", 1, 1, 2, 1, "Clink")));
+    }
+    assertFalse(hoarder.addItem(new Item("Coin", "A coin", 1, 1, 2, 1, "Clink")));
+    assertEquals(0, hoarder.getRemainingCapacity());
+    assertEquals(10000, hoarder.getInventoryValue());
+    hoarder.removeEntity(hoarder.getEntity("coin 7", Item.class));
+    assertEquals(4999, hoarder.getItemCount());
+    assertEquals(4999, hoarder.getCurrentWeight());
+    assertEquals(1, hoarder.getRemainingCapacity());
+  }
 
+}
@@ -0,0 +1,124 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.replay.ReplayEngine;
+import enginedriver.replay.ReplayReport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for ReplayEngine.
+ */
+public class ReplayEngineTest {
+
+  private Path commandLog;
+  private Map<String, GameController> controllers;
+  private ReplayEngine engine;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    commandLog = Files.createTempFile("commands", ".log");
+    controllers = new ConcurrentHashMap<>();
+    engine = new ReplayEngine((sessionId, viewer) -> {
+      GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+      GameController controller = new GameController(gameWorld,
+              new Player(sessionId, 100, 20, 0), viewer);
+      controllers.put(sessionId, controller);
+      return controller;
+    }, 2);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(commandLog);
+  }
+
+  @Test
+  void testReplayInterleavedSessions() throws IOException {
+    Files.writeString(commandLog, "alice\tN\n"
+            + "bob T hair clippers\n"
+            + "alice\ttake THUMB drive\r\n"
+            + "garbage\n"
+            + "\n"
+            + "bob Q\n"
+            + "bob N\n"
+            + "alice\tI");
+
+    ReplayReport report = engine.replay(commandLog);
+
+    assertEquals(2, report.getSessions());
+    assertEquals(5, report.getCommands());
+    assertEquals(2, report.getSkipped());
+    assertEquals(0, report.getFailed());
+    assertTrue(report.getLatencyPercentile(50) <= report.getLatencyPercentile(99));
+
+    Player alice = controllers.get("alice").getPlayer();
+    assertEquals(2, alice.getRoomNumber());
+    assertTrue(alice.hasEntity("Thumb Drive"));
+    Player bob = controllers.get("bob").getPlayer();
+    assertEquals(1, bob.getRoomNumber());
+    assertTrue(bob.hasEntity("Hair Clippers"));
+    assertTrue(controllers.get("bob").isGameOver());
+  }
+
+  @Test
+  void testReplayDoesNotWriteSaves() throws IOException {
+    Files.writeString(commandLog, "carol T hair clippers\n"
+            + "carol SAVE JOURNAL\n"
+            + "carol SAVE JSON\n"
+            + "carol SAVE BINARY\n"
+            + "carol D hair clippers\n"
+            + "carol RESTORE\n");
+
+    ReplayReport report = engine.replay(commandLog);
+
+    assertEquals(6, report.getCommands());
+    assertEquals(0, report.getFailed());
+    for (String save : List.of("worlds/Align Quest.carol.json", "worlds/Align Quest.carol.bin",
+            "players/carol.json", "players/carol.bin", "players/carol.journal")) {
+      assertFalse(Files.exists(Path.of("resources/" + save)), save);
+    }
+    // the last save is still kept in memory
+    assertTrue(controllers.get("carol").getPlayer().hasEntity("Hair Clippers"));
+  }
+
+  @Test
+  void testReplayManySessions() throws IOException {
+    StringBuilder log = new StringBuilder();
+    for (int round = 0; round < 3; round++) {
+      for (int session = 0; session < 50; session++) {
+        log.append("player").append(session).append(round == 0 ? " N\n" : " L\n");
+      }
+    }
+    Files.writeString(commandLog, log);
+
+    ReplayReport report = engine.replay(commandLog);
+
+    assertEquals(50, report.getSessions());
+    assertEquals(150, report.getCommands());
+    assertEquals(0, report.getSkipped());
+    for (GameController controller : controllers.values()) {
+      assertEquals(2, controller.getPlayer().getRoomNumber());
+    }
+  }
+
+  @Test
+  void testEmptyLog() throws IOException {
+    ReplayReport report = engine.replay(commandLog);
+    assertEquals(0, report.getSessions());
+    assertEquals(0, report.getCommands());
+    assertEquals(0, report.getLatencyPercentile(99));
+  }
+}
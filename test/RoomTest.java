@@ -3,6 +3,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import enginedriver.Direction;
 import enginedriver.Fixture;
 import enginedriver.IdentifiableEntity;
 import enginedriver.Item;
@@ -11,6 +12,7 @@ import enginedriver.problems.Monster;
 import enginedriver.problems.Puzzle;
 import enginedriver.problems.validator.StringSolutionValidator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -127,6 +129,38 @@ public class RoomTest {
     assertEquals(-2, returnedExits.get("S"));
   }
 
+  /**
+   * Test hasExit, getExit, setExit and unlockExits.
+   */
+  @Test
+  void testExitsByDirection() {
+    Map<String, Integer> exits = new HashMap<>();
+    exits.put("N", 2);
+    exits.put("E", -3);
+    exits.put("W", 0);
+    Room<?> room = new Room(1, "A", "descA", exits);
+
+    assertTrue(room.hasExit(Direction.NORTH));
+    assertFalse(room.hasExit(Direction.SOUTH));
+    assertTrue(room.hasExit(Direction.WEST));
+    assertEquals(2, room.getExit(Direction.NORTH));
+    assertEquals(-3, room.getExit(Direction.EAST));
+    assertEquals(0, room.getExit(Direction.SOUTH));
+    assertTrue(room.isExitLocked(Direction.EAST));
+    assertFalse(room.isExitLocked(Direction.NORTH));
+
+    room.setExit(Direction.SOUTH, -4);
+    assertEquals(Direction.EAST.bit() | Direction.SOUTH.bit(), room.unlockExits());
+    assertEquals(3, room.getExit(Direction.EAST));
+    assertEquals(4, room.getExit(Direction.SOUTH));
+    assertEquals(0, room.unlockExits());
+    assertEquals(Map.of("N", 2, "S", 4, "E", 3, "W", 0), room.getExits());
+
+    exits.put("Up", 5);
+    Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new Room(2, "B", "descB", exits));
+  }
+
   /**
    * Test addEntity(IdentifiableEntity entity).
    */
@@ -242,6 +276,76 @@ public class RoomTest {
     assertNull(nonExistent);
   }
 
+  /**
+   * Test getEntity and hasEntity with names typed by the player.
+   */
+  @Test
+  void testGetEntityIgnoresCaseAndSpaces() {
+    Map<String, Integer> exits = new HashMap<>();
+    Map<String, IdentifiableEntity> elements = new HashMap<>();
+    Item clippers = new Item("Hair Clippers", "desc", 1, 1, 10, 5, "used");
+    elements.put("Hair Clippers", clippers);
+    Room<?> room = new Room(7, "G", "descG", exits, elements);
+    Fixture desk = new Fixture("Desk", "An old desk", 1000);
+    room.addEntity(desk);
+
+    assertEquals(clippers, room.getItem("hair clippers"));
+    assertEquals(clippers, room.getItem("  HAIR \t  clippers "));
+    assertEquals(desk, room.getEntity(new StringBuilder("dESK"), Fixture.class));
+    assertTrue(room.hasEntity("hair clippers"));
+    assertNull(room.getItem("hairclippers"));
+    assertNull(room.getItem("hair clippers x"));
+
+    room.removeEntity(clippers);
+    assertNull(room.getItem("Hair Clippers"));
+    assertFalse(room.hasEntity("hair clippers"));
+    assertEquals(desk, room.getEntity("desk", Fixture.class));
+
+    for (int i = 0; i < 100; i++) {
+      room.addEntity(new Item("Coin " + i, "desc", 1, 1, 1, 1, "used"));
+    }
+    for (int i = 0; i < 100; i += 2) {
+      room.removeEntity(room.getItem("coin " + i));
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i % 2 == 1, room.hasEntity("COIN  " + i));
+    }
+    assertEquals(desk, room.getEntity("desk", Fixture.class));
+  }
+
+  /**
+   * Test getEntitiesByType and getElementNames as entities come and go.
+   */
+  @Test
+  void testListingsFollowChanges() {
+    Map<String, IdentifiableEntity> entities = new HashMap<>();
+    Item lamp = new Item("Lamp", "desc", 1, 1, 1, 1, "used");
+    entities.put("Lamp", lamp);
+    entities.put("Ghost", null);
+    Room<?> room = new Room(9, "I", "descI", new HashMap<>(), entities);
+    Fixture desk = new Fixture("Desk", "An old desk", 1000);
+
+    assertEquals("Lamp", room.getElementNames(Item.class));
+    assertEquals("", room.getElementNames(Fixture.class));
+    assertEquals(List.of(lamp), room.getEntitiesByType(Item.class));
+    Assertions.assertThrows(UnsupportedOperationException.class,
+            () -> room.getEntitiesByType(Item.class).clear());
+
+    Item key = new Item("Key", "desc", 1, 1, 1, 1, "used");
+    room.addEntity(key);
+    room.addEntity(desk);
+    assertEquals("Lamp, Key", room.getElementNames(Item.class));
+    assertEquals("Desk", room.getElementNames(Fixture.class));
+    assertEquals(List.of(desk), room.getEntitiesByType(Fixture.class));
+
+    // removing by an equal item takes out the one in the room
+    room.removeEntity(new Item("Lamp", "desc", 1, 1, 1, 1, "used"));
+    assertEquals("Key", room.getElementNames(Item.class));
+    assertEquals(List.of(key), room.getEntitiesByType(Item.class));
+    room.removeEntity(desk);
+    assertEquals("", room.getElementNames(Fixture.class));
+  }
+
   /**
    * Test getProblem().
    */
@@ -0,0 +1,87 @@
+import binio.BinaryCodec;
+import enginedriver.GameWorld;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jsonio.CodecRegistry;
+import jsonio.GameDataLoader;
+
+/**
+ * Benchmark comparing the JSON save files with the binary snapshots of BinaryCodec.
+ * Reports, for the bundled worlds and for worlds generated with WorldGenerator, the size
+ * of each format and the best time to write and to read it back, in memory so that the
+ * disk does not blur the numbers. Run with
+ * java -cp "lib/*:out" SaveFormatBenchmark [rooms...].
+ */
+public class SaveFormatBenchmark {
+  private static final String[] BUNDLED = {
+    "data/align_quest_game_elements.json", "data/museum.json", "data/simple_hallway.json"
+  };
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the numbers of rooms of the generated worlds, 10000 and 100000 by default
+   * @throws Exception if a world cannot be written or loaded
+   */
+  public static void main(String[] args) throws Exception {
+    int[] sizes = args.length == 0 ? new int[] {10_000, 100_000} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%-40s %11s %11s %9s %9s %9s %9s%n", "world", "JSON bytes",
+            "binary", "JSON w", "binary w", "JSON r", "binary r");
+    for (String fileName : BUNDLED) {
+      compare(fileName, GameDataLoader.loadGameWorld(fileName), 2000);
+    }
+    for (int size : sizes) {
+      Path file = Files.createTempFile("world-" + size + "-", ".json");
+      try {
+        WorldGenerator.write(file, size);
+        compare(size + " generated rooms", GameDataLoader.loadGameWorld(file.toString()), 5);
+      } finally {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Write and read one world in both formats and print a line of results.
+   */
+  private static void compare(String label, GameWorld gameWorld, int rounds) throws Exception {
+    byte[] json = null;
+    ByteBuffer binary = null;
+    long jsonWrite = Long.MAX_VALUE;
+    long binaryWrite = Long.MAX_VALUE;
+    long jsonRead = Long.MAX_VALUE;
+    long binaryRead = Long.MAX_VALUE;
+    for (int round = 0; round < rounds; round++) {
+      long start = System.nanoTime();
+      json = CodecRegistry.writer(GameWorld.class).writeValueAsBytes(gameWorld);
+      jsonWrite = Math.min(jsonWrite, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      binary = BinaryCodec.encodeWorld(gameWorld);
+      binaryWrite = Math.min(binaryWrite, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      GameWorld fromJson = CodecRegistry.reader(GameWorld.class).readValue(json);
+      jsonRead = Math.min(jsonRead, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      GameWorld fromBinary = BinaryCodec.decodeWorld(binary.duplicate());
+      binaryRead = Math.min(binaryRead, System.nanoTime() - start);
+
+      if (fromJson.getRooms().size() != fromBinary.getRooms().size()) {
+        throw new IllegalStateException("The formats disagree on " + label);
+      }
+    }
+    System.out.printf("%-40s %,11d %,11d %9s %9s %9s %9s%n", label, json.length,
+            binary.remaining(), time(jsonWrite), time(binaryWrite), time(jsonRead),
+            time(binaryRead));
+  }
+
+  private static String time(long nanos) {
+    return nanos < 10_000_000 ? nanos / 1000 + " us" : nanos / 1_000_000 + " ms";
+  }
+}
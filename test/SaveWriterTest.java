@@ -0,0 +1,224 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import binio.BinaryDataLoader;
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import saveio.AtomicFiles;
+import saveio.SaveWriter;
+
+/**
+ * Test class for SaveWriter and AtomicFiles.
+ */
+public class SaveWriterTest {
+  private static final Path WORLD_SAVE = Path.of("resources/worlds/Align Quest.Bob.bin");
+  private static final Path PLAYER_SAVE = Path.of("resources/players/Bob.bin");
+  private static final Path JOURNAL = Path.of("resources/players/Bob.journal");
+
+  private final SaveWriter writer = new SaveWriter();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    writer.close();
+    Files.deleteIfExists(WORLD_SAVE);
+    Files.deleteIfExists(PLAYER_SAVE);
+    Files.deleteIfExists(JOURNAL);
+  }
+
+  @Test
+  void testAtomicWriteReplacesFile() throws Exception {
+    Path folder = Files.createTempDirectory("saves");
+    Path file = folder.resolve("save.json");
+    Files.writeString(file, "old content, longer than the new one");
+    AtomicFiles.write(file, ByteBuffer.wrap("new ".getBytes(StandardCharsets.UTF_8)),
+            ByteBuffer.wrap("content".getBytes(StandardCharsets.UTF_8)));
+    assertEquals("new content", Files.readString(file));
+    try (var files = Files.list(folder)) {
+      assertEquals(List.of(file), files.toList());
+    }
+    Files.delete(file);
+    Files.delete(folder);
+  }
+
+  @Test
+  void testCoalescesWaitingSaves() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> written = new CopyOnWriteArrayList<>();
+    CompletableFuture<Void> first = writer.submit("a", () -> {
+      blocked.countDown();
+      await(release);
+      written.add("a1");
+    });
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+    // "a" is being written, so these wait behind it and the later replaces the earlier
+    CompletableFuture<Void> second = writer.submit("a", () -> written.add("a2"));
+    CompletableFuture<Void> third = writer.submit("a", () -> written.add("a3"));
+    assertSame(second, third);
+    assertFalse(first.isDone());
+    release.countDown();
+
+    third.get(5, TimeUnit.SECONDS);
+    assertTrue(first.isDone());
+    assertEquals(List.of("a1", "a3"), written);
+    assertEquals(2, writer.getWrittenCount());
+    assertEquals(1, writer.getCoalescedCount());
+  }
+
+  @Test
+  void testTasksRunInOrder() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> written = new CopyOnWriteArrayList<>();
+    writer.submit("a", () -> {
+      blocked.countDown();
+      await(release);
+      written.add("a1");
+    });
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+    // the task reads what the waiting save writes, so a later save must not replace it
+    writer.submit("a", () -> written.add("a2"));
+    CompletableFuture<Integer> read = writer.submitInOrder("a", written::size);
+    CompletableFuture<Void> last = writer.submit("a", () -> written.add("a3"));
+    release.countDown();
+
+    assertEquals(2, read.get(5, TimeUnit.SECONDS));
+    last.get(5, TimeUnit.SECONDS);
+    assertEquals(List.of("a1", "a2", "a3"), written);
+    assertEquals(0, writer.getCoalescedCount());
+  }
+
+  @Test
+  void testReportsFailure() {
+    CompletableFuture<Void> save = writer.submit("b", () -> {
+      throw new IOException("disk full");
+    });
+    ExecutionException e = assertThrows(ExecutionException.class,
+            () -> save.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IOException.class, e.getCause());
+  }
+
+  @Test
+  void testControllerSavesInBackground() throws Exception {
+    StringBuilder output = new StringBuilder();
+    GameController controller = new GameController(
+            GameDataLoader.loadGameWorld("data/align_quest_game_elements.json"),
+            new Player("Bob", 100, 20, 0), new Viewer(output));
+    controller.setSaveWriter(writer);
+    controller.processCommand("TAKE Hair Clippers");
+    controller.processCommand("SAVE BINARY");
+    assertTrue(output.toString().contains("Saving game as Align Quest.Bob.bin and Bob.bin..."),
+            output.toString());
+
+    controller.getLastSave().get(5, TimeUnit.SECONDS);
+    controller.processCommand("LOOK");
+    assertTrue(output.toString().contains("Game saved successfully as Align Quest.Bob.bin"),
+            output.toString());
+    Player saved = BinaryDataLoader.loadPlayer("Bob.bin");
+    assertNotNull(saved.getEntity("Hair Clippers", enginedriver.Item.class));
+  }
+
+  @Test
+  void testControllerRestoresInBackground() throws Exception {
+    StringBuilder output = new StringBuilder();
+    GameController controller = new GameController(
+            GameDataLoader.loadGameWorld("data/align_quest_game_elements.json"),
+            new Player("Bob", 100, 20, 0), new Viewer(output));
+    controller.setSaveWriter(writer);
+    controller.processCommand("TAKE Hair Clippers");
+    controller.processCommand("SAVE BINARY");
+    controller.processCommand("DROP Hair Clippers");
+    controller.processCommand("RESTORE BINARY");
+
+    // the restore reads the files after the save writes them, off the command thread
+    CompletableFuture<?> restore = controller.getPendingCommand();
+    assertNotNull(restore);
+    restore.get(5, TimeUnit.SECONDS);
+    controller.finishPendingCommand();
+    assertNull(controller.getPendingCommand());
+    assertTrue(output.toString().endsWith(
+            "Game restored successfully from Align Quest.Bob.bin and Bob.bin\n"),
+            output.toString());
+    assertNotNull(controller.getPlayer().getEntity("Hair Clippers", enginedriver.Item.class));
+
+    controller.processCommand("SAVE JOURNAL");
+    assertTrue(output.toString().endsWith("Saving game in Bob.journal...\n"),
+            output.toString());
+    controller.processCommand("DROP Hair Clippers");
+    controller.processCommand("RESTORE JOURNAL");
+    controller.getPendingCommand().get(5, TimeUnit.SECONDS);
+    controller.finishPendingCommand();
+    assertTrue(output.toString().endsWith("Game restored successfully from Bob.journal\n"),
+            output.toString());
+    assertNotNull(controller.getPlayer().getEntity("Hair Clippers", enginedriver.Item.class));
+    controller.processCommand("LOOK");
+    assertTrue(output.toString().contains("Game saved successfully in Bob.journal"),
+            output.toString());
+  }
+
+  @Test
+  void testSessionsOnOneWorldSaveApart() throws Exception {
+    WorldTemplate template = WorldTemplate.load("data/align_quest_game_elements.json");
+    GameController ann = new GameController(new GameSnapshot(template,
+            new Player("Ann", 100, 20, 0)), new Viewer(new StringBuilder()));
+    GameController ben = new GameController(new GameSnapshot(template,
+            new Player("Ben", 100, 20, 0)), new Viewer(new StringBuilder()));
+    ann.setSaveWriter(writer);
+    ben.setSaveWriter(writer);
+    try {
+      ann.processCommand("TAKE Hair Clippers");
+      ann.processCommand("SAVE JSON");
+      ben.processCommand("N");
+      ben.processCommand("TAKE Thumb Drive");
+      ben.processCommand("SAVE JSON");
+
+      // each restores its own world from the files, not the other's
+      ann.processCommand("RESTORE JSON");
+      ben.processCommand("RESTORE JSON");
+      assertEquals(1, ann.getPlayer().getRoomNumber());
+      assertNull(ann.getGameWorld().getRoom(1).getItem("Hair Clippers"));
+      assertNotNull(ann.getGameWorld().getRoom(2).getItem("Thumb Drive"));
+      assertEquals(2, ben.getPlayer().getRoomNumber());
+      assertNull(ben.getGameWorld().getRoom(2).getItem("Thumb Drive"));
+      assertNotNull(ben.getGameWorld().getRoom(1).getItem("Hair Clippers"));
+    } finally {
+      for (String name : List.of("Ann", "Ben")) {
+        Files.deleteIfExists(Path.of("resources/worlds/Align Quest." + name + ".json"));
+        Files.deleteIfExists(Path.of("resources/players/" + name + ".json"));
+      }
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+import enginedriver.GameController;
+import enginedriver.GameSnapshot;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.WorldTemplate;
+import enginedriver.session.SessionFactory;
+import enginedriver.session.SessionManager;
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import jsonio.GameDataLoader;
+
+/**
+ * Load test for SessionManager.
+ * Opens many sessions that stay open at the same time, each waiting on its own input
+ * queue, then feeds every session its commands round by round and reports how many
+ * sessions were open at once, the memory they used and the command throughput. Run with
+ * java -cp "lib/*:out" SessionLoadHarness [sessions] [commands per session] [template|json].
+ * By default the sessions share one world template; "json" loads a private world per
+ * session instead, for comparison.
+ */
+public class SessionLoadHarness {
+  private static final String WORLD_FILE = "data/align_quest_game_elements.json";
+  private static final String[] COMMANDS = {
+    "L", "take hair clippers", "I", "examine billboard", "drop hair clippers"
+  };
+
+  /**
+   * Main method to run the load test.
+
+   * @param args the number of sessions, the number of commands per session and how
+   *             sessions get their world
+   * @throws Exception if a session cannot be opened or the test is interrupted
+   */
+  public static void main(String[] args) throws Exception {
+    int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int commandsPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    boolean shareTemplate = args.length <= 2 || !args[2].equals("json");
+
+    SessionFactory sessionFactory;
+    if (shareTemplate) {
+      WorldTemplate template = WorldTemplate.load(WORLD_FILE);
+      sessionFactory = (sessionId, viewer) -> new GameController(
+              new GameSnapshot(template, new Player(sessionId, 100, 20, 0)), viewer);
+    } else {
+      sessionFactory = (sessionId, viewer) -> {
+        GameWorld gameWorld = GameDataLoader.loadGameWorld(WORLD_FILE);
+        return new GameController(gameWorld, new Player(sessionId, 100, 20, 0), viewer);
+      };
+    }
+
+    try (SessionManager manager = new SessionManager(sessionFactory)) {
+      long heapBefore = usedHeap();
+      long openStart = System.nanoTime();
+      List<QueueReader> inputs = new ArrayList<>();
+      for (int i = 0; i < sessionCount; i++) {
+        QueueReader input = new QueueReader();
+        inputs.add(input);
+        manager.open("player" + i, new BufferedReader(input), new StringBuilder());
+      }
+      long openElapsed = System.nanoTime() - openStart;
+      int openSessions = manager.getOpenSessions();
+      long heapPerSession = (usedHeap() - heapBefore) / sessionCount;
+
+      long runStart = System.nanoTime();
+      for (int round = 0; round < commandsPerSession; round++) {
+        for (QueueReader input : inputs) {
+          input.send(COMMANDS[round % COMMANDS.length]);
+        }
+      }
+      for (QueueReader input : inputs) {
+        input.close();
+      }
+      boolean done = manager.awaitSessions(10, TimeUnit.MINUTES);
+      long runElapsed = System.nanoTime() - runStart;
+
+      System.out.printf("world per session:      %s%n",
+              shareTemplate ? "shared template" : "private JSON load");
+      System.out.printf("sessions open at once:  %d%n", openSessions);
+      System.out.printf("time to open sessions:  %.3f s%n", openElapsed / 1e9);
+      System.out.printf("heap per open session:  %d bytes%n", heapPerSession);
+      System.out.printf("commands run:           %d%n", manager.getCommandCount());
+      System.out.printf("commands/sec:           %.0f%n",
+              manager.getCommandCount() * 1e9 / runElapsed);
+      System.out.printf("all sessions finished:  %b%n", done);
+    }
+  }
+
+  /**
+   * Heap in use after a garbage collection.
+   */
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Reader fed one line at a time from another thread, blocking until a line arrives.
+   */
+  private static class QueueReader extends Reader {
+    private static final String END = new String("");
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private String current = "";
+    private int position;
+
+    void send(String line) {
+      lines.add(line + "\n");
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (current == END) {
+        return -1;
+      }
+      if (position == current.length()) {
+        try {
+          current = lines.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return -1;
+        }
+        position = 0;
+        if (current == END) {
+          return -1;
+        }
+      }
+      int count = Math.min(length, current.length() - position);
+      current.getChars(position, position + count, buffer, offset);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() {
+      lines.add(END);
+    }
+  }
+}
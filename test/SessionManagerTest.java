@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.session.GameSession;
+import enginedriver.session.SessionManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for SessionManager.
+ */
+public class SessionManagerTest {
+
+  private SessionManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new SessionManager((sessionId, viewer) -> {
+      GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+      return new GameController(gameWorld, new Player(sessionId, 100, 20, 0), viewer);
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.close();
+  }
+
+  @Test
+  void testSessionsHaveTheirOwnWorldAndOutput() throws Exception {
+    StringBuilder aliceOutput = new StringBuilder();
+    StringBuilder bobOutput = new StringBuilder();
+    GameSession alice = manager.open("alice",
+            new BufferedReader(new StringReader("take hair clippers\nN\nI\n")), aliceOutput);
+    GameSession bob = manager.open("bob",
+            new BufferedReader(new StringReader("L\nQ\nN\n")), bobOutput);
+
+    assertTrue(manager.awaitSessions(10, TimeUnit.SECONDS));
+
+    assertTrue(alice.isFinished());
+    assertEquals(3, alice.getCommandCount());
+    assertEquals(2, alice.getController().getPlayer().getRoomNumber());
+    assertTrue(aliceOutput.toString().contains("Hair Clippers"));
+    // bob's world still has the clippers alice took
+    assertNotNull(bob.getController().getGameWorld().getRoom(1).getItem("Hair Clippers"));
+    assertEquals(2, bob.getCommandCount());
+    assertEquals(1, bob.getController().getPlayer().getRoomNumber());
+    assertTrue(bobOutput.toString().endsWith("Quitting...\n"));
+    assertEquals(5, manager.getCommandCount());
+    assertEquals(2, manager.getFinishedSessions());
+    assertEquals(0, manager.getOpenSessions());
+  }
+
+  @Test
+  void testDuplicateSessionId() throws Exception {
+    PipedWriter writer = new PipedWriter();
+    BufferedReader input = new BufferedReader(new PipedReader(writer));
+    manager.open("carol", input, new StringBuilder());
+    assertThrows(IllegalArgumentException.class, () -> manager.open("carol",
+            new BufferedReader(new StringReader("")), new StringBuilder()));
+    assertEquals(1, manager.getOpenSessions());
+
+    writer.write("N\n");
+    writer.close();
+    assertTrue(manager.awaitSessions(10, TimeUnit.SECONDS));
+    assertNull(manager.getSession("carol"));
+  }
+
+  @Test
+  void testManyConcurrentSessions() throws Exception {
+    List<GameSession> sessions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      sessions.add(manager.open("player" + i,
+              new BufferedReader(new StringReader("N\nN\nL\nS\n")), new StringBuilder()));
+    }
+    assertTrue(manager.awaitSessions(30, TimeUnit.SECONDS));
+    for (GameSession session : sessions) {
+      assertEquals(4, session.getCommandCount());
+    }
+    assertEquals(800, manager.getCommandCount());
+  }
+
+  @Test
+  void testFailingCommandStopsOnlyItsSession() throws Exception {
+    try (SessionManager failing = new SessionManager((sessionId, viewer) -> {
+      GameWorld gameWorld = GameDataLoader.loadGameWorld("data/align_quest_game_elements.json");
+      GameController controller = new GameController(gameWorld,
+              new Player(sessionId, 100, 20, 0), viewer);
+      controller.registerCommand(command -> {
+        throw new IllegalStateException("broken command");
+      }, "BREAK");
+      return controller;
+    })) {
+      GameSession broken = failing.open("broken",
+              new BufferedReader(new StringReader("L\nBREAK\nL\n")), new StringBuilder());
+      GameSession healthy = failing.open("healthy",
+              new BufferedReader(new StringReader("L\nI\n")), new StringBuilder());
+
+      assertTrue(failing.awaitSessions(10, TimeUnit.SECONDS));
+      assertTrue(broken.isFinished());
+      assertInstanceOf(IllegalStateException.class, broken.getFailure());
+      assertEquals(1, broken.getCommandCount());
+      assertNull(healthy.getFailure());
+      assertEquals(2, failing.getFinishedSessions());
+      assertEquals(1, failing.getFailedSessions());
+      assertEquals(3, failing.getCommandCount());
+      assertEquals(0, failing.getOpenSessions());
+    }
+  }
+
+  @Test
+  void testOpenAfterClose() throws IOException {
+    manager.close();
+    assertThrows(IllegalStateException.class, () -> manager.open("dave",
+            new BufferedReader(new StringReader("")), new StringBuilder()));
+  }
+}
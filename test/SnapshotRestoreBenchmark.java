@@ -0,0 +1,71 @@
+import enginedriver.GameSnapshot;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import jsonio.GameDataLoader;
+
+/**
+ * Benchmark comparing the ways a game can be restored.
+ * Reports the time per restore from the saved JSON files, as RESTORE did before, and
+ * from an in-memory GameSnapshot, both for a restore alone and for a restore followed
+ * by touching every room, which copies the whole world. Run with
+ * java -cp "lib/*:out" SnapshotRestoreBenchmark.
+ */
+public class SnapshotRestoreBenchmark {
+  private static final String WORLD_FILE = "Align Quest.json";
+  private static final String PLAYER_FILE = "TestPlayer.json";
+  private static final int FILE_ROUNDS = 2_000;
+  private static final int SNAPSHOT_ROUNDS = 200_000;
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args not used
+   * @throws Exception if the saved game cannot be read
+   */
+  public static void main(String[] args) throws Exception {
+    GameWorld gameWorld = GameDataLoader.loadGameWorld(WORLD_FILE);
+    Player player = GameDataLoader.loadPlayer(PLAYER_FILE, gameWorld);
+
+    long checksum = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      // the first pass warms up the JIT
+      long start = System.nanoTime();
+      for (int i = 0; i < FILE_ROUNDS; i++) {
+        GameWorld restored = GameDataLoader.loadGameWorld(WORLD_FILE);
+        checksum += GameDataLoader.loadPlayer(PLAYER_FILE, restored).getScore();
+      }
+      long fileNanos = (System.nanoTime() - start) / FILE_ROUNDS;
+
+      start = System.nanoTime();
+      GameSnapshot snapshot = null;
+      for (int i = 0; i < SNAPSHOT_ROUNDS; i++) {
+        snapshot = GameSnapshot.capture(gameWorld, player);
+      }
+      long captureNanos = (System.nanoTime() - start) / SNAPSHOT_ROUNDS;
+
+      start = System.nanoTime();
+      for (int i = 0; i < SNAPSHOT_ROUNDS; i++) {
+        GameWorld restored = snapshot.newWorld();
+        checksum += snapshot.newPlayer().getScore() + restored.getRoom(1).getId();
+      }
+      long snapshotNanos = (System.nanoTime() - start) / SNAPSHOT_ROUNDS;
+
+      start = System.nanoTime();
+      for (int i = 0; i < SNAPSHOT_ROUNDS; i++) {
+        GameWorld restored = snapshot.newWorld();
+        checksum += snapshot.newPlayer().getScore() + restored.getRooms().size();
+      }
+      long fullNanos = (System.nanoTime() - start) / SNAPSHOT_ROUNDS;
+
+      if (pass == 1) {
+        System.out.printf("restore from JSON files:          %,d ns%n", fileNanos);
+        System.out.printf("capture in-memory snapshot:       %,d ns%n", captureNanos);
+        System.out.printf("restore from snapshot:            %,d ns%n", snapshotNanos);
+        System.out.printf("restore and copy every room:      %,d ns%n", fullNanos);
+        System.out.printf("speedup over JSON files:          %.0fx / %.0fx%n",
+                (double) fileNanos / snapshotNanos, (double) fileNanos / fullNanos);
+        System.out.printf("checksum:                         %d%n", checksum);
+      }
+    }
+  }
+}
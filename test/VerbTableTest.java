@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import enginedriver.command.CommandParser;
+import enginedriver.command.ParsedCommand;
+import enginedriver.command.Verb;
+import enginedriver.command.VerbTable;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for VerbTable.
+ */
+public class VerbTableTest {
+
+  private VerbTable<String> table;
+
+  @BeforeEach
+  void setUp() {
+    table = new VerbTable<>();
+    table.put("north", "move north");
+    table.put("N", "move north");
+    table.put("Save", "save game");
+  }
+
+  @Test
+  void testGetIgnoresCase() {
+    assertEquals("move north", table.get("NORTH"));
+    assertEquals("move north", table.get("n"));
+    assertEquals("save game", table.get("sAvE"));
+    assertNull(table.get("SOUTH"));
+    assertNull(table.get(""));
+  }
+
+  @Test
+  void testGetFromParsedCommand() {
+    ParsedCommand command = CommandParser.parse("save now", new ParsedCommand());
+    assertEquals("save game", command.lookupVerb(table));
+    CommandParser.parse("restore", command);
+    assertNull(command.lookupVerb(table));
+  }
+
+  @Test
+  void testPutReplacesValue() {
+    table.put("n", "walk north");
+    assertEquals("walk north", table.get("N"));
+    assertEquals(3, table.size());
+  }
+
+  @Test
+  void testGrow() {
+    for (int i = 0; i < 1000; i++) {
+      table.put("VERB" + i, "value" + i);
+    }
+    assertEquals(1003, table.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("value" + i, table.get("verb" + i));
+    }
+    assertEquals("move north", table.get("North"));
+  }
+
+  @Test
+  void testInvalidPut() {
+    assertThrows(IllegalArgumentException.class, () -> table.put("", "empty"));
+    assertThrows(IllegalArgumentException.class, () -> table.put("JUMP", null));
+  }
+
+  @Test
+  void testIgnoresDefaultLocale() {
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(Locale.forLanguageTag("tr"));
+    try {
+      // Turkish upper cases "i" to a dotted capital I
+      table.put("inventory", "show inventory");
+      assertEquals("show inventory", table.get("INVENTORY".toCharArray(), 0, 9));
+      assertEquals("show inventory", table.get("inventory"));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  @Test
+  void testBuiltInVerbs() {
+    for (Verb verb : Verb.values()) {
+      for (String name : verb.getNames()) {
+        char[] chars = name.toCharArray();
+        assertEquals(verb, Verb.match(chars, 0, chars.length));
+      }
+    }
+    assertEquals(Verb.UNKNOWN, Verb.match("QUIT".toCharArray(), 0, 4));
+  }
+}
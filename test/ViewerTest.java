@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import java.util.HashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for Viewer.
+ */
+public class ViewerTest {
+
+  private CountingOutput output;
+  private Viewer viewer;
+
+  @BeforeEach
+  void setUp() {
+    output = new CountingOutput();
+    viewer = new Viewer(output);
+  }
+
+  @Test
+  void testTextIsWrittenOnFlush() {
+    viewer.showText("You are currently standing in the Courtyard");
+    viewer.showText("There is no items here");
+    assertEquals("", output.text.toString());
+
+    viewer.flush();
+    assertEquals("You are currently standing in the Courtyard\nThere is no items here\n",
+            output.text.toString());
+    assertEquals(1, output.appends);
+  }
+
+  @Test
+  void testFlushWithoutTextWritesNothing() {
+    viewer.flush();
+    viewer.showText("Quitting...");
+    viewer.flush();
+    viewer.flush();
+    assertEquals("Quitting...\n", output.text.toString());
+    assertEquals(1, output.appends);
+  }
+
+  @Test
+  void testOneWritePerCommand() {
+    GameController controller = new GameController(
+            new GameWorld("Empty", "1.0", new HashMap<>()), new Player("Tester", 100, 10), viewer);
+    controller.processCommand("jump");
+    controller.processCommand("I");
+    controller.processCommand("Q");
+    assertEquals(3, output.appends);
+    assertEquals("Invalid command.\nThere is nothing in your inventory.\nQuitting...\n",
+            output.text.toString());
+  }
+
+  @Test
+  void testNullOutput() {
+    assertThrows(IllegalArgumentException.class, () -> new Viewer(null));
+  }
+
+  /**
+   * Appendable counting how many times text is written to it.
+   */
+  private static class CountingOutput implements Appendable {
+    private final StringBuilder text = new StringBuilder();
+    private int appends;
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      appends++;
+      text.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      appends++;
+      text.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      appends++;
+      text.append(c);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.GameWorld;
+import enginedriver.Room;
+import enginedriver.WorldCompiler;
+import enginedriver.WorldTemplate;
+import enginedriver.problems.Monster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jsonio.GameDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for WorldCompiler.
+ */
+public class WorldCompilerTest {
+  private static final String WORLD_FILE = "data/align_quest_game_elements.json";
+
+  private Path folder;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    folder = Files.createTempDirectory("packs");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (var files = Files.list(folder)) {
+      for (Path path : files.toList()) {
+        Files.delete(path);
+      }
+    }
+    Files.delete(folder);
+  }
+
+  @Test
+  void testCompiledPackLoadsTheSameWorld() throws IOException {
+    Path pack = folder.resolve("align.pack");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int status = WorldCompiler.run(new String[] {WORLD_FILE, pack.toString()},
+            new PrintStream(out, true, StandardCharsets.UTF_8), System.err);
+    assertEquals(0, status);
+    assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("Compiled Align Quest"));
+
+    GameWorld json = GameDataLoader.loadGameWorld(WORLD_FILE);
+    GameWorld compiled = WorldCompiler.loadPack(pack.toString());
+    assertEquals(json.getName(), compiled.getName());
+    assertEquals(json.getRooms().keySet(), compiled.getRooms().keySet());
+    for (Room<?> room : json.getRooms().values()) {
+      Room<?> compiledRoom = compiled.getRoom(room.getId());
+      assertEquals(room.getDescription(), compiledRoom.getDescription());
+      assertEquals(room.getExits(), compiledRoom.getExits());
+      assertEquals(room.getEntities().keySet(), compiledRoom.getEntities().keySet());
+    }
+    assertSame(compiled.getRoom(1).getItem("Hair Clippers"),
+            ((Monster<?>) compiled.getRoom(3).getProblem()).getSolution());
+    assertEquals(json.getRooms().size(), WorldTemplate.load(pack.toString()).getRoomCount());
+  }
+
+  @Test
+  void testPacksAreReproducible() throws IOException {
+    GameWorld gameWorld = GameDataLoader.loadGameWorld(WORLD_FILE);
+    Path first = folder.resolve("first.pack");
+    Path second = folder.resolve("second.pack");
+    WorldCompiler.compile(gameWorld, first);
+    WorldCompiler.compile(GameDataLoader.loadGameWorld(WORLD_FILE), second);
+    assertEquals(-1, Files.mismatch(first, second));
+  }
+
+  @Test
+  void testRejectsBrokenReferences() throws IOException {
+    Path world = folder.resolve("broken.json");
+    Files.writeString(world, "{ \"name\": \"Broken\", \"rooms\": ["
+            + "{ \"room_name\": \"Hall\", \"room_number\": 1, \"N\": 2, \"S\": -7, "
+            + "\"items\": \"Lamp, Ghost\", \"monster\": \"Bear\" },"
+            + "{ \"room_name\": \"Study\", \"room_number\": 2, \"S\": 1 } ],"
+            + "\"items\": [ { \"name\": \"Lamp\" } ],"
+            + "\"monsters\": [ { \"name\": \"Bear\", \"solution\": \"Honey\" } ] }");
+
+    List<String> errors = WorldCompiler.validate(
+            GameDataLoader.loadGameWorld(world.toString()));
+    assertEquals(3, errors.size(), errors.toString());
+    assertTrue(errors.get(0).contains("Ghost") || errors.get(1).contains("Ghost"));
+    assertTrue(errors.stream().anyMatch(error -> error.contains("to room 7")));
+    assertTrue(errors.stream().anyMatch(error -> error.contains("Bear")));
+
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    assertEquals(1, WorldCompiler.run(new String[] {world.toString()}, System.out,
+            new PrintStream(err, true, StandardCharsets.UTF_8)));
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("Ghost"));
+    assertFalse(Files.exists(folder.resolve("broken.pack")));
+    assertEquals(2, WorldCompiler.run(new String[0], System.out,
+            new PrintStream(err, true, StandardCharsets.UTF_8)));
+  }
+}
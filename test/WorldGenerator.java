@@ -0,0 +1,130 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes large game world JSON files for the load benchmarks, in the same layout as the
+ * bundled worlds: rooms first, then items, fixtures, monsters and puzzles, with every
+ * number written as a string. Room i holds item i, every other room a fixture, and every
+ * tenth room a monster or a puzzle; rooms are chained north to south.
+ */
+public class WorldGenerator {
+  private static final String TEXT = "A generated description, long enough to look like the "
+          + "real ones.\nIt even has a second line, and \"quotes\".";
+
+  /**
+   * Write a world with the given number of rooms.
+
+   * @param file the file to write
+   * @param roomCount the number of rooms
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path file, int roomCount) throws IOException {
+    try (JsonGenerator json = new JsonFactory().createGenerator(file.toFile(),
+            JsonEncoding.UTF8)) {
+      json.writeStartObject();
+      json.writeStringField("name", "Generated " + roomCount);
+      json.writeStringField("version", "1.0");
+
+      json.writeArrayFieldStart("rooms");
+      for (int i = 1; i <= roomCount; i++) {
+        json.writeStartObject();
+        json.writeStringField("room_name", "Room " + i);
+        json.writeStringField("room_number", String.valueOf(i));
+        json.writeStringField("description", TEXT);
+        json.writeStringField("N", String.valueOf(i < roomCount ? i + 1 : 0));
+        json.writeStringField("S", String.valueOf(i - 1));
+        json.writeStringField("E", i % 10 == 0 ? String.valueOf(-(i - 1)) : "0");
+        json.writeStringField("W", "0");
+        if (i % 10 == 0) {
+          json.writeNullField("puzzle");
+          json.writeStringField("monster", "Monster " + i);
+        } else if (i % 10 == 5) {
+          json.writeStringField("puzzle", "Puzzle " + i);
+          json.writeNullField("monster");
+        } else {
+          json.writeNullField("puzzle");
+          json.writeNullField("monster");
+        }
+        json.writeStringField("items", "Item " + i);
+        if (i % 2 == 0) {
+          json.writeStringField("fixtures", "Fixture " + i);
+        } else {
+          json.writeNullField("fixtures");
+        }
+        json.writeStringField("picture", "room" + i + ".png");
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("items");
+      for (int i = 1; i <= roomCount; i++) {
+        json.writeStartObject();
+        json.writeStringField("name", "Item " + i);
+        json.writeStringField("weight", String.valueOf(i % 5 + 1));
+        json.writeStringField("max_uses", "3");
+        json.writeStringField("uses_remaining", "3");
+        json.writeStringField("value", String.valueOf(i % 100));
+        json.writeStringField("when_used", "You use item " + i + ".");
+        json.writeStringField("description", TEXT);
+        json.writeStringField("picture", "item" + i + ".png");
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("fixtures");
+      for (int i = 2; i <= roomCount; i += 2) {
+        json.writeStartObject();
+        json.writeStringField("name", "Fixture " + i);
+        json.writeStringField("weight", "1000");
+        json.writeNullField("puzzle");
+        json.writeNullField("states");
+        json.writeStringField("description", TEXT);
+        json.writeStringField("picture", "fixture" + i + ".png");
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("monsters");
+      for (int i = 10; i <= roomCount; i += 10) {
+        json.writeStartObject();
+        json.writeStringField("name", "Monster " + i);
+        json.writeStringField("active", "true");
+        json.writeStringField("affects_target", "true");
+        json.writeStringField("affects_player", "true");
+        json.writeStringField("solution", "Item " + (i - 1));
+        json.writeStringField("value", "100");
+        json.writeStringField("description", TEXT);
+        json.writeStringField("effects", "Monster " + i + " blocks the way!");
+        json.writeStringField("damage", "-5");
+        json.writeStringField("target", i + ":Room " + i);
+        json.writeStringField("can_attack", "true");
+        json.writeStringField("attack", "bites you!");
+        json.writeStringField("picture", "monster" + i + ".png");
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("puzzles");
+      for (int i = 5; i <= roomCount; i += 10) {
+        json.writeStartObject();
+        json.writeStringField("name", "Puzzle " + i);
+        json.writeStringField("active", "true");
+        json.writeStringField("affects_target", "true");
+        json.writeStringField("affects_player", "false");
+        json.writeStringField("solution", "'Answer " + i + "'");
+        json.writeStringField("value", "200");
+        json.writeStringField("description", TEXT);
+        json.writeStringField("effects", "Puzzle " + i + " asks a question.");
+        json.writeStringField("target", i + ":Room " + i);
+        json.writeStringField("picture", "puzzle" + i + ".png");
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import enginedriver.GameWorld;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import jsonio.GameDataLoader;
+
+/**
+ * Benchmark for loading large game worlds.
+ * Generates worlds with WorldGenerator and reports, per world size, the time, the bytes
+ * allocated and the peak heap to load it with GameDataLoader, next to the cost of only
+ * reading the file into a JsonNode tree, which is what the deserializer did before
+ * building anything, to a parallel load on the common fork-join pool, whose allocations
+ * are mostly made by the pool and not counted, and to the cost of a lazy load that then
+ * visits ten rooms. Run with
+ * java -cp "lib/*:out" WorldLoadBenchmark [rooms...].
+ */
+public class WorldLoadBenchmark {
+  private static final int ROUNDS = 5;
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the numbers of rooms of the worlds to load, 100000 and 200000 by default
+   * @throws Exception if a world cannot be written or loaded
+   */
+  public static void main(String[] args) throws Exception {
+    int[] sizes = args.length == 0 ? new int[] {100_000, 200_000} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    for (int size : sizes) {
+      Path file = Files.createTempFile("world-" + size + "-", ".json");
+      try {
+        WorldGenerator.write(file, size);
+        String fileName = file.toString();
+        ObjectMapper mapper = new ObjectMapper();
+
+        long treeNanos = Long.MAX_VALUE;
+        long treeBytes = 0;
+        long treePeak = 0;
+        long loadNanos = Long.MAX_VALUE;
+        long loadBytes = 0;
+        long loadPeak = 0;
+        long parallelNanos = Long.MAX_VALUE;
+        long parallelPeak = 0;
+        long lazyNanos = Long.MAX_VALUE;
+        long lazyBytes = 0;
+        long lazyPeak = 0;
+        int rooms = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+          resetPeakHeap();
+          long bytes = threads.getCurrentThreadAllocatedBytes();
+          long start = System.nanoTime();
+          Object tree = mapper.readTree(file.toFile());
+          treeNanos = Math.min(treeNanos, System.nanoTime() - start);
+          treeBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+          treePeak = Math.max(treePeak, peakHeap());
+          tree = null;
+
+          resetPeakHeap();
+          bytes = threads.getCurrentThreadAllocatedBytes();
+          start = System.nanoTime();
+          GameWorld gameWorld = GameDataLoader.loadGameWorld(fileName);
+          loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+          loadBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+          loadPeak = Math.max(loadPeak, peakHeap());
+          rooms = gameWorld.getRooms().size();
+          gameWorld = null;
+
+          resetPeakHeap();
+          start = System.nanoTime();
+          gameWorld = GameDataLoader.loadGameWorldInParallel(fileName);
+          parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+          parallelPeak = Math.max(parallelPeak, peakHeap());
+          gameWorld = null;
+
+          resetPeakHeap();
+          bytes = threads.getCurrentThreadAllocatedBytes();
+          start = System.nanoTime();
+          GameWorld lazyWorld = GameDataLoader.loadGameWorldLazily(fileName);
+          for (int id = 1; id <= 10; id++) {
+            lazyWorld.getRoom(id);
+          }
+          lazyNanos = Math.min(lazyNanos, System.nanoTime() - start);
+          lazyBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+          lazyPeak = Math.max(lazyPeak, peakHeap());
+        }
+
+        System.out.printf("%,d rooms, %,d KB file%n", rooms, Files.size(file) / 1024);
+        System.out.printf("  JsonNode tree only:   %,6d ms  %,9d KB allocated  %,9d KB peak heap%n",
+                treeNanos / 1_000_000, treeBytes / 1024, treePeak / 1024);
+        System.out.printf("  streaming full load:  %,6d ms  %,9d KB allocated  %,9d KB peak heap%n",
+                loadNanos / 1_000_000, loadBytes / 1024, loadPeak / 1024);
+        System.out.printf("  parallel full load:   %,6d ms  %9s KB allocated  %,9d KB peak heap"
+                + " (%d workers)%n", parallelNanos / 1_000_000, "-", parallelPeak / 1024,
+                ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("  lazy load, 10 rooms:  %,6d ms  %,9d KB allocated  %,9d KB peak heap%n",
+                lazyNanos / 1_000_000, lazyBytes / 1024, lazyPeak / 1024);
+      } finally {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Collect garbage and restart the peak usage of the heap from the live data.
+   */
+  private static void resetPeakHeap() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Peak usage of the heap since the last reset, summed over the heap pools.
+   */
+  private static long peakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
@@ -0,0 +1,84 @@
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Player;
+import enginedriver.Viewer;
+import enginedriver.WorldCompiler;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jsonio.GameDataLoader;
+
+/**
+ * Benchmark for starting a game on a large world, from its JSON file or from the pack
+ * WorldCompiler makes of it. Starting means loading the world and answering a first LOOK.
+ * Reports the first start, while the JVM is still cold, and the best of the following
+ * ones, for a full JSON load, a lazy JSON load and a pack. Run with
+ * java -cp "lib/*:out" WorldPackBenchmark [rooms].
+ */
+public class WorldPackBenchmark {
+  private static final int ROUNDS = 5;
+
+  /**
+   * Main method to run the benchmark.
+
+   * @param args the number of rooms of the world, 100000 by default
+   * @throws Exception if the world cannot be written, compiled or loaded
+   */
+  public static void main(String[] args) throws Exception {
+    int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    Path json = Files.createTempFile("world-" + rooms + "-", ".json");
+    Path pack = Path.of(json.toString().replace(".json", WorldCompiler.PACK_EXTENSION));
+    try {
+      WorldGenerator.write(json, rooms);
+      long start = System.nanoTime();
+      if (WorldCompiler.run(new String[] {json.toString(), pack.toString()}, System.out,
+              System.err) != 0) {
+        return;
+      }
+      System.out.printf("compiled in %,d ms; JSON %,d KB, pack %,d KB%n",
+              (System.nanoTime() - start) / 1_000_000, Files.size(json) / 1024,
+              Files.size(pack) / 1024);
+
+      String[] names = {"JSON full load", "JSON lazy load", "pack"};
+      long[] first = new long[names.length];
+      long[] best = new long[names.length];
+      for (int round = 0; round <= ROUNDS; round++) {
+        for (int i = 0; i < names.length; i++) {
+          System.gc();
+          start = System.nanoTime();
+          GameWorld gameWorld;
+          switch (i) {
+            case 0:
+              gameWorld = GameDataLoader.loadGameWorld(json.toString());
+              break;
+            case 1:
+              gameWorld = GameDataLoader.loadGameWorldLazily(json.toString());
+              break;
+            default:
+              gameWorld = WorldCompiler.loadPack(pack.toString());
+              break;
+          }
+          StringBuilder output = new StringBuilder();
+          new GameController(gameWorld, new Player("Bench", 100, 20, 0), new Viewer(output))
+                  .processCommand("LOOK");
+          long nanos = System.nanoTime() - start;
+          if (round == 0) {
+            first[i] = nanos;
+            best[i] = Long.MAX_VALUE;
+          } else {
+            best[i] = Math.min(best[i], nanos);
+          }
+        }
+      }
+      PrintStream out = System.out;
+      out.printf("%-16s %12s %12s%n", "start from", "first", "best");
+      for (int i = 0; i < names.length; i++) {
+        out.printf("%-16s %,9d ms %,9d ms%n", names[i], first[i] / 1_000_000,
+                best[i] / 1_000_000);
+      }
+    } finally {
+      Files.deleteIfExists(json);
+      Files.deleteIfExists(pack);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import enginedriver.GameController;
+import enginedriver.GameWorld;
+import enginedriver.Item;
+import enginedriver.Player;
+import enginedriver.Room;
+import enginedriver.Viewer;
+import enginedriver.WorldTemplate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for WorldTemplate.
+ */
+public class WorldTemplateTest {
+
+  private WorldTemplate template;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    template = WorldTemplate.load("data/align_quest_game_elements.json");
+  }
+
+  @Test
+  void testNewWorldStartsFromTemplate() {
+    GameWorld gameWorld = template.newWorld();
+    assertEquals("Align Quest", gameWorld.getName());
+    assertEquals(13, template.getRoomCount());
+    assertEquals(13, gameWorld.getRooms().size());
+    assertEquals(template.getRoomCount(), gameWorld.getRooms().size());
+    assertNull(gameWorld.getRoom(99));
+
+    Room<?> courtyard = gameWorld.getRoom(1);
+    assertSame(courtyard, gameWorld.getRoom(1));
+    assertEquals("Courtyard", courtyard.getName());
+    assertNotNull(courtyard.getItem("Hair Clippers"));
+    assertEquals(-5, gameWorld.getRoom(4).getExits().get("E"));
+    assertTrue(gameWorld.getRoom(3).getProblem().getActive());
+  }
+
+  @Test
+  void testGamesDoNotShareState() {
+    GameWorld played = template.newWorld();
+    GameController controller = new GameController(played,
+            new Player("Alice", 100, 20, 0), new Viewer(new StringBuilder()));
+    for (String command : List.of("take hair clippers", "N", "take modulo 2", "N",
+            "use hair clippers", "E", "use modulo 2")) {
+      controller.processCommand(command);
+    }
+    assertEquals(4, controller.getPlayer().getRoomNumber());
+    assertFalse(played.getRoom(3).getProblem().getActive());
+    assertEquals(5, played.getRoom(4).getExits().get("E"));
+    assertNull(played.getRoom(1).getItem("Hair Clippers"));
+    Item clippers = controller.getPlayer().getEntity("Hair Clippers", Item.class);
+
+    GameWorld fresh = template.newWorld();
+    assertTrue(fresh.getRoom(3).getProblem().getActive());
+    assertEquals(-5, fresh.getRoom(4).getExits().get("E"));
+    Item freshClippers = fresh.getRoom(1).getItem("Hair Clippers");
+    assertNotSame(clippers, freshClippers);
+    assertEquals(freshClippers.getRemainingUses() - 1, clippers.getRemainingUses());
+    assertSame(clippers.getDescription(), freshClippers.getDescription());
+  }
+}